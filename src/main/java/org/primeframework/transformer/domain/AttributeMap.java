@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.domain;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The attributes of a tag, in the order they were added. The keys and values are kept next to each other in a single
+ * array that is searched linearly. Tags rarely have more than a handful of attributes, so this is as fast as hashing
+ * and a fraction of the size of a <code>LinkedHashMap</code>. Nothing is allocated until the first attribute is added.
+ *
+ * @author Daniel DeGroff
+ */
+public final class AttributeMap extends AbstractMap<String, String> {
+  private static final Object[] EMPTY = new Object[0];
+
+  private Object[] entries = EMPTY;
+
+  private int modCount;
+
+  private int size;
+
+  @Override
+  public void clear() {
+    Arrays.fill(entries, 0, size * 2, null);
+    size = 0;
+    modCount++;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) != -1;
+  }
+
+  @Override
+  public Set<Entry<String, String>> entrySet() {
+    return new AbstractSet<Entry<String, String>>() {
+      @Override
+      public void clear() {
+        AttributeMap.this.clear();
+      }
+
+      @Override
+      public Iterator<Entry<String, String>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  @Override
+  public String get(Object key) {
+    int index = indexOf(key);
+    return index == -1 ? null : (String) entries[index + 1];
+  }
+
+  @Override
+  public String put(String key, String value) {
+    int index = indexOf(key);
+    if (index != -1) {
+      String previous = (String) entries[index + 1];
+      entries[index + 1] = value;
+      return previous;
+    }
+
+    if (size * 2 == entries.length) {
+      entries = Arrays.copyOf(entries, size == 0 ? 4 : size * 4);
+    }
+    entries[size * 2] = key;
+    entries[size * 2 + 1] = value;
+    size++;
+    modCount++;
+    return null;
+  }
+
+  @Override
+  public String remove(Object key) {
+    int index = indexOf(key);
+    if (index == -1) {
+      return null;
+    }
+
+    String previous = (String) entries[index + 1];
+    removeAt(index);
+    return previous;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Trim the capacity to the number of attributes.
+   */
+  public void trimToSize() {
+    if (size * 2 < entries.length) {
+      entries = size == 0 ? EMPTY : Arrays.copyOf(entries, size * 2);
+    }
+  }
+
+  private int indexOf(Object key) {
+    for (int i = 0; i < size * 2; i += 2) {
+      if (Objects.equals(entries[i], key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void removeAt(int index) {
+    System.arraycopy(entries, index + 2, entries, index, size * 2 - index - 2);
+    size--;
+    entries[size * 2] = null;
+    entries[size * 2 + 1] = null;
+    modCount++;
+  }
+
+  private class EntryIterator implements Iterator<Entry<String, String>> {
+    private int expectedModCount = modCount;
+
+    private int last = -1;
+
+    private int next;
+
+    @Override
+    public boolean hasNext() {
+      return next < size * 2;
+    }
+
+    @Override
+    public Entry<String, String> next() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (next >= size * 2) {
+        throw new NoSuchElementException();
+      }
+
+      last = next;
+      next += 2;
+      int index = last;
+      return new SimpleEntry<String, String>((String) entries[index], (String) entries[index + 1]) {
+        @Override
+        public String setValue(String value) {
+          super.setValue(value);
+          String previous = (String) entries[index + 1];
+          entries[index + 1] = value;
+          return previous;
+        }
+      };
+    }
+
+    @Override
+    public void remove() {
+      if (last == -1) {
+        throw new IllegalStateException();
+      }
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+
+      removeAt(last);
+      next = last;
+      last = -1;
+      expectedModCount = modCount;
+    }
+  }
+}
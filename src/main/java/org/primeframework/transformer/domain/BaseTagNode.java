@@ -17,7 +17,10 @@
 package org.primeframework.transformer.domain;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author Daniel DeGroff
@@ -32,18 +35,14 @@ public abstract class BaseTagNode extends BaseNode {
   public abstract void addChild(Node node);
 
   /**
-   * @return Return a {@link List} of {@link TagNode} objects.
+   * @return Return a {@link List} of {@link TagNode} objects. This node (if it is a tag) and all of the descendant tags,
+   *     in document order. Use {@link #tagNodes()} to visit the tags without building the list.
    */
   public List<TagNode> getChildTagNodes() {
     List<TagNode> tagNodes = new ArrayList<>(getChildren().size());
-    if (this instanceof TagNode) {
-      tagNodes.add((TagNode) this);
+    for (TagNode tagNode : tagNodes()) {
+      tagNodes.add(tagNode);
     }
-    getChildren().forEach(n -> {
-      if (n instanceof TagNode) {
-        tagNodes.addAll(((TagNode) n).getChildTagNodes());
-      }
-    });
     return tagNodes;
   }
 
@@ -53,4 +52,91 @@ public abstract class BaseTagNode extends BaseNode {
    * @return Return the child nodes. An empty list indicates this node has no children.
    */
   public abstract List<Node> getChildren();
+
+  /**
+   * Stream this node (if it is a tag) and all of its descendants in document order (pre-order). The stream splits at
+   * subtree boundaries, so <code>nodes().parallel()</code> spreads the work of a large document over several threads
+   * without copying the nodes into a list first.
+   *
+   * @return The nodes.
+   */
+  public Stream<Node> nodes() {
+    return StreamSupport.stream(new NodeSpliterator(this), false);
+  }
+
+  /**
+   * Iterate over this node (if it is a tag) and all of its descendants in post-order, a tag follows all of its
+   * descendants.
+   *
+   * @return The nodes.
+   */
+  public Iterable<Node> postOrder() {
+    return () -> new NodeIterator(this, true);
+  }
+
+  /**
+   * Iterate over this node (if it is a tag) and all of its descendants in pre-order, which is document order.
+   *
+   * @return The nodes.
+   */
+  public Iterable<Node> preOrder() {
+    return () -> new NodeIterator(this, false);
+  }
+
+  /**
+   * Iterate over this node (if it is a tag) and all of the descendant tags, in document order. The iteration doesn't
+   * allocate per tag or per level.
+   *
+   * @return The tags.
+   */
+  public Iterable<TagNode> tagNodes() {
+    return () -> new TagNodeIterator(this);
+  }
+
+  /**
+   * Visit this node (if it is a tag) and all of its descendants in document order. The traversal uses an explicit
+   * stack, so it works for documents of any depth.
+   *
+   * @param visitor The visitor.
+   */
+  @SuppressWarnings("unchecked")
+  public void visit(NodeVisitor visitor) {
+    TagNode root = this instanceof TagNode ? (TagNode) this : null;
+    if (root != null && !visitor.enter(root)) {
+      visitor.leave(root);
+      return;
+    }
+
+    List<Node>[] children = (List<Node>[]) new List<?>[8];
+    int[] indexes = new int[8];
+    TagNode[] owners = new TagNode[8];
+    children[0] = getChildren();
+    owners[0] = root;
+    int depth = 1;
+    while (depth > 0) {
+      int level = depth - 1;
+      if (indexes[level] == children[level].size()) {
+        depth--;
+        if (owners[level] != null) {
+          visitor.leave(owners[level]);
+        }
+        continue;
+      }
+
+      Node node = children[level].get(indexes[level]++);
+      if (visitor.enter(node) && node instanceof TagNode && !((TagNode) node).children.isEmpty()) {
+        if (depth == children.length) {
+          children = Arrays.copyOf(children, depth * 2);
+          indexes = Arrays.copyOf(indexes, depth * 2);
+          owners = Arrays.copyOf(owners, depth * 2);
+        }
+        children[depth] = ((TagNode) node).children;
+        indexes[depth] = 0;
+        owners[depth] = (TagNode) node;
+        depth++;
+        continue;
+      }
+      visitor.leave(node);
+    }
+  }
 }
@@ -16,8 +16,10 @@
 
 package org.primeframework.transformer.domain;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Objects;
 import java.util.SortedSet;
@@ -27,6 +29,9 @@ import java.util.stream.Collectors;
 /**
  * The <code>Document</code> is the top level {@link Node} in the document model built to represent the document
  * source.
+ * <p>
+ * A document and its nodes are mutable and not thread safe while they are being built. Call {@link #freeze()} to get
+ * a read-only snapshot that can be cached and transformed by any number of threads at once.
  */
 public class Document extends BaseTagNode {
   /**
@@ -39,12 +44,12 @@ public class Document extends BaseTagNode {
    *                  14,2        26,7
    * </pre>
    */
-  public final SortedSet<Pair<Integer, Integer>> attributeOffsets = new TreeSet<>();
+  public final SortedSet<Pair<Integer, Integer>> attributeOffsets;
 
   /**
    * Child nodes, may contain both {@link TagNode} or {@link TextNode} types.
    */
-  public final List<Node> children = new ArrayList<>();
+  public final List<Node> children;
 
   /**
    * Set of offsets, first value is the beginning of the tag, the second value is the length. With these values the
@@ -57,24 +62,79 @@ public class Document extends BaseTagNode {
    *      2,3        14,4
    * </pre>
    */
-  public final SortedSet<Pair<Integer, Integer>> offsets = new TreeSet<>();
+  public final SortedSet<Pair<Integer, Integer>> offsets;
 
   /**
    * Unstructured source string.
    */
   public final char[] source;
 
+  private final boolean frozen;
+
+  private volatile TagIndex tagIndex;
+
   public Document(String source) {
     this(source.toCharArray());
   }
 
   public Document(char[] source) {
+    this.attributeOffsets = new TreeSet<>();
+    this.children = new NodeList();
+    this.frozen = false;
+    this.offsets = new TreeSet<>();
     this.source = source;
     this.begin = 0;
     this.end = this.source.length;
     this.document = this;
   }
 
+  /**
+   * Copy the document into a frozen snapshot. Everything is copied inside of the constructor and is reachable from the
+   * final fields, so the snapshot is safely published to any thread that is handed a reference to it.
+   */
+  private Document(Document original) {
+    this.attributeOffsets = Collections.unmodifiableSortedSet(new TreeSet<>(original.attributeOffsets));
+    this.frozen = true;
+    this.offsets = Collections.unmodifiableSortedSet(new TreeSet<>(original.offsets));
+    this.source = original.source.clone();
+    this.begin = original.begin;
+    this.end = original.end;
+    this.document = this;
+
+    Node[] nodes = new Node[original.children.size()];
+    this.children = nodes.length == 0 ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(nodes));
+
+    // Copy level by level, each copied tag is queued with the array that backs its children
+    Deque<Object[]> pending = new ArrayDeque<>();
+    pending.push(new Object[]{original.children, nodes, null});
+    while (!pending.isEmpty()) {
+      Object[] level = pending.pop();
+      @SuppressWarnings("unchecked")
+      List<Node> originals = (List<Node>) level[0];
+      Node[] copies = (Node[]) level[1];
+      TagNode parent = (TagNode) level[2];
+      for (int i = 0; i < copies.length; i++) {
+        Node node = originals.get(i);
+        if (node instanceof TagNode) {
+          TagNode tagNode = (TagNode) node;
+          Node[] tagChildren = new Node[tagNode.children.size()];
+          TagNode copy = new TagNode(this, parent, tagNode, tagChildren);
+          copies[i] = copy;
+          if (tagChildren.length > 0) {
+            pending.push(new Object[]{tagNode.children, tagChildren, copy});
+          }
+        } else if (node instanceof TextNode) {
+          TextNode textNode = (TextNode) node;
+          copies[i] = new TextNode(this, parent, textNode.begin, textNode.end);
+        } else {
+          throw new IllegalStateException("Unable to freeze a node of type [" + node.getClass().getName() + "]");
+        }
+      }
+    }
+
+    this.tagIndex = new TagIndex(this);
+  }
+
   @Override
   public void addChild(Node node) {
     children.add(node);
@@ -98,6 +158,22 @@ public class Document extends BaseTagNode {
         Arrays.equals(source, document.source);
   }
 
+  /**
+   * Return a read-only snapshot of this document. The source is copied and the tag index is built up front. The
+   * snapshot is safe to share between threads without synchronization and may be passed to any transformer.
+   * <p>
+   * The structure of the snapshot is guaranteed not to change: the children, attributes and offsets are held in final
+   * fields and every change to them throws an <code>UnsupportedOperationException</code>. The characters of the
+   * {@link #source} array and the positions, parents and simple attributes of the nodes are public fields that Java
+   * can't protect, for those the snapshot is read-only by convention. Writing to them changes the snapshot for every
+   * thread that shares it.
+   *
+   * @return The snapshot, or this document if it is already frozen.
+   */
+  public Document freeze() {
+    return frozen ? this : new Document(this);
+  }
+
   @Override
   public List<Node> getChildren() {
     return children;
@@ -114,6 +190,34 @@ public class Document extends BaseTagNode {
     return result;
   }
 
+  /**
+   * @return True if this document is an immutable snapshot created by {@link #freeze()}.
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * Return the index of the tags of this document by name, it is built on the first call and cached. Parsers build the
+   * index while parsing when they are asked to (see {@link org.primeframework.transformer.service.AbstractParser}).
+   * <p>
+   * The index is not updated if the nodes of the document are changed after it is built.
+   *
+   * @return The index.
+   */
+  public TagIndex tagIndex() {
+    TagIndex index = tagIndex;
+    if (index == null) {
+      synchronized (this) {
+        index = tagIndex;
+        if (index == null) {
+          index = tagIndex = new TagIndex(this);
+        }
+      }
+    }
+    return index;
+  }
+
   @Override
   public String toString() {
     return "Document{" +
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.domain;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over nodes in pre-order (a tag before its children) or post-order (a tag after its children). Like the
+ * {@link TagNodeIterator}, this keeps one child list and index for each level rather than recursing.
+ *
+ * @author Daniel DeGroff
+ */
+final class NodeIterator implements Iterator<Node> {
+  private final boolean postOrder;
+
+  private List<Node>[] children;
+
+  private int depth;
+
+  private int[] ends = new int[8];
+
+  private int[] indexes = new int[8];
+
+  private Node next;
+
+  private TagNode[] owners = new TagNode[8];
+
+  /**
+   * Iterate over a node (if it is a tag) and all of its descendants.
+   */
+  NodeIterator(BaseTagNode root, boolean postOrder) {
+    this(root.getChildren(), 0, root.getChildren().size(), root instanceof TagNode ? (TagNode) root : null, postOrder);
+  }
+
+  /**
+   * Iterate over a range of sibling nodes and all of their descendants.
+   */
+  NodeIterator(List<Node> nodes, int begin, int end, boolean postOrder) {
+    this(nodes, begin, end, null, postOrder);
+  }
+
+  @SuppressWarnings("unchecked")
+  private NodeIterator(List<Node> nodes, int begin, int end, TagNode owner, boolean postOrder) {
+    this.postOrder = postOrder;
+    this.children = (List<Node>[]) new List<?>[8];
+    children[0] = nodes;
+    indexes[0] = begin;
+    ends[0] = end;
+    owners[0] = owner;
+    depth = 1;
+    next = owner != null && !postOrder ? owner : advance();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return next != null;
+  }
+
+  @Override
+  public Node next() {
+    if (next == null) {
+      throw new NoSuchElementException();
+    }
+
+    Node result = next;
+    next = advance();
+    return result;
+  }
+
+  private Node advance() {
+    while (depth > 0) {
+      int level = depth - 1;
+      if (indexes[level] == ends[level]) {
+        TagNode owner = owners[level];
+        children[level] = null;
+        owners[level] = null;
+        depth--;
+        if (postOrder && owner != null) {
+          return owner;
+        }
+        continue;
+      }
+
+      Node node = children[level].get(indexes[level]++);
+      if (node instanceof TagNode && !((TagNode) node).children.isEmpty()) {
+        TagNode tagNode = (TagNode) node;
+        if (depth == children.length) {
+          children = Arrays.copyOf(children, depth * 2);
+          ends = Arrays.copyOf(ends, depth * 2);
+          indexes = Arrays.copyOf(indexes, depth * 2);
+          owners = Arrays.copyOf(owners, depth * 2);
+        }
+        children[depth] = tagNode.children;
+        indexes[depth] = 0;
+        ends[depth] = tagNode.children.size();
+        owners[depth] = tagNode;
+        depth++;
+        if (postOrder) {
+          continue;
+        }
+      }
+      return node;
+    }
+    return null;
+  }
+}
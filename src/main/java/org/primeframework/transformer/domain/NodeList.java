@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.domain;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The list of the children of a tag or document. This is like an <code>ArrayList</code> that is tuned for the shape of
+ * parsed documents, where most tags have no children or only a few:
+ * <ul>
+ * <li>Nothing is allocated for the elements until the first child is added.</li>
+ * <li>The elements start small and double, rather than starting at ten.</li>
+ * <li>The parsers call {@link #trimToSize()} when a tag is complete, so no space is wasted once a document is
+ * built.</li>
+ * </ul>
+ *
+ * @author Daniel DeGroff
+ */
+public final class NodeList extends AbstractList<Node> implements RandomAccess {
+  private static final Node[] EMPTY = new Node[0];
+
+  private Node[] elements = EMPTY;
+
+  private int size;
+
+  @Override
+  public void add(int index, Node node) {
+    if (index < 0 || index > size) {
+      throw new IndexOutOfBoundsException("Index [" + index + "] is out of bounds for size [" + size + "]");
+    }
+
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, size == 0 ? 2 : size * 2);
+    }
+    System.arraycopy(elements, index, elements, index + 1, size - index);
+    elements[index] = node;
+    size++;
+    modCount++;
+  }
+
+  @Override
+  public boolean add(Node node) {
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, size == 0 ? 2 : size * 2);
+    }
+    elements[size++] = node;
+    modCount++;
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(elements, 0, size, null);
+    size = 0;
+    modCount++;
+  }
+
+  @Override
+  public Node get(int index) {
+    check(index);
+    return elements[index];
+  }
+
+  @Override
+  public Node remove(int index) {
+    check(index);
+    Node node = elements[index];
+    System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+    elements[--size] = null;
+    modCount++;
+    return node;
+  }
+
+  @Override
+  public Node set(int index, Node node) {
+    check(index);
+    Node previous = elements[index];
+    elements[index] = node;
+    return previous;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Trim the capacity to the number of children.
+   */
+  public void trimToSize() {
+    if (size < elements.length) {
+      elements = size == 0 ? EMPTY : Arrays.copyOf(elements, size);
+    }
+  }
+
+  private void check(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index [" + index + "] is out of bounds for size [" + size + "]");
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.domain;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A pre-order spliterator over nodes that splits at subtree boundaries. A spliterator covers a range of sibling nodes
+ * and their descendants, optionally preceded by the tag that owns them. Splitting hands the first half of the siblings
+ * to a new spliterator, and when a single tag is left it is replaced by its children so that deep documents keep
+ * splitting.
+ * <p>
+ * The size is estimated from the length of the source covered by the siblings, which is proportional to the number of
+ * nodes for most documents and costs nothing to compute.
+ *
+ * @author Daniel DeGroff
+ */
+final class NodeSpliterator implements Spliterator<Node> {
+  private int begin;
+
+  private int end;
+
+  private NodeIterator iterator;
+
+  private List<Node> nodes;
+
+  private TagNode owner;
+
+  NodeSpliterator(BaseTagNode root) {
+    this(root instanceof TagNode ? (TagNode) root : null, root.getChildren(), 0, root.getChildren().size());
+  }
+
+  private NodeSpliterator(TagNode owner, List<Node> nodes, int begin, int end) {
+    this.owner = owner;
+    this.nodes = nodes;
+    this.begin = begin;
+    this.end = end;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+
+  @Override
+  public long estimateSize() {
+    long size = owner != null ? 1 : 0;
+    if (begin < end) {
+      size += Math.max(((BaseNode) nodes.get(end - 1)).end - ((BaseNode) nodes.get(begin)).begin, end - begin);
+    }
+    return size;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super Node> action) {
+    if (owner != null) {
+      action.accept(owner);
+      owner = null;
+    }
+
+    if (iterator == null) {
+      iterator = new NodeIterator(nodes, begin, end, false);
+    }
+    iterator.forEachRemaining(action);
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Node> action) {
+    if (owner != null) {
+      action.accept(owner);
+      owner = null;
+      return true;
+    }
+
+    if (iterator == null) {
+      iterator = new NodeIterator(nodes, begin, end, false);
+    }
+
+    if (iterator.hasNext()) {
+      action.accept(iterator.next());
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public Spliterator<Node> trySplit() {
+    if (iterator != null) {
+      return null;
+    }
+
+    // Descend into a lone tag, it is moved in front of its children so the order is kept
+    if (owner == null && end - begin == 1 && nodes.get(begin) instanceof TagNode) {
+      TagNode tagNode = (TagNode) nodes.get(begin);
+      owner = tagNode;
+      nodes = tagNode.children;
+      begin = 0;
+      end = nodes.size();
+    }
+
+    if (end - begin < 2) {
+      if (owner == null || begin == end) {
+        return null;
+      }
+
+      // Split the tag off from its only child
+      NodeSpliterator prefix = new NodeSpliterator(owner, nodes, begin, begin);
+      owner = null;
+      return prefix;
+    }
+
+    int middle = (begin + end) >>> 1;
+    NodeSpliterator prefix = new NodeSpliterator(owner, nodes, begin, middle);
+    owner = null;
+    begin = middle;
+    return prefix;
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.domain;
+
+/**
+ * A visitor of the nodes of a document, see {@link BaseTagNode#visit(NodeVisitor)}. The nodes are visited in document
+ * order without recursion, so a visitor may be used on documents of any depth.
+ *
+ * @author Daniel DeGroff
+ */
+public interface NodeVisitor {
+  /**
+   * Called when a node is entered, before any of its children.
+   *
+   * @param node The node.
+   * @return True to visit the children of the node, false to skip them.
+   */
+  default boolean enter(Node node) {
+    return true;
+  }
+
+  /**
+   * Called when a node is left, after all of its children. This is called for every node that was entered, even if its
+   * children were skipped.
+   *
+   * @param node The node.
+   */
+  default void leave(Node node) {
+  }
+}
@@ -17,7 +17,8 @@ package org.primeframework.transformer.domain;
 
 import org.primeframework.transformer.domain.Pair;
 
-import java.util.Set;
+import java.util.NavigableSet;
+import java.util.SortedSet;
 import java.util.TreeSet;
 
 /**
@@ -27,19 +28,29 @@ import java.util.TreeSet;
  * i.e. at position 15 in the string, shift 3
  * <p>
  * Note that the amount might be negative.
+ * <p>
+ * This class is thread safe so that it can be shared by transform functions that are called concurrently.
  *
  * @author Brian Pontarelli
  */
 public class Offsets {
-  private final Set<Pair<Integer, Integer>> offsets = new TreeSet<>();
+  private final NavigableSet<Pair<Integer, Integer>> offsets = new TreeSet<>();
 
   /**
-   * Adds the offset.
+   * Adds the offset. If there is already an offset at the position the amounts are summed, i.e. a closing tag inserted
+   * directly before an escaped character.
    *
    * @param position The position of the offset from the start of the string.
    * @param amount   The amount of the offset.
    */
-  public void add(int position, int amount) {
+  public synchronized void add(int position, int amount) {
+    SortedSet<Pair<Integer, Integer>> existing = offsets.subSet(new Pair<>(position, Integer.MIN_VALUE), true, new Pair<>(position, Integer.MAX_VALUE), true);
+    if (!existing.isEmpty()) {
+      Pair<Integer, Integer> current = existing.first();
+      offsets.remove(current);
+      amount += current.second;
+    }
+
     offsets.add(new Pair<>(position, amount));
   }
 
@@ -49,7 +60,7 @@ public class Offsets {
    * @param originalIndex The original index to translate to a new index.
    * @return The new index.
    */
-  public int computeOffsetFromIndex(int originalIndex) {
+  public synchronized int computeOffsetFromIndex(int originalIndex) {
     int totalOffset = 0;
     for (Pair<Integer, Integer> offset : offsets) {
       if (originalIndex >= offset.first) {
@@ -60,7 +71,7 @@ public class Offsets {
   }
 
   @Override
-  public boolean equals(Object o) {
+  public synchronized boolean equals(Object o) {
     if (this == o) {
       return true;
     }
@@ -73,16 +84,16 @@ public class Offsets {
   }
 
   @Override
-  public int hashCode() {
+  public synchronized int hashCode() {
     return offsets.hashCode();
   }
 
   @Override
-  public String toString() {
+  public synchronized String toString() {
     return offsets.toString();
   }
 
-  public int total() {
+  public synchronized int total() {
     return offsets.stream().mapToInt((offset) -> offset.second).sum();
   }
 }
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.domain;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A character sequence composed of slices of a {@link Document} source and generated fragments. Slices are only
+ * references into the source, so portions of the output that are identical to the source are never copied. Adjacent
+ * slices are merged.
+ * <p>
+ * A rope is built by appending to it, like a <code>StringBuilder</code>, and is not thread safe. The source must not
+ * be modified while the rope is in use.
+ * <p>
+ * Example:
+ * <pre>
+ *   Rope rope = new TextTransformer().transformToRope(document, predicate, null, null);
+ *   rope.writeTo(writer);
+ * </pre>
+ *
+ * @author Daniel DeGroff
+ */
+public class Rope implements CharSequence {
+  private final char[] source;
+
+  /**
+   * The index in the source where each slice begins, unused for fragments.
+   */
+  private int[] begins = new int[8];
+
+  private int count;
+
+  /**
+   * The generated fragments, null for slices.
+   */
+  private String[] fragments = new String[8];
+
+  private int length;
+
+  /**
+   * The length of each segment.
+   */
+  private int[] lengths = new int[8];
+
+  /**
+   * The index in the rope where each segment begins.
+   */
+  private int[] starts = new int[8];
+
+  public Rope(char[] source) {
+    Objects.requireNonNull(source, "A source is required");
+    this.source = source;
+  }
+
+  /**
+   * Appends a generated fragment.
+   *
+   * @param fragment The fragment.
+   * @return This rope.
+   */
+  public Rope append(String fragment) {
+    if (fragment.isEmpty()) {
+      return this;
+    }
+
+    add(fragment, 0, fragment.length());
+    return this;
+  }
+
+  /**
+   * Appends a slice of the source. If the slice directly follows the previous slice they are merged.
+   *
+   * @param begin The index in the source where the slice begins (inclusive).
+   * @param end   The index in the source where the slice ends (exclusive).
+   * @return This rope.
+   */
+  public Rope appendSlice(int begin, int end) {
+    if (begin < 0 || end > source.length || begin > end) {
+      throw new IndexOutOfBoundsException("Invalid slice [" + begin + ", " + end + "] of a source of length [" + source.length + "]");
+    }
+
+    if (begin == end) {
+      return this;
+    }
+
+    int last = count - 1;
+    if (last >= 0 && fragments[last] == null && begins[last] + lengths[last] == begin) {
+      lengths[last] += end - begin;
+      length += end - begin;
+      return this;
+    }
+
+    add(null, begin, end - begin);
+    return this;
+  }
+
+  @Override
+  public char charAt(int index) {
+    if (index < 0 || index >= length) {
+      throw new IndexOutOfBoundsException("Index [" + index + "] is out of bounds for length [" + length + "]");
+    }
+
+    int segment = segment(index);
+    int offset = index - starts[segment];
+    return fragments[segment] != null ? fragments[segment].charAt(offset) : source[begins[segment] + offset];
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  /**
+   * @return The number of slices and fragments in the rope.
+   */
+  public int segments() {
+    return count;
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    if (start < 0 || end > length || start > end) {
+      throw new IndexOutOfBoundsException("Invalid range [" + start + ", " + end + "] for length [" + length + "]");
+    }
+
+    StringBuilder build = new StringBuilder(end - start);
+    appendTo(build, start, end);
+    return build.toString();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder build = new StringBuilder(length);
+    appendTo(build, 0, length);
+    return build.toString();
+  }
+
+  /**
+   * Writes the rope to the writer without building an intermediate string.
+   *
+   * @param writer The writer.
+   * @throws IOException If the writer fails.
+   */
+  public void writeTo(Writer writer) throws IOException {
+    for (int i = 0; i < count; i++) {
+      if (fragments[i] != null) {
+        writer.write(fragments[i]);
+      } else {
+        writer.write(source, begins[i], lengths[i]);
+      }
+    }
+  }
+
+  private void add(String fragment, int begin, int segmentLength) {
+    if (count == starts.length) {
+      int capacity = count * 2;
+      begins = Arrays.copyOf(begins, capacity);
+      fragments = Arrays.copyOf(fragments, capacity);
+      lengths = Arrays.copyOf(lengths, capacity);
+      starts = Arrays.copyOf(starts, capacity);
+    }
+
+    begins[count] = begin;
+    fragments[count] = fragment;
+    lengths[count] = segmentLength;
+    starts[count] = length;
+    length += segmentLength;
+    count++;
+  }
+
+  private void appendTo(StringBuilder build, int start, int end) {
+    if (start == end) {
+      return;
+    }
+
+    for (int i = segment(start); i < count && starts[i] < end; i++) {
+      int from = Math.max(start - starts[i], 0);
+      int to = Math.min(end - starts[i], lengths[i]);
+      if (fragments[i] != null) {
+        build.append(fragments[i], from, to);
+      } else {
+        build.append(source, begins[i] + from, to - from);
+      }
+    }
+  }
+
+  /**
+   * Binary search for the segment that contains the index.
+   */
+  private int segment(int index) {
+    int low = 0;
+    int high = count - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (starts[middle] <= index) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+}
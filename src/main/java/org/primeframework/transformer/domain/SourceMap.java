@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.domain;
+
+import java.util.Arrays;
+
+/**
+ * Maps positions in the output of a transformation back to positions in the document source and the other way around.
+ * The map is a table of segments, each segment is a range of the output and the range of the source it was produced
+ * from. Text and tags that are not transformed are segments of their own, transformed tags produce a segment for the
+ * markup before their body and one for the markup after it.
+ * <p>
+ * Positions inside a segment whose output and source are the same length (i.e. text that wasn't escaped) map exactly.
+ * Positions inside any other segment map to the beginning of the segment. Text that was changed by a transform function
+ * is split at each change (see {@link #addText(int, CharSequence, int, int, char[])}), so only the positions inside an
+ * escape, i.e. the <code>amp;</code> of <code>&amp;amp;</code>, map to the beginning of their segment. Lookups are a
+ * binary search in either direction.
+ * <p>
+ * The map is filled in by the transformer (see {@link org.primeframework.transformer.service.SourceMapTransformer})
+ * and is not thread safe.
+ *
+ * @author Daniel DeGroff
+ */
+public class SourceMap {
+  /**
+   * The most characters of the source that a single change of a transform function replaces, i.e. \r\n.
+   */
+  private static final int MAX_REPLACED = 2;
+
+  /**
+   * The number of characters that must match again after a change.
+   */
+  private static final int RESYNC_LENGTH = 2;
+
+  /**
+   * How far the output of a change is searched, i.e. the markup of a link added around a URL.
+   */
+  private static final int RESYNC_WINDOW = 256;
+
+  private static final int FIELDS = 4;
+
+  private int[] byOutput;
+
+  private int[] bySource;
+
+  /**
+   * The segments in the order they were added, as the output begin, output end, source begin and source end.
+   */
+  private int[] segments = new int[16 * FIELDS];
+
+  /**
+   * The relocations that have not been applied to the segments yet, as the difference between the shift of a segment
+   * and the shift of the segment before it. One relocation is two entries, so relocating is constant time no matter how
+   * many segments it moves.
+   */
+  private int[] shifts = new int[17];
+
+  private boolean shifted;
+
+  private int size;
+
+  /**
+   * Adds a segment. Segments with an empty output are ignored, since no position in the output maps to them.
+   *
+   * @param outputBegin The beginning of the range in the output (inclusive).
+   * @param outputEnd   The end of the range in the output (exclusive).
+   * @param sourceBegin The beginning of the range in the source (inclusive).
+   * @param sourceEnd   The end of the range in the source (exclusive).
+   */
+  public void add(int outputBegin, int outputEnd, int sourceBegin, int sourceEnd) {
+    if (outputBegin >= outputEnd) {
+      return;
+    }
+
+    if ((size + 1) * FIELDS > segments.length) {
+      segments = Arrays.copyOf(segments, segments.length * 2);
+      shifts = Arrays.copyOf(shifts, segments.length / FIELDS + 1);
+    }
+
+    int index = size * FIELDS;
+    segments[index] = outputBegin;
+    segments[index + 1] = outputEnd;
+    segments[index + 2] = sourceBegin;
+    segments[index + 3] = sourceEnd;
+    size++;
+    byOutput = null;
+    bySource = null;
+  }
+
+  /**
+   * Adds the segments of text that a transform function may have changed, i.e. escaped. The text is aligned with its
+   * source, so the runs that are unchanged map exactly and each change is a segment of its own. When the text is the
+   * same length as its source it is a single segment.
+   *
+   * @param outputBegin The beginning of the text in the output.
+   * @param text        The text that was added to the output.
+   * @param sourceBegin The beginning of the range in the source (inclusive).
+   * @param sourceEnd   The end of the range in the source (exclusive).
+   * @param source      The source.
+   */
+  public void addText(int outputBegin, CharSequence text, int sourceBegin, int sourceEnd, char[] source) {
+    int outputEnd = outputBegin + text.length();
+    if (text.length() == sourceEnd - sourceBegin) {
+      add(outputBegin, outputEnd, sourceBegin, sourceEnd);
+      return;
+    }
+
+    int runOutput = 0;
+    int runSource = sourceBegin;
+    int i = sourceBegin;
+    int j = 0;
+    while (i < sourceEnd && j < text.length()) {
+      if (source[i] == text.charAt(j)) {
+        i++;
+        j++;
+        continue;
+      }
+
+      // Find where the source and the text agree again, preferring the shortest change
+      int resumeSource = -1;
+      int resumeText = -1;
+      for (int skip = 0; skip <= MAX_REPLACED && i + skip <= sourceEnd; skip++) {
+        int limit = resumeText == -1 ? text.length() + 1 : resumeText;
+        int k = resync(text, skip == 0 ? j + 1 : j, source, i + skip, sourceEnd, limit);
+        if (k != -1 && (resumeText == -1 || k < resumeText)) {
+          resumeSource = i + skip;
+          resumeText = k;
+        }
+      }
+
+      if (resumeText == -1) {
+        // The rest can't be aligned
+        add(outputBegin + runOutput, outputEnd, runSource, sourceEnd);
+        return;
+      }
+
+      // A change that only adds text (i.e. &amp; for &) began with the last character that matched
+      if (resumeSource == i && i > runSource) {
+        i--;
+        j--;
+      }
+
+      add(outputBegin + runOutput, outputBegin + j, runSource, i);
+      add(outputBegin + j, outputBegin + resumeText, i, resumeSource);
+      i = resumeSource;
+      j = resumeText;
+      runSource = i;
+      runOutput = j;
+    }
+
+    // Source that was cut off (i.e. by a preview) has no output, text that was added maps to the end of the source
+    add(outputBegin + runOutput, outputBegin + j, runSource, i);
+    if (j < text.length()) {
+      add(outputBegin + j, outputEnd, sourceEnd, sourceEnd);
+    }
+  }
+
+  /**
+   * Moves the output ranges of the segments added since the given size. Transformers use this once the output of a
+   * nested element has been placed in the output of its parent.
+   *
+   * @param from   The number of segments that are not moved.
+   * @param amount The amount to move the output ranges by.
+   */
+  public void relocate(int from, int amount) {
+    if (from >= size || amount == 0) {
+      return;
+    }
+
+    // Segments added later are not moved
+    shifts[from] += amount;
+    shifts[size] -= amount;
+    shifted = true;
+    byOutput = null;
+    bySource = null;
+  }
+
+  /**
+   * @return The number of segments.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Calculates the position in the output for a position in the source.
+   *
+   * @param sourceIndex The position in the source.
+   * @return The position in the output, or -1 if no output was produced from the position.
+   */
+  public int toOutput(int sourceIndex) {
+    if (bySource == null) {
+      bySource = sort(2, outputOrder());
+    }
+
+    return lookup(bySource, 2, 0, sourceIndex);
+  }
+
+  /**
+   * Calculates the position in the source for a position in the output.
+   *
+   * @param outputIndex The position in the output.
+   * @return The position in the source, or -1 if the position is not in the output.
+   */
+  public int toSource(int outputIndex) {
+    return lookup(outputOrder(), 0, 2, outputIndex);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder build = new StringBuilder("[");
+    for (int segment : outputOrder()) {
+      int index = segment * FIELDS;
+      if (build.length() > 1) {
+        build.append(", ");
+      }
+      build.append(segments[index]).append('-').append(segments[index + 1]).append("->")
+           .append(segments[index + 2]).append('-').append(segments[index + 3]);
+    }
+    return build.append(']').toString();
+  }
+
+  /**
+   * Removes the segments added since the given size.
+   *
+   * @param size The number of segments to keep.
+   */
+  public void truncate(int size) {
+    if (size < this.size) {
+      // Keep the net shift of the removed segments, so the segments added next start without one
+      int net = 0;
+      for (int i = size; i <= this.size; i++) {
+        net += shifts[i];
+        shifts[i] = 0;
+      }
+      shifts[size] = net;
+      this.size = size;
+      byOutput = null;
+      bySource = null;
+    }
+  }
+
+  /**
+   * Applies the pending relocations to the segments.
+   */
+  private void applyShifts() {
+    if (!shifted) {
+      return;
+    }
+
+    int shift = 0;
+    for (int i = 0; i < size; i++) {
+      shift += shifts[i];
+      shifts[i] = 0;
+      segments[i * FIELDS] += shift;
+      segments[i * FIELDS + 1] += shift;
+    }
+    shifts[size] = 0;
+    shifted = false;
+  }
+
+  /**
+   * Finds the last segment that begins at or before the position, in the given order, and maps the position into the
+   * other range of that segment.
+   */
+  private int lookup(int[] order, int from, int to, int position) {
+    int low = 0;
+    int high = order.length - 1;
+    int found = -1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (segments[order[middle] * FIELDS + from] <= position) {
+        found = order[middle];
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+
+    if (found == -1) {
+      return -1;
+    }
+
+    int index = found * FIELDS;
+    int fromBegin = segments[index + from];
+    int fromEnd = segments[index + from + 1];
+    int toBegin = segments[index + to];
+    int toEnd = segments[index + to + 1];
+    if (position == fromEnd) {
+      return toEnd;
+    } else if (position > fromEnd) {
+      return -1;
+    }
+
+    return fromEnd - fromBegin == toEnd - toBegin ? toBegin + (position - fromBegin) : toBegin;
+  }
+
+  private int[] outputOrder() {
+    if (byOutput == null) {
+      applyShifts();
+      int[] order = new int[size];
+      for (int i = 0; i < size; i++) {
+        order[i] = i;
+      }
+      byOutput = sort(0, order);
+    }
+    return byOutput;
+  }
+
+  /**
+   * @return The first index of the text, from the index up to the limit (exclusive), where the next few characters of the source
+   *     follow, or -1. When the source is used up the rest of the text is the change.
+   */
+  private int resync(CharSequence text, int from, char[] source, int sourceIndex, int sourceEnd, int limit) {
+    int length = Math.min(RESYNC_LENGTH, sourceEnd - sourceIndex);
+    if (length == 0) {
+      return text.length() < limit ? text.length() : -1;
+    }
+
+    int last = Math.min(Math.min(limit, from + RESYNC_WINDOW), text.length() - length + 1);
+    for (int k = from; k < last; k++) {
+      int matched = 0;
+      while (matched < length && text.charAt(k + matched) == source[sourceIndex + matched]) {
+        matched++;
+      }
+      if (matched == length) {
+        return k;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Sorts the segments by the beginning of one of their ranges. Segments that begin at the same position keep the
+   * given order.
+   */
+  private int[] sort(int field, int[] order) {
+    long[] keys = new long[order.length];
+    for (int i = 0; i < order.length; i++) {
+      keys[i] = ((long) segments[order[i] * FIELDS + field] << 32) | i;
+    }
+    Arrays.sort(keys);
+
+    int[] sorted = new int[order.length];
+    for (int i = 0; i < keys.length; i++) {
+      sorted[i] = order[(int) keys[i]];
+    }
+    return sorted;
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An index of the tags of a document by name, each name has the tags in document order. Build it once with {@link
+ * Document#tagIndex()}, after that a query is an array lookup.
+ * <p>
+ * Names registered in the {@link TagNames} registry are indexed by their id. Tags with other names are indexed by
+ * their lowercase name, so indexing a document never adds names to the registry. The index is immutable, but it is
+ * not updated when the document is changed.
+ *
+ * @author Daniel DeGroff
+ */
+public final class TagIndex {
+  private final List<TagNode>[] byId;
+
+  private final Map<String, List<TagNode>> others;
+
+  private final int size;
+
+  @SuppressWarnings("unchecked")
+  TagIndex(BaseTagNode root) {
+    int registered = TagNames.size();
+    List<TagNode>[] lists = (List<TagNode>[]) new List<?>[registered];
+    Map<String, List<TagNode>> others = new HashMap<>();
+    int size = 0;
+    for (TagNode tagNode : root.tagNodes()) {
+      if (tagNode == root) {
+        continue;
+      }
+
+      int nameId = tagNode.getNameId();
+      List<TagNode> list;
+      if (nameId >= 0 && nameId < registered) {
+        list = lists[nameId];
+        if (list == null) {
+          list = lists[nameId] = new ArrayList<>();
+        }
+      } else {
+        String name = tagNode.getName();
+        if (name == null) {
+          continue;
+        }
+        list = others.computeIfAbsent(name.toLowerCase(Locale.ROOT), (key) -> new ArrayList<>());
+      }
+      list.add(tagNode);
+      size++;
+    }
+
+    for (int i = 0; i < lists.length; i++) {
+      lists[i] = lists[i] == null ? Collections.emptyList() : Collections.unmodifiableList(lists[i]);
+    }
+    others.replaceAll((name, list) -> Collections.unmodifiableList(list));
+
+    this.byId = lists;
+    this.others = others;
+    this.size = size;
+  }
+
+  /**
+   * @param name The tag name.
+   * @return The number of tags with the name.
+   */
+  public int count(String name) {
+    return get(name).size();
+  }
+
+  /**
+   * Return the tags with the name id.
+   *
+   * @param nameId The id of the tag name in the {@link TagNames} registry.
+   * @return The tags in document order, may be empty.
+   */
+  public List<TagNode> get(int nameId) {
+    if (nameId >= 0 && nameId < byId.length) {
+      return byId[nameId];
+    } else if (nameId >= byId.length && nameId < TagNames.size()) {
+      // Registered after the index was built
+      List<TagNode> list = others.get(TagNames.name(nameId));
+      return list != null ? list : Collections.emptyList();
+    }
+    return Collections.emptyList();
+  }
+
+  /**
+   * Return the tags with the name.
+   *
+   * @param name The tag name, the case is ignored.
+   * @return The tags in document order, may be empty.
+   */
+  public List<TagNode> get(String name) {
+    int nameId = TagNames.lookup(name);
+    if (nameId != TagNames.UNKNOWN) {
+      return get(nameId);
+    }
+
+    List<TagNode> list = others.get(name.toLowerCase(Locale.ROOT));
+    return list != null ? list : Collections.emptyList();
+  }
+
+  /**
+   * @return The total number of tags in the index.
+   */
+  public int size() {
+    return size;
+  }
+}
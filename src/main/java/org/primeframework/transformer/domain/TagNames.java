@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.domain;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A registry of interned tag names. Each registered name is assigned a small, dense integer id that never changes, so
+ * sets of tags can be represented as bitsets and tags can be compared without building strings.
+ * <p>
+ * Names are case insensitive and are stored in lowercase. Looking up a name does not allocate and a name that was
+ * never registered has the id {@link #UNKNOWN}. Lookups are lock free, registration is synchronized and is expected to
+ * be rare (i.e. when templates or predicates are built).
+ *
+ * @author Daniel DeGroff
+ */
+public final class TagNames {
+  /**
+   * The id of a name that has not been registered.
+   */
+  public static final int UNKNOWN = -1;
+
+  private static volatile Table table = new Table(new String[0]);
+
+  private TagNames() {
+  }
+
+  /**
+   * Return the id of the name, registering it if needed.
+   *
+   * @param name The tag name.
+   * @return The id.
+   */
+  public static int intern(String name) {
+    Objects.requireNonNull(name, "A tag name is required");
+    int id = lookup(name);
+    if (id != UNKNOWN) {
+      return id;
+    }
+
+    synchronized (TagNames.class) {
+      id = lookup(name);
+      if (id != UNKNOWN) {
+        return id;
+      }
+
+      String[] names = Arrays.copyOf(table.names, table.names.length + 1);
+      names[names.length - 1] = lowercase(name);
+      table = new Table(names);
+      return names.length - 1;
+    }
+  }
+
+  /**
+   * Return the id of the name without registering it.
+   *
+   * @param name The tag name.
+   * @return The id, or {@link #UNKNOWN}.
+   */
+  public static int lookup(String name) {
+    Table current = table;
+    int hash = 0;
+    for (int i = 0; i < name.length(); i++) {
+      hash = 31 * hash + Character.toLowerCase(name.charAt(i));
+    }
+
+    for (int slot = hash & current.mask; ; slot = (slot + 1) & current.mask) {
+      int id = current.slots[slot] - 1;
+      if (id == UNKNOWN) {
+        return UNKNOWN;
+      }
+
+      String candidate = current.names[id];
+      if (candidate.length() == name.length() && candidate.regionMatches(true, 0, name, 0, name.length())) {
+        return id;
+      }
+    }
+  }
+
+  /**
+   * Return the id of the name found in the characters without registering it.
+   *
+   * @param characters The characters, i.e. a document source.
+   * @param begin      The index where the name begins (inclusive).
+   * @param end        The index where the name ends (exclusive).
+   * @return The id, or {@link #UNKNOWN}.
+   */
+  public static int lookup(char[] characters, int begin, int end) {
+    Table current = table;
+    int hash = 0;
+    for (int i = begin; i < end; i++) {
+      hash = 31 * hash + Character.toLowerCase(characters[i]);
+    }
+
+    for (int slot = hash & current.mask; ; slot = (slot + 1) & current.mask) {
+      int id = current.slots[slot] - 1;
+      if (id == UNKNOWN) {
+        return UNKNOWN;
+      }
+
+      String candidate = current.names[id];
+      if (matches(candidate, characters, begin, end)) {
+        return id;
+      }
+    }
+  }
+
+  /**
+   * @param id The id.
+   * @return The lowercase name of the id.
+   */
+  public static String name(int id) {
+    return table.names[id];
+  }
+
+  /**
+   * @return The number of registered names.
+   */
+  public static int size() {
+    return table.names.length;
+  }
+
+  private static String lowercase(String name) {
+    char[] characters = new char[name.length()];
+    for (int i = 0; i < characters.length; i++) {
+      characters[i] = Character.toLowerCase(name.charAt(i));
+    }
+    return new String(characters);
+  }
+
+  private static boolean matches(String candidate, char[] characters, int begin, int end) {
+    if (candidate.length() != end - begin) {
+      return false;
+    }
+
+    for (int i = 0; i < candidate.length(); i++) {
+      char c = characters[begin + i];
+      if (c != candidate.charAt(i) && Character.toLowerCase(c) != candidate.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * An immutable open addressing hash table of the names. Each slot holds the id plus one, zero is an empty slot.
+   */
+  private static class Table {
+    final int mask;
+
+    final String[] names;
+
+    final int[] slots;
+
+    Table(String[] names) {
+      this.names = names;
+
+      int capacity = 16;
+      while (capacity < names.length * 2) {
+        capacity <<= 1;
+      }
+      this.mask = capacity - 1;
+      this.slots = new int[capacity];
+
+      for (int id = 0; id < names.length; id++) {
+        String name = names[id];
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+          hash = 31 * hash + name.charAt(i);
+        }
+
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        slots[slot] = id + 1;
+      }
+    }
+  }
+}
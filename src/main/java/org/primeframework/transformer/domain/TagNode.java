@@ -15,8 +15,8 @@
  */
 package org.primeframework.transformer.domain;
 
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -59,10 +59,16 @@ import java.util.Map;
 public class TagNode extends BaseTagNode {
   /**
    * Support for complex attributes. Example: [tag width="100" height="200" title="foo"]bar[/tag]
+   * <p>
+   * This is an {@link AttributeMap}, nothing is allocated for the entries until the first attribute is put.
    */
-  public final Map<String, String> attributes = new LinkedHashMap<>();
+  public final Map<String, String> attributes;
 
-  public final List<Node> children = new ArrayList<>();
+  /**
+   * The children of the tag. This is a {@link NodeList}, nothing is allocated for the elements until the first child is
+   * added.
+   */
+  public final List<Node> children;
 
   /**
    * Support for a simple attribute. Example: [tag=foo]bar[/tag]
@@ -121,6 +127,8 @@ public class TagNode extends BaseTagNode {
   public TagNode parent;
 
   public TagNode(Document document, TagNode parent, int begin) {
+    this.attributes = new AttributeMap();
+    this.children = new NodeList();
     this.document = document;
     this.parent = parent;
     this.begin = begin;
@@ -128,6 +136,8 @@ public class TagNode extends BaseTagNode {
 
   public TagNode(Document document, TagNode parent, int begin, int nameEnd, int bodyBegin, int bodyEnd,
                  int end, String attribute, Map<String, String> attributes) {
+    this.attributes = new AttributeMap();
+    this.children = new NodeList();
     this.document = document;
     this.parent = parent;
     this.begin = begin;
@@ -142,6 +152,23 @@ public class TagNode extends BaseTagNode {
     }
   }
 
+  /**
+   * Copy a tag into a frozen document, see {@link Document#freeze()}. The attributes and children can't be changed, the
+   * children are filled in by the document after the copy is made.
+   */
+  TagNode(Document document, TagNode parent, TagNode original, Node[] children) {
+    this.attributes = original.attributes.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(copy(original.attributes));
+    this.children = children.length == 0 ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(children));
+    this.document = document;
+    this.parent = parent;
+    this.begin = original.begin;
+    this.nameEnd = original.nameEnd;
+    this.bodyBegin = original.bodyBegin;
+    this.bodyEnd = original.bodyEnd;
+    this.end = original.end;
+    this.attribute = original.attribute;
+  }
+
   @Override
   public void addChild(Node node) {
     children.add(node);
@@ -198,6 +225,18 @@ public class TagNode extends BaseTagNode {
     return null;
   }
 
+  /**
+   * Return the id of the name of this tag in the {@link TagNames} registry. This does not allocate.
+   *
+   * @return The id, or {@link TagNames#UNKNOWN} if the name has not been registered or the tag doesn't have a name.
+   */
+  public int getNameId() {
+    if (nameEnd > begin + 1) {
+      return TagNames.lookup(document.source, begin + 1, nameEnd);
+    }
+    return TagNames.UNKNOWN;
+  }
+
   public boolean hasBody() {
     return bodyEnd != -1 && bodyBegin != bodyEnd;
   }
@@ -230,4 +269,11 @@ public class TagNode extends BaseTagNode {
   public TextNode toTextNode() {
     return new TextNode(document, parent, begin, end);
   }
+
+  private static AttributeMap copy(Map<String, String> attributes) {
+    AttributeMap copy = new AttributeMap();
+    copy.putAll(attributes);
+    copy.trimToSize();
+    return copy;
+  }
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.domain;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over a node (if it is a tag) and all of its descendant tags in document order. The iterator keeps one child
+ * list and index for each level, so nothing is allocated per tag.
+ *
+ * @author Daniel DeGroff
+ */
+final class TagNodeIterator implements Iterator<TagNode> {
+  private List<Node>[] children;
+
+  private int depth;
+
+  private int[] indexes = new int[8];
+
+  private TagNode next;
+
+  @SuppressWarnings("unchecked")
+  TagNodeIterator(BaseTagNode root) {
+    this.children = (List<Node>[]) new List<?>[8];
+    children[0] = root.getChildren();
+    depth = 1;
+    next = root instanceof TagNode ? (TagNode) root : advance();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return next != null;
+  }
+
+  @Override
+  public TagNode next() {
+    if (next == null) {
+      throw new NoSuchElementException();
+    }
+
+    TagNode result = next;
+    next = advance();
+    return result;
+  }
+
+  private TagNode advance() {
+    while (depth > 0) {
+      List<Node> list = children[depth - 1];
+      if (indexes[depth - 1] == list.size()) {
+        children[--depth] = null;
+        continue;
+      }
+
+      Node node = list.get(indexes[depth - 1]++);
+      if (node instanceof TagNode) {
+        TagNode tagNode = (TagNode) node;
+        if (!tagNode.children.isEmpty()) {
+          if (depth == children.length) {
+            children = Arrays.copyOf(children, depth * 2);
+            indexes = Arrays.copyOf(indexes, depth * 2);
+          }
+          children[depth] = tagNode.children;
+          indexes[depth] = 0;
+          depth++;
+        }
+        return tagNode;
+      }
+    }
+    return null;
+  }
+}
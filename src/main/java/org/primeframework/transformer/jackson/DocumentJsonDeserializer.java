@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.jackson;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import org.primeframework.transformer.domain.BaseNode;
+import org.primeframework.transformer.domain.BaseTagNode;
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.Pair;
+import org.primeframework.transformer.domain.TagNode;
+import org.primeframework.transformer.domain.TextNode;
+
+/**
+ * Reads a document written by the {@link DocumentJsonSerializer}, streaming the nodes straight from the parser. The
+ * parent of each node is set from the nesting, and the offsets are restored. Unknown fields are skipped.
+ * <p>
+ * The source must come before the nodes, and the type of a node before its other fields. The nodes are read with an
+ * explicit stack rather than recursion, so there is no limit to the depth of the document.
+ *
+ * @author Daniel DeGroff
+ */
+public class DocumentJsonDeserializer extends StdDeserializer<Document> {
+  private static final long serialVersionUID = 1L;
+
+  public DocumentJsonDeserializer() {
+    super(Document.class);
+  }
+
+  @Override
+  public Document deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+    expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+
+    Document document = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      switch (name) {
+        case "source":
+          expect(parser, token, JsonToken.VALUE_STRING);
+          document = new Document(parser.getText());
+          break;
+        case "offsets":
+          readOffsets(parser, requireDocument(parser, document).offsets);
+          break;
+        case "attributeOffsets":
+          readOffsets(parser, requireDocument(parser, document).attributeOffsets);
+          break;
+        case "children":
+          expect(parser, token, JsonToken.START_ARRAY);
+          readNodes(parser, requireDocument(parser, document));
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+
+    return requireDocument(parser, document);
+  }
+
+  private void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws JsonMappingException {
+    if (actual != expected) {
+      throw JsonMappingException.from(parser, "Expected [" + expected + "] but found [" + actual + "]");
+    }
+  }
+
+  /**
+   * Read the fields of a node up to the end of the node or the start of its children.
+   *
+   * @return True if the parser is at the start of the children of the node.
+   */
+  private boolean readFields(JsonParser parser, BaseNode node) throws IOException {
+    TagNode tagNode = node instanceof TagNode ? (TagNode) node : null;
+    JsonToken token;
+    while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      token = parser.nextToken();
+      if (name.equals("begin")) {
+        node.begin = parser.getIntValue();
+      } else if (name.equals("end")) {
+        node.end = parser.getIntValue();
+      } else if (tagNode == null) {
+        parser.skipChildren();
+      } else if (name.equals("nameEnd")) {
+        tagNode.nameEnd = parser.getIntValue();
+      } else if (name.equals("bodyBegin")) {
+        tagNode.bodyBegin = parser.getIntValue();
+      } else if (name.equals("bodyEnd")) {
+        tagNode.bodyEnd = parser.getIntValue();
+      } else if (name.equals("attribute")) {
+        tagNode.attribute = token == JsonToken.VALUE_NULL ? null : parser.getText();
+      } else if (name.equals("attributes")) {
+        expect(parser, token, JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String attribute = parser.getCurrentName();
+          parser.nextToken();
+          tagNode.attributes.put(attribute, parser.getText());
+        }
+      } else if (name.equals("children")) {
+        expect(parser, token, JsonToken.START_ARRAY);
+        return true;
+      } else {
+        parser.skipChildren();
+      }
+    }
+
+    expect(parser, token, JsonToken.END_OBJECT);
+    return false;
+  }
+
+  private void readNodes(JsonParser parser, Document document) throws IOException {
+    // The document and the open tags, the nodes are added to the last one
+    List<BaseTagNode> open = new ArrayList<>();
+    open.add(document);
+    while (!open.isEmpty()) {
+      BaseTagNode owner = open.get(open.size() - 1);
+      JsonToken token = parser.nextToken();
+      if (token == JsonToken.END_ARRAY) {
+        open.remove(open.size() - 1);
+        if (owner instanceof TagNode && readFields(parser, (TagNode) owner)) {
+          throw JsonMappingException.from(parser, "A tag may only have one list of children");
+        }
+        continue;
+      }
+
+      expect(parser, token, JsonToken.START_OBJECT);
+      if (parser.nextToken() != JsonToken.FIELD_NAME || !parser.getCurrentName().equals("type")) {
+        throw JsonMappingException.from(parser, "The type must be the first field of a node");
+      }
+
+      parser.nextToken();
+      String type = parser.getText();
+      TagNode parent = owner instanceof TagNode ? (TagNode) owner : null;
+      BaseNode node;
+      if (type.equals("tag")) {
+        node = new TagNode(document, parent, 0);
+      } else if (type.equals("text")) {
+        node = new TextNode(document, parent, 0, 0);
+      } else {
+        throw JsonMappingException.from(parser, "Invalid node type [" + type + "]");
+      }
+
+      owner.addChild(node);
+      if (readFields(parser, node)) {
+        open.add((TagNode) node);
+      }
+    }
+  }
+
+  private void readOffsets(JsonParser parser, SortedSet<Pair<Integer, Integer>> offsets) throws IOException {
+    expect(parser, parser.currentToken(), JsonToken.START_ARRAY);
+    while (parser.nextToken() == JsonToken.START_ARRAY) {
+      parser.nextToken();
+      int first = parser.getIntValue();
+      parser.nextToken();
+      int second = parser.getIntValue();
+      expect(parser, parser.nextToken(), JsonToken.END_ARRAY);
+      offsets.add(new Pair<>(first, second));
+    }
+    expect(parser, parser.currentToken(), JsonToken.END_ARRAY);
+  }
+
+  private Document requireDocument(JsonParser parser, Document document) throws JsonMappingException {
+    if (document == null) {
+      throw JsonMappingException.from(parser, "The source of the document must come before the nodes and offsets");
+    }
+    return document;
+  }
+}
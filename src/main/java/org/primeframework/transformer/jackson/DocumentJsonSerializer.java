@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.jackson;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.SortedSet;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.primeframework.transformer.domain.BaseNode;
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.Node;
+import org.primeframework.transformer.domain.NodeVisitor;
+import org.primeframework.transformer.domain.Pair;
+import org.primeframework.transformer.domain.TagNode;
+import org.primeframework.transformer.domain.TextNode;
+
+/**
+ * Writes a document as JSON, streaming the nodes straight to the generator:
+ * <pre>
+ *   {
+ *     "source": "a [b]b[/b]",
+ *     "offsets": [[2, 3], [6, 4]],
+ *     "attributeOffsets": [],
+ *     "children": [
+ *       {"type": "text", "begin": 0, "end": 2},
+ *       {"type": "tag", "begin": 2, "end": 10, "nameEnd": 4, "bodyBegin": 5, "bodyEnd": 6, "name": "b", "children": [
+ *         {"type": "text", "begin": 5, "end": 6}
+ *       ]}
+ *     ]
+ *   }
+ * </pre>
+ * The source is written before the nodes, and the type before the other fields of a node, so the JSON can be read back
+ * in a single pass by the {@link DocumentJsonDeserializer}. The name of a tag is written for the convenience of
+ * readers, it is ignored when the document is read. The parent of a node is implied by the nesting. The nodes are
+ * visited without recursion, so there is no limit to the depth of the document.
+ *
+ * @author Daniel DeGroff
+ */
+public class DocumentJsonSerializer extends StdSerializer<Document> {
+  private static final long serialVersionUID = 1L;
+
+  public DocumentJsonSerializer() {
+    super(Document.class);
+  }
+
+  @Override
+  public void serialize(Document document, JsonGenerator generator, SerializerProvider provider) throws IOException {
+    generator.writeStartObject();
+    generator.writeFieldName("source");
+    generator.writeString(document.source, 0, document.source.length);
+    writeOffsets("offsets", document.offsets, generator);
+    writeOffsets("attributeOffsets", document.attributeOffsets, generator);
+
+    generator.writeArrayFieldStart("children");
+    try {
+      document.visit(new NodeVisitor() {
+        @Override
+        public boolean enter(Node node) {
+          try {
+            writeNode(node, generator);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+          return true;
+        }
+
+        @Override
+        public void leave(Node node) {
+          try {
+            if (node instanceof TagNode && !((TagNode) node).children.isEmpty()) {
+              generator.writeEndArray();
+            }
+            generator.writeEndObject();
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    generator.writeEndArray();
+    generator.writeEndObject();
+  }
+
+  private void writeNode(Node node, JsonGenerator generator) throws IOException {
+    if (!(node instanceof TagNode) && !(node instanceof TextNode)) {
+      throw new IllegalArgumentException("Unable to serialize a node of type [" + node.getClass().getName() + "]");
+    }
+
+    BaseNode baseNode = (BaseNode) node;
+    generator.writeStartObject();
+    generator.writeStringField("type", node instanceof TagNode ? "tag" : "text");
+    generator.writeNumberField("begin", baseNode.begin);
+    generator.writeNumberField("end", baseNode.end);
+    if (node instanceof TextNode) {
+      return;
+    }
+
+    TagNode tagNode = (TagNode) node;
+    generator.writeNumberField("nameEnd", tagNode.nameEnd);
+    generator.writeNumberField("bodyBegin", tagNode.bodyBegin);
+    generator.writeNumberField("bodyEnd", tagNode.bodyEnd);
+
+    String name = tagNode.getName();
+    if (name != null) {
+      generator.writeStringField("name", name);
+    }
+
+    if (tagNode.attribute != null) {
+      generator.writeStringField("attribute", tagNode.attribute);
+    }
+
+    if (!tagNode.attributes.isEmpty()) {
+      generator.writeObjectFieldStart("attributes");
+      for (Map.Entry<String, String> attribute : tagNode.attributes.entrySet()) {
+        generator.writeStringField(attribute.getKey(), attribute.getValue());
+      }
+      generator.writeEndObject();
+    }
+
+    if (!tagNode.children.isEmpty()) {
+      generator.writeArrayFieldStart("children");
+    }
+  }
+
+  private void writeOffsets(String name, SortedSet<Pair<Integer, Integer>> offsets, JsonGenerator generator)
+      throws IOException {
+    generator.writeArrayFieldStart(name);
+    for (Pair<Integer, Integer> offset : offsets) {
+      generator.writeStartArray();
+      generator.writeNumber(offset.first);
+      generator.writeNumber(offset.second);
+      generator.writeEndArray();
+    }
+    generator.writeEndArray();
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.jackson;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.primeframework.transformer.domain.Document;
+
+/**
+ * A Jackson module that reads and writes documents as JSON with {@link DocumentJsonSerializer} and {@link
+ * DocumentJsonDeserializer}:
+ * <pre>
+ *   ObjectMapper mapper = new ObjectMapper().registerModule(new DocumentModule());
+ *   String json = mapper.writeValueAsString(document);
+ *   Document copy = mapper.readValue(json, Document.class);
+ * </pre>
+ * Jackson is an optional dependency of this library, it is only needed when this package is used.
+ *
+ * @author Daniel DeGroff
+ */
+public class DocumentModule extends SimpleModule {
+  private static final long serialVersionUID = 1L;
+
+  public DocumentModule() {
+    super("DocumentModule");
+    addSerializer(Document.class, new DocumentJsonSerializer());
+    addDeserializer(Document.class, new DocumentJsonDeserializer());
+  }
+}
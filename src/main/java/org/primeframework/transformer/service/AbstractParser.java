@@ -18,13 +18,16 @@ package org.primeframework.transformer.service;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.primeframework.transformer.domain.AttributeMap;
 import org.primeframework.transformer.domain.BaseNode;
 import org.primeframework.transformer.domain.BaseTagNode;
 import org.primeframework.transformer.domain.Document;
 import org.primeframework.transformer.domain.Node;
+import org.primeframework.transformer.domain.NodeList;
 import org.primeframework.transformer.domain.Pair;
 import org.primeframework.transformer.domain.TagAttributes;
 import org.primeframework.transformer.domain.TagNode;
@@ -35,6 +38,23 @@ import org.primeframework.transformer.domain.TextNode;
  */
 @SuppressWarnings("WeakerAccess")
 public abstract class AbstractParser implements Parser {
+  /**
+   * Whether the {@link Document#tagIndex()} is built as part of parsing.
+   */
+  protected final boolean indexTags;
+
+  protected AbstractParser() {
+    this(false);
+  }
+
+  /**
+   * @param indexTags Whether the index of the tags by name is built as part of parsing, so that the documents can be
+   *                  queried (or cached and queried) without walking the tree.
+   */
+  protected AbstractParser(boolean indexTags) {
+    this.indexTags = indexTags;
+  }
+
   /**
    * Add the provided node to node on the top of the stack if it isn't closed out yet, otherwise add it directly to the
    * document as a top level node.
@@ -71,9 +91,10 @@ public abstract class AbstractParser implements Parser {
       }
     }
 
-    // Add offsets for tag nodes
+    // Add offsets for tag nodes, and trim the complete tag
     if (node instanceof TagNode) {
       TagNode tag = (TagNode) node;
+      trimToSize(tag.children, tag.attributes);
       document.offsets.add(new Pair<>(tag.begin, tag.bodyBegin - tag.begin));
       if (tag.hasClosingTag()) {
         document.offsets.add(new Pair<>(tag.bodyEnd, tag.end - tag.bodyEnd));
@@ -162,21 +183,19 @@ public abstract class AbstractParser implements Parser {
    */
   protected void handleCompletedTagNode(Document document, Map<String, TagAttributes> attributes, int index,
                                         Deque<TagNode> nodes) {
-    if (nodes.isEmpty()) {
-      return;
-    }
+    while (!nodes.isEmpty()) {
+      TagNode current = nodes.peek();
+      String closingTagName = closingName(document, index, current);
+      // if no closing tag is required, or this is the correct closing tag for this node
+      if (doesNotRequireClosingTag(current, attributes) || eq(current.getName(), closingTagName)) {
+        TagNode tagNode = nodes.pop();
+        tagNode.end = index;
+        addNode(document, attributes, tagNode, nodes);
+        return;
+      }
 
-    TagNode current = nodes.peek();
-    String closingTagName = closingName(document, index, current);
-    // if no closing tag is required, or this is the correct closing tag for this node
-    if (doesNotRequireClosingTag(current, attributes) || eq(current.getName(), closingTagName)) {
-      TagNode tagNode = nodes.pop();
-      tagNode.end = index;
-      addNode(document, attributes, tagNode, nodes);
-    } else {
       handleUnexpectedState(document, attributes, index, nodes);
       // Try completing the node again.
-      handleCompletedTagNode(document, attributes, index, nodes);
     }
   }
 
@@ -228,6 +247,11 @@ public abstract class AbstractParser implements Parser {
     }
 
     handleAdjacentTextNodes(document);
+    trimToSize(document.children, null);
+
+    if (indexTags) {
+      document.tagIndex();
+    }
   }
 
   /**
@@ -338,33 +362,39 @@ public abstract class AbstractParser implements Parser {
    * converted to a {@link TextNode}, which may result in having adjacent text nodes in the document. Before return the
    * document these should be joined.
    *
-   * @param node the node for which the child text nodes will be collapsed
+   * @param root the node for which the descendant text nodes will be collapsed
    */
-  private void handleAdjacentTextNodes(BaseTagNode node) {
-    Iterator<Node> nodes = node.getChildren().iterator();
+  private void handleAdjacentTextNodes(BaseTagNode root) {
+    // Each tag is processed independently, use a work stack rather than recursion to support deeply nested documents
+    Deque<BaseTagNode> work = new ArrayDeque<>();
+    work.push(root);
     Deque<TextNode> textNodes = new ArrayDeque<>(2);
-    while (nodes.hasNext()) {
-      Node n = nodes.next();
-      if (n instanceof TextNode) {
-        TextNode current = (TextNode) n;
-        // Push the first text node onto the stack
-        if (textNodes.isEmpty()) {
-          textNodes.push(current);
-        } else {
-          // if adjacent, adjust the end index and then remove this node
-          TextNode first = textNodes.peek();
-          if (first.end == current.begin) {
-            first.end = current.end;
-            nodes.remove();
-          } else {
-            // no match, set the current at the top of the stack for comparison
+    while (!work.isEmpty()) {
+      Iterator<Node> nodes = work.pop().getChildren().iterator();
+      textNodes.clear();
+      while (nodes.hasNext()) {
+        Node n = nodes.next();
+        if (n instanceof TextNode) {
+          TextNode current = (TextNode) n;
+          // Push the first text node onto the stack
+          if (textNodes.isEmpty()) {
             textNodes.push(current);
+          } else {
+            // if adjacent, adjust the end index and then remove this node
+            TextNode first = textNodes.peek();
+            if (first.end == current.begin) {
+              first.end = current.end;
+              nodes.remove();
+            } else {
+              // no match, set the current at the top of the stack for comparison
+              textNodes.push(current);
+            }
           }
+        } else {
+          // if we hit a TagNode, start over and process this node later.
+          textNodes.clear();
+          work.push((TagNode) n);
         }
-      } else {
-        // if we hit a TagNode, start over and recurse on this node.
-        textNodes.clear();
-        handleAdjacentTextNodes((TagNode) n);
       }
     }
   }
@@ -472,4 +502,13 @@ public abstract class AbstractParser implements Parser {
   private String lc(String string) {
     return string == null ? null : string.toLowerCase();
   }
+
+  private void trimToSize(List<Node> children, Map<String, String> attributes) {
+    if (children instanceof NodeList) {
+      ((NodeList) children).trimToSize();
+    }
+    if (attributes instanceof AttributeMap) {
+      ((AttributeMap) attributes).trimToSize();
+    }
+  }
 }
@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.primeframework.transformer.domain.Offsets;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.domain.TagNode;
+import org.primeframework.transformer.domain.TextNode;
+import org.primeframework.transformer.service.Transformer.TransformFunction.HTMLTransformFunction;
+
+/**
+ * An HTML escaping transform function that also turns bare URLs and e-mail addresses into links in the same pass over
+ * the text.
+ * <p>
+ * URLs are detected when they start with <code>http://</code>, <code>https://</code>, <code>ftp://</code> or
+ * <code>www.</code> at the beginning of a word. Trailing punctuation and unbalanced closing parenthesis are not
+ * considered part of the URL. E-mail addresses must have a domain with at least two labels.
+ * <p>
+ * Text nested anywhere inside one of the skipped tags (by default <code>a</code>, <code>code</code>,
+ * <code>email</code>, <code>img</code>, <code>noparse</code>, <code>pre</code> and <code>url</code>) is only
+ * escaped.
+ * <p>
+ * The scanner is hand written, every character is examined a constant number of times so the cost is linear in the
+ * length of the text regardless of the input.
+ *
+ * @author Daniel DeGroff
+ */
+public class AutoLinkTransformFunction extends HTMLTransformFunction {
+  /**
+   * The tags whose text is not linked when none are provided.
+   */
+  public static final Set<String> DEFAULT_SKIP_TAGS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("a", "code", "email", "img", "noparse", "pre", "url")));
+
+  private final Set<String> skipTags;
+
+  public AutoLinkTransformFunction() {
+    this(null, null, DEFAULT_SKIP_TAGS);
+  }
+
+  public AutoLinkTransformFunction(Map<String, TagAttributes> attributes) {
+    this(null, attributes, DEFAULT_SKIP_TAGS);
+  }
+
+  public AutoLinkTransformFunction(Offsets offsets, Map<String, TagAttributes> attributes) {
+    this(offsets, attributes, DEFAULT_SKIP_TAGS);
+  }
+
+  /**
+   * @param offsets    The offsets to record the shifts in, may be null.
+   * @param attributes The tag attributes used to determine if newlines are transformed, may be null.
+   * @param skipTags   The lowercase names of the tags whose text is never linked.
+   */
+  public AutoLinkTransformFunction(Offsets offsets, Map<String, TagAttributes> attributes, Set<String> skipTags) {
+    super(offsets, attributes);
+    this.skipTags = skipTags != null ? skipTags : Collections.emptySet();
+  }
+
+  @Override
+  public String transform(TextNode node, String original) {
+    if (skip(node)) {
+      return super.transform(node, original);
+    }
+
+    int length = original.length();
+    StringBuilder build = null;
+    boolean transformNewLines = true;
+
+    int cursor = 0; // Start of the text that hasn't been appended yet
+    int localBegin = -1; // Start of the run of characters that could be the local part of an e-mail address
+    for (int i = 0; i < length; i++) {
+      char c = original.charAt(i);
+      int begin = i;
+      int end = -1;
+      String scheme = null;
+
+      if (c == '@') {
+        if (localBegin != -1) {
+          // The local part may not start with a dot
+          while (localBegin < i && original.charAt(localBegin) == '.') {
+            localBegin++;
+          }
+          if (localBegin < i) {
+            begin = localBegin;
+            end = scanDomain(original, i + 1, length);
+            scheme = "mailto:";
+          }
+        }
+      } else if (i == 0 || !Character.isLetterOrDigit(original.charAt(i - 1))) {
+        int hostBegin = schemeEnd(original, i, length);
+        if (hostBegin != -1) {
+          end = scanURL(original, hostBegin, length);
+          scheme = hostBegin == i ? "http://" : null;
+        }
+      }
+
+      if (end == -1) {
+        if (isLocalCharacter(c)) {
+          if (localBegin == -1) {
+            localBegin = i;
+          }
+        } else {
+          localBegin = -1;
+        }
+        continue;
+      }
+
+      if (build == null) {
+        build = new StringBuilder(length + 64);
+        transformNewLines = transformNewLines(node, original, 0, length);
+      }
+
+      escape(node, original, cursor, begin, transformNewLines, build);
+
+      int prefixBegin = build.length();
+      build.append("<a href=\"");
+      if (scheme != null) {
+        build.append(scheme);
+      }
+      appendAttributeValue(original, begin, end, build);
+      build.append("\">");
+      if (offsets != null) {
+        offsets.add(node.begin + begin, build.length() - prefixBegin);
+      }
+
+      escape(node, original, begin, end, transformNewLines, build);
+      build.append("</a>");
+      if (offsets != null) {
+        offsets.add(node.begin + end, 4);
+      }
+
+      cursor = end;
+      localBegin = -1;
+      i = end - 1;
+    }
+
+    if (build == null) {
+      return super.transform(node, original);
+    }
+
+    escape(node, original, cursor, length, transformNewLines, build);
+    return build.toString();
+  }
+
+  private void appendAttributeValue(String original, int begin, int end, StringBuilder build) {
+    int run = begin;
+    for (int i = begin; i < end; i++) {
+      char c = original.charAt(i);
+      String replacement;
+      if (c == '&') {
+        replacement = "&amp;";
+      } else if (c == '"') {
+        replacement = "&quot;";
+      } else {
+        continue;
+      }
+
+      build.append(original, run, i).append(replacement);
+      run = i + 1;
+    }
+    build.append(original, run, end);
+  }
+
+  private boolean isLocalCharacter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.' || c == '_' ||
+        c == '%' || c == '+' || c == '-';
+  }
+
+  private boolean isURLCharacter(char c) {
+    return c > ' ' && c != '<' && c != '>' && c != '"' && c != '\u007f' && !Character.isWhitespace(c);
+  }
+
+  private boolean regionMatches(String original, int index, int length, String prefix) {
+    return index + prefix.length() <= length && original.regionMatches(true, index, prefix, 0, prefix.length());
+  }
+
+  /**
+   * Scan the domain of an e-mail address.
+   *
+   * @return The end of the domain (exclusive), or -1 if there isn't a valid domain.
+   */
+  private int scanDomain(String original, int begin, int length) {
+    int end = begin;
+    while (end < length) {
+      char c = original.charAt(end);
+      if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '.') {
+        end++;
+      } else {
+        break;
+      }
+    }
+
+    while (end > begin && (original.charAt(end - 1) == '.' || original.charAt(end - 1) == '-')) {
+      end--;
+    }
+
+    // Every label must be non-empty, and the last one must be at least two letters
+    int labels = 0;
+    int labelBegin = begin;
+    int lastLabelBegin = begin;
+    for (int i = begin; i <= end; i++) {
+      if (i == end || original.charAt(i) == '.') {
+        if (i == labelBegin) {
+          return -1;
+        }
+        labels++;
+        lastLabelBegin = labelBegin;
+        labelBegin = i + 1;
+      }
+    }
+
+    if (labels < 2 || end - lastLabelBegin < 2) {
+      return -1;
+    }
+
+    for (int i = lastLabelBegin; i < end; i++) {
+      if (!Character.isLetter(original.charAt(i))) {
+        return -1;
+      }
+    }
+
+    return end;
+  }
+
+  /**
+   * Scan the remainder of a URL.
+   *
+   * @return The end of the URL (exclusive), or -1 if there is nothing after the scheme.
+   */
+  private int scanURL(String original, int hostBegin, int length) {
+    int end = hostBegin;
+    int open = 0;
+    int close = 0;
+    while (end < length && isURLCharacter(original.charAt(end))) {
+      char c = original.charAt(end);
+      if (c == '(') {
+        open++;
+      } else if (c == ')') {
+        close++;
+      }
+      end++;
+    }
+
+    // Trailing punctuation is most likely part of the sentence
+    while (end > hostBegin) {
+      char c = original.charAt(end - 1);
+      if (c == '.' || c == ',' || c == ';' || c == ':' || c == '!' || c == '?' || c == '\'' || c == '*') {
+        end--;
+      } else if (c == ')' && close > open) {
+        close--;
+        end--;
+      } else {
+        break;
+      }
+    }
+
+    return end > hostBegin ? end : -1;
+  }
+
+  /**
+   * Determine where the host of a URL begins.
+   *
+   * @return The index where the host begins, or -1 if there isn't a URL at the index. For URLs that begin with www. the
+   *     index itself is returned.
+   */
+  private int schemeEnd(String original, int index, int length) {
+    char c = original.charAt(index);
+    if (c == 'h' || c == 'H') {
+      if (regionMatches(original, index, length, "http://")) {
+        return index + 7;
+      } else if (regionMatches(original, index, length, "https://")) {
+        return index + 8;
+      }
+    } else if (c == 'f' || c == 'F') {
+      if (regionMatches(original, index, length, "ftp://")) {
+        return index + 6;
+      }
+    } else if (c == 'w' || c == 'W') {
+      if (regionMatches(original, index, length, "www.") && index + 4 < length &&
+          Character.isLetterOrDigit(original.charAt(index + 4))) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  private boolean skip(TextNode node) {
+    if (skipTags.isEmpty()) {
+      return false;
+    }
+
+    for (TagNode parent = node.parent; parent != null; parent = parent.parent) {
+      String name = parent.getName();
+      if (name != null && skipTags.contains(name.toLowerCase())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
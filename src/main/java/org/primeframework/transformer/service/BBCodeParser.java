@@ -33,6 +33,16 @@ import org.primeframework.transformer.domain.TextNode;
  */
 public class BBCodeParser extends AbstractParser {
 
+  public BBCodeParser() {
+  }
+
+  /**
+   * @param indexTags Whether the index of the tags by name is built as part of parsing.
+   */
+  public BBCodeParser(boolean indexTags) {
+    super(indexTags);
+  }
+
   @Override
   public Document buildDocument(String source, Map<String, TagAttributes> tagAttributes) {
     return buildDocument(source.toCharArray(), tagAttributes);
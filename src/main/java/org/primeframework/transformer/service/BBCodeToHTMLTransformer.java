@@ -16,13 +16,16 @@
 package org.primeframework.transformer.service;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
 
 import freemarker.template.Configuration;
 import freemarker.template.Template;
 import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.SourceMap;
 import org.primeframework.transformer.domain.TagNode;
 
 /**
@@ -35,7 +38,7 @@ import org.primeframework.transformer.domain.TagNode;
  *
  * @author Daniel DeGroff
  */
-public class BBCodeToHTMLTransformer implements Transformer {
+public class BBCodeToHTMLTransformer implements PreviewTransformer, SourceMapTransformer {
   private static final Map<String, Template> DEFAULT_TEMPLATES = new HashMap<>();
 
   private FreeMarkerTransformer transformer;
@@ -86,9 +89,41 @@ public class BBCodeToHTMLTransformer implements Transformer {
     this.transformer = new FreeMarkerTransformer(DEFAULT_TEMPLATES, strict);
   }
 
+  /**
+   * @param strict            Determines if the transformer is strict and throws exceptions if a template isn't found.
+   * @param pool              The pool used to render large documents in parallel, or null.
+   * @param parallelThreshold The size of the document source, in characters, at which rendering is split into
+   *                          parallel tasks.
+   * @see FreeMarkerTransformer#FreeMarkerTransformer(Map, boolean, ForkJoinPool, int)
+   */
+  public BBCodeToHTMLTransformer(boolean strict, ForkJoinPool pool, int parallelThreshold) {
+    this.transformer = new FreeMarkerTransformer(DEFAULT_TEMPLATES, strict, pool, parallelThreshold);
+  }
+
   @Override
   public String transform(Document document, Predicate<TagNode> transformPredicate, TransformFunction transformFunction,
                           NodeConsumer nodeConsumer) throws TransformException {
     return transformer.transform(document, transformPredicate, transformFunction, nodeConsumer);
   }
+
+  @Override
+  public void transform(Document document, Predicate<TagNode> transformPredicate, TransformFunction transformFunction,
+                        NodeConsumer nodeConsumer, OutputStream out) throws TransformException {
+    transformer.transform(document, transformPredicate, transformFunction, nodeConsumer, out);
+  }
+
+  @Override
+  public String transformPreview(Document document, Predicate<TagNode> transformPredicate,
+                                 TransformFunction transformFunction, int budget, String ellipsis)
+      throws TransformException {
+    return transformer.transformPreview(document, transformPredicate, transformFunction, budget, ellipsis);
+  }
+
+  @Override
+  public String transformWithSourceMap(Document document, Predicate<TagNode> transformPredicate,
+                                       TransformFunction transformFunction, NodeConsumer nodeConsumer,
+                                       SourceMap sourceMap)
+      throws TransformException {
+    return transformer.transformWithSourceMap(document, transformPredicate, transformFunction, nodeConsumer, sourceMap);
+  }
 }
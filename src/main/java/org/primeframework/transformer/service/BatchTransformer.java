@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.domain.TagNode;
+import org.primeframework.transformer.service.Transformer.TransformFunction;
+
+/**
+ * Parses and transforms many source strings in parallel using one shared configuration.
+ * <p>
+ * Each source is parsed and transformed as a separate task on the executor. At most <code>maxInFlight</code> sources
+ * are submitted and not yet handed back at any time, so a stream of any length can be processed in bounded memory.
+ * The results are always handed back in the order of the input.
+ * <p>
+ * The parsers keep no state between documents, so a single parser is shared by all of the workers. The transformer,
+ * transform predicate and transform function are shared as well and must be thread safe.
+ * <p>
+ * Any executor can be used. The common {@link ForkJoinPool} is used by default, on Java 21 or later
+ * <code>Executors.newVirtualThreadPerTaskExecutor()</code> can be passed in instead.
+ * <p>
+ * Example:
+ * <pre>
+ *   BatchTransformer batch = new BatchTransformer(new BBCodeParser(), new BBCodeToHTMLTransformer());
+ *   List&lt;String&gt; html = batch.transform(sources, attributes, predicate, function);
+ * </pre>
+ *
+ * @author Daniel DeGroff
+ */
+public class BatchTransformer {
+  private final Executor executor;
+
+  private final int maxInFlight;
+
+  private final Parser parser;
+
+  private final Transformer transformer;
+
+  public BatchTransformer(Parser parser, Transformer transformer) {
+    this(parser, transformer, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism() * 4);
+  }
+
+  /**
+   * @param parser         The parser shared by all of the workers.
+   * @param transformer    The transformer shared by all of the workers.
+   * @param executor       The executor that runs the parse and transform tasks.
+   * @param maxInFlight    The maximum number of sources that are submitted to the executor and whose results have not
+   *                       been handed back yet.
+   */
+  public BatchTransformer(Parser parser, Transformer transformer, Executor executor, int maxInFlight) {
+    Objects.requireNonNull(parser, "A parser is required");
+    Objects.requireNonNull(transformer, "A transformer is required");
+    Objects.requireNonNull(executor, "An executor is required");
+    if (maxInFlight <= 0) {
+      throw new IllegalArgumentException("The maximum number of in flight sources must be greater than zero");
+    }
+
+    this.parser = parser;
+    this.transformer = transformer;
+    this.executor = executor;
+    this.maxInFlight = maxInFlight;
+  }
+
+  /**
+   * Parse and transform all of the sources.
+   *
+   * @param sources            The source strings.
+   * @param tagAttributes      The tag attributes passed to the parser.
+   * @param transformPredicate The transform predicate passed to the transformer.
+   * @param transformFunction  The transform function passed to the transformer, may be null.
+   * @return The results in the same order as the sources.
+   * @throws TransformException If any source fails, the index of the source is in the message.
+   */
+  public List<String> transform(List<String> sources, Map<String, TagAttributes> tagAttributes,
+                                Predicate<TagNode> transformPredicate, TransformFunction transformFunction)
+      throws TransformException {
+    List<String> results = new ArrayList<>(sources.size());
+    transform(sources.iterator(), tagAttributes, transformPredicate, transformFunction, results::add);
+    return results;
+  }
+
+  /**
+   * Parse and transform all of the sources in the stream, handing each result to the consumer in the order of the
+   * stream. The consumer is always called on the calling thread.
+   *
+   * @param sources            The source strings.
+   * @param tagAttributes      The tag attributes passed to the parser.
+   * @param transformPredicate The transform predicate passed to the transformer.
+   * @param transformFunction  The transform function passed to the transformer, may be null.
+   * @param resultConsumer     Receives each result.
+   * @return The throughput of the batch.
+   * @throws TransformException If any source fails, the index of the source is in the message.
+   */
+  public Report transform(Stream<String> sources, Map<String, TagAttributes> tagAttributes,
+                          Predicate<TagNode> transformPredicate, TransformFunction transformFunction,
+                          Consumer<String> resultConsumer)
+      throws TransformException {
+    Objects.requireNonNull(resultConsumer, "A result consumer is required");
+    return transform(sources.iterator(), tagAttributes, transformPredicate, transformFunction, resultConsumer);
+  }
+
+  private void deliver(Deque<Pending> pending, Consumer<String> resultConsumer) {
+    Pending next = pending.poll();
+    try {
+      resultConsumer.accept(next.future.join());
+    } catch (CompletionException e) {
+      for (Pending remaining : pending) {
+        remaining.future.cancel(false);
+      }
+      throw new TransformException("Transformation failed for the source at index [" + next.index + "]", e.getCause());
+    }
+  }
+
+  private Report transform(Iterator<String> sources, Map<String, TagAttributes> tagAttributes,
+                           Predicate<TagNode> transformPredicate, TransformFunction transformFunction,
+                           Consumer<String> resultConsumer) {
+    Objects.requireNonNull(transformPredicate, "A transform predicate is required");
+
+    long start = System.nanoTime();
+    long characters = 0;
+    int index = 0;
+    Deque<Pending> pending = new ArrayDeque<>(maxInFlight);
+    while (sources.hasNext()) {
+      String source = sources.next();
+      characters += source.length();
+      CompletableFuture<String> future = CompletableFuture.supplyAsync(
+          () -> transformer.transform(parser.buildDocument(source, tagAttributes), transformPredicate,
+              transformFunction, null), executor);
+      pending.add(new Pending(index++, future));
+
+      if (pending.size() == maxInFlight) {
+        deliver(pending, resultConsumer);
+      }
+    }
+
+    while (!pending.isEmpty()) {
+      deliver(pending, resultConsumer);
+    }
+
+    return new Report(index, characters, System.nanoTime() - start);
+  }
+
+  /**
+   * The throughput of a batch.
+   *
+   * @author Daniel DeGroff
+   */
+  public static final class Report {
+    /**
+     * The total length of the sources.
+     */
+    public final long characters;
+
+    /**
+     * The number of sources.
+     */
+    public final long documents;
+
+    /**
+     * The wall clock time of the batch.
+     */
+    public final long elapsedNanos;
+
+    public Report(long documents, long characters, long elapsedNanos) {
+      this.documents = documents;
+      this.characters = characters;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return The number of source characters processed per second.
+     */
+    public double charactersPerSecond() {
+      return elapsedNanos == 0 ? 0 : characters * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * @return The number of sources processed per second.
+     */
+    public double documentsPerSecond() {
+      return elapsedNanos == 0 ? 0 : documents * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+      return "Report{" +
+          "documents=" + documents +
+          ", characters=" + characters +
+          ", elapsedNanos=" + elapsedNanos +
+          "}";
+    }
+  }
+
+  private static class Pending {
+    final CompletableFuture<String> future;
+
+    final int index;
+
+    Pending(int index, CompletableFuture<String> future) {
+      this.index = index;
+      this.future = future;
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Helpers for the HTML character references (i.e. <code>&amp;amp;</code>, <code>&amp;#169;</code> and
+ * <code>&amp;#x3a;</code>) shared by the classes that read HTML text.
+ * <p>
+ * Numeric references are recognised with or without the semicolon, the same as browsers do. Named references need the
+ * semicolon and are only recognised for a small table of common names, along with the punctuation names that can be
+ * used to hide a URL scheme (i.e. <code>&amp;colon;</code> and <code>&amp;Tab;</code>).
+ *
+ * @author Daniel DeGroff
+ */
+final class CharacterReferences {
+  /**
+   * Named references are short, so a stray ampersand only looks ahead this many characters. Numeric references have no
+   * limit, browsers read every digit (i.e. <code>&amp;#0000000058;</code> is a colon).
+   */
+  private static final int MAX_LENGTH = 32;
+
+  /**
+   * Numeric references that are zero, surrogates or beyond the last code point decode to this, the same as browsers.
+   */
+  private static final int REPLACEMENT = 0xFFFD;
+
+  private static final Map<String, Integer> NAMED = new HashMap<>();
+
+  static {
+    NAMED.put("amp", (int) '&');
+    NAMED.put("apos", (int) '\'');
+    NAMED.put("colon", (int) ':');
+    NAMED.put("comma", (int) ',');
+    NAMED.put("copy", 0xA9);
+    NAMED.put("excl", (int) '!');
+    NAMED.put("gt", (int) '>');
+    NAMED.put("lpar", (int) '(');
+    NAMED.put("lt", (int) '<');
+    NAMED.put("nbsp", 0xA0);
+    NAMED.put("NewLine", (int) '\n');
+    NAMED.put("num", (int) '#');
+    NAMED.put("period", (int) '.');
+    NAMED.put("quot", (int) '"');
+    NAMED.put("rpar", (int) ')');
+    NAMED.put("semi", (int) ';');
+    NAMED.put("sol", (int) '/');
+    NAMED.put("Tab", (int) '\t');
+  }
+
+  private CharacterReferences() {
+  }
+
+  /**
+   * Decode the reference that {@link #end(CharSequence, int, int)} found.
+   *
+   * @param source The source.
+   * @param index  The index of the ampersand.
+   * @param end    The end of the reference.
+   * @return The code point, or -1 if the reference isn't known. A numeric reference to a code point that isn't valid is
+   *     U+FFFD.
+   */
+  static int decode(CharSequence source, int index, int end) {
+    int last = source.charAt(end - 1) == ';' ? end - 1 : end;
+    if (source.charAt(index + 1) != '#') {
+      Integer codePoint = NAMED.get(source.subSequence(index + 1, last).toString());
+      return codePoint != null ? codePoint : -1;
+    }
+
+    boolean hex = source.charAt(index + 2) == 'x' || source.charAt(index + 2) == 'X';
+    int radix = hex ? 16 : 10;
+    int codePoint = 0;
+    for (int i = hex ? index + 3 : index + 2; i < last; i++) {
+      // Keep reading the digits once the value is too large, it can't shrink again
+      codePoint = Math.min(codePoint * radix + Character.digit(source.charAt(i), radix), Character.MAX_CODE_POINT + 1);
+    }
+
+    if (codePoint == 0 || codePoint > Character.MAX_CODE_POINT ||
+        (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+      return REPLACEMENT;
+    }
+    return codePoint;
+  }
+
+  /**
+   * Find the end of the character reference that begins with the ampersand at the index.
+   *
+   * @param source The source.
+   * @param index  The index of the ampersand.
+   * @param limit  The end of the text the reference must be inside of.
+   * @return The index after the reference, or -1 if the ampersand doesn't begin a reference.
+   */
+  static int end(CharSequence source, int index, int limit) {
+    int i = index + 1;
+    if (i < limit && source.charAt(i) == '#') {
+      i++;
+      int radix = 10;
+      if (i < limit && (source.charAt(i) == 'x' || source.charAt(i) == 'X')) {
+        radix = 16;
+        i++;
+      }
+
+      int digits = i;
+      while (i < limit && Character.digit(source.charAt(i), radix) != -1) {
+        i++;
+      }
+      if (i == digits) {
+        return -1;
+      }
+      return i < limit && source.charAt(i) == ';' ? i + 1 : i;
+    }
+
+    while (i < limit && i - index <= MAX_LENGTH && isAlphanumeric(source.charAt(i))) {
+      i++;
+    }
+    if (i == index + 1 || i == limit || source.charAt(i) != ';') {
+      return -1;
+    }
+    return i + 1;
+  }
+
+  private static boolean isAlphanumeric(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import org.primeframework.transformer.domain.TagNames;
+import org.primeframework.transformer.domain.TagNode;
+
+/**
+ * A tag predicate compiled to a bitset over the ids of the {@link TagNames} registry, along with an optional depth
+ * limit and attribute conditions. Testing a tag does not allocate. Instances are immutable and thread safe, and are
+ * built using the {@link TagPredicates} factory.
+ * <p>
+ * The transformers recognise compiled predicates and pass the id of the tag name they have already looked up, along
+ * with the depth they track while walking the tree, so the name of each tag is only resolved once and the ancestors
+ * of a tag are never walked.
+ *
+ * @author Daniel DeGroff
+ */
+public final class CompiledTagPredicate implements Predicate<TagNode> {
+  /**
+   * Whether tags outside of the bitset (names registered later, or never registered) are accepted.
+   */
+  private final boolean acceptOthers;
+
+  /**
+   * The bits of the accepted tag ids.
+   */
+  private final long[] accepted;
+
+  /**
+   * Additional conditions indexed by tag id, may be shorter than the registry.
+   */
+  private final Predicate<TagNode>[] conditions;
+
+  private final int maxDepth;
+
+  CompiledTagPredicate(long[] accepted, boolean acceptOthers, int maxDepth, Predicate<TagNode>[] conditions) {
+    this.accepted = accepted;
+    this.acceptOthers = acceptOthers;
+    this.maxDepth = maxDepth;
+    this.conditions = conditions;
+  }
+
+  /**
+   * Combine this predicate with another, a tag must be accepted by both.
+   *
+   * @param other The other predicate.
+   * @return The combined predicate.
+   */
+  public CompiledTagPredicate and(CompiledTagPredicate other) {
+    Objects.requireNonNull(other, "A predicate is required");
+    long[] bits = new long[Math.max(accepted.length, other.accepted.length)];
+    for (int i = 0; i < bits.length; i++) {
+      bits[i] = word(i) & other.word(i);
+    }
+
+    Predicate<TagNode>[] combined = newConditions(Math.max(conditions.length, other.conditions.length));
+    for (int i = 0; i < combined.length; i++) {
+      Predicate<TagNode> first = i < conditions.length ? conditions[i] : null;
+      Predicate<TagNode> second = i < other.conditions.length ? other.conditions[i] : null;
+      combined[i] = first == null ? second : second == null ? first : first.and(second);
+    }
+
+    return new CompiledTagPredicate(bits, acceptOthers && other.acceptOthers, Math.min(maxDepth, other.maxDepth), combined);
+  }
+
+  @Override
+  public boolean test(TagNode tagNode) {
+    return test(tagNode, tagNode.getNameId());
+  }
+
+  /**
+   * Test the tag using the id of its name that the caller has already looked up.
+   *
+   * @param tagNode The tag.
+   * @param nameId  The id of the name of the tag.
+   * @return True if the tag should be transformed.
+   */
+  public boolean test(TagNode tagNode, int nameId) {
+    if (!accepts(nameId)) {
+      return false;
+    }
+
+    // Only walk far enough to know the depth limit is exceeded
+    if (maxDepth != Integer.MAX_VALUE && depth(tagNode, maxDepth + 1) > maxDepth) {
+      return false;
+    }
+
+    return testConditions(tagNode, nameId);
+  }
+
+  /**
+   * Test the tag using the id of its name and its depth that the caller already knows from walking the tree, so the
+   * ancestors of the tag are never walked.
+   *
+   * @param tagNode The tag.
+   * @param nameId  The id of the name of the tag.
+   * @param depth   The depth of the tag, a top level tag has a depth of 1.
+   * @return True if the tag should be transformed.
+   */
+  public boolean test(TagNode tagNode, int nameId, int depth) {
+    return accepts(nameId) && depth <= maxDepth && testConditions(tagNode, nameId);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder build = new StringBuilder("CompiledTagPredicate{");
+    build.append(acceptOthers ? "deny=" : "allow=");
+    build.append('[');
+    boolean first = true;
+    for (int id = 0; id < accepted.length * 64 && id < TagNames.size(); id++) {
+      if (accepts(id) != acceptOthers) {
+        if (!first) {
+          build.append(", ");
+        }
+        build.append(TagNames.name(id));
+        first = false;
+      }
+    }
+    build.append(']');
+    if (maxDepth != Integer.MAX_VALUE) {
+      build.append(", maxDepth=").append(maxDepth);
+    }
+    return build.append('}').toString();
+  }
+
+  /**
+   * Return a copy of this predicate that also requires the named tags to pass the condition. Tags with other names are
+   * not affected.
+   *
+   * @param condition The condition.
+   * @param names     The tag names.
+   * @return The new predicate.
+   */
+  public CompiledTagPredicate where(Predicate<TagNode> condition, String... names) {
+    Objects.requireNonNull(condition, "A condition is required");
+    int length = conditions.length;
+    int[] ids = new int[names.length];
+    for (int i = 0; i < names.length; i++) {
+      ids[i] = TagNames.intern(names[i]);
+      length = Math.max(length, ids[i] + 1);
+    }
+
+    Predicate<TagNode>[] copy = newConditions(length);
+    System.arraycopy(conditions, 0, copy, 0, conditions.length);
+    for (int id : ids) {
+      copy[id] = copy[id] == null ? condition : copy[id].and(condition);
+    }
+
+    return new CompiledTagPredicate(accepted, acceptOthers, maxDepth, copy);
+  }
+
+  /**
+   * Return a copy of this predicate that only accepts tags nested at most the given number of tags deep. A tag at the
+   * top level of the document has a depth of one.
+   *
+   * @param maxDepth The maximum depth.
+   * @return The new predicate.
+   */
+  public CompiledTagPredicate withMaxDepth(int maxDepth) {
+    if (maxDepth < 0) {
+      throw new IllegalArgumentException("The maximum depth must not be negative");
+    }
+    return new CompiledTagPredicate(accepted, acceptOthers, Math.min(this.maxDepth, maxDepth), conditions);
+  }
+
+  /**
+   * Count the tag and its ancestors, stopping once the limit is reached.
+   *
+   * @param tagNode The tag.
+   * @param limit   The largest count that is returned.
+   * @return The depth of the tag, a top level tag has a depth of 1.
+   */
+  static int depth(TagNode tagNode, int limit) {
+    int depth = 0;
+    for (TagNode current = tagNode; current != null && depth < limit; current = current.parent) {
+      depth++;
+    }
+    return depth;
+  }
+
+  @SuppressWarnings("unchecked")
+  static Predicate<TagNode>[] newConditions(int length) {
+    return (Predicate<TagNode>[]) new Predicate<?>[length];
+  }
+
+  private boolean accepts(int nameId) {
+    if (nameId < 0 || (nameId >>> 6) >= accepted.length) {
+      return acceptOthers;
+    }
+    return (accepted[nameId >>> 6] & (1L << nameId)) != 0;
+  }
+
+  private boolean testConditions(TagNode tagNode, int nameId) {
+    if (nameId >= 0 && nameId < conditions.length && conditions[nameId] != null) {
+      return conditions[nameId].test(tagNode);
+    }
+    return true;
+  }
+
+  /**
+   * Return a word of the bitset, words past the end are filled with the default for other tags.
+   */
+  private long word(int index) {
+    return index < accepted.length ? accepted[index] : acceptOthers ? -1L : 0L;
+  }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.primeframework.transformer.domain.Offsets;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.domain.TextNode;
+import org.primeframework.transformer.service.Transformer.TransformFunction.HTMLTransformFunction;
+
+/**
+ * An HTML escaping transform function that also replaces every occurrence of the patterns in a {@link Dictionary} in
+ * the same pass over the text. This is useful for things like smiley substitution, masking banned words or linking
+ * keywords.
+ * <p>
+ * Patterns are matched against the original text, before it is escaped, and the replacements are emitted as is. This
+ * means a pattern may contain HTML characters (i.e. <code>&lt;3</code>) and a replacement may contain markup. When
+ * patterns overlap the leftmost match wins, and of the matches starting at the same index the longest wins.
+ * <p>
+ * The dictionary is compiled once into an Aho-Corasick automaton and may be shared by any number of functions and
+ * threads. The cost of a transformation is linear in the length of the text and does not depend on the number of
+ * patterns. In the worst case a character is examined once more for every character of the longest pattern.
+ * <p>
+ * Example:
+ * <pre>
+ *   Dictionary smileys = Dictionary.compile(map, false);
+ *   transformer.transform(document, predicate, new DictionaryTransformFunction(smileys, offsets, attributes), null);
+ * </pre>
+ *
+ * @author Daniel DeGroff
+ */
+public class DictionaryTransformFunction extends HTMLTransformFunction {
+  private final Dictionary dictionary;
+
+  public DictionaryTransformFunction(Dictionary dictionary) {
+    this(dictionary, null, null);
+  }
+
+  public DictionaryTransformFunction(Dictionary dictionary, Map<String, TagAttributes> attributes) {
+    this(dictionary, null, attributes);
+  }
+
+  public DictionaryTransformFunction(Dictionary dictionary, Offsets offsets, Map<String, TagAttributes> attributes) {
+    super(offsets, attributes);
+    Objects.requireNonNull(dictionary, "A dictionary is required");
+    this.dictionary = dictionary;
+  }
+
+  @Override
+  public String transform(TextNode node, String original) {
+    int length = original.length();
+    StringBuilder build = null;
+    boolean transformNewLines = true;
+
+    int cursor = 0; // Start of the text that hasn't been appended yet
+    int state = 0;
+    int candidate = -1;
+    int candidateBegin = -1;
+    int candidateEnd = -1;
+    int i = 0;
+    while (true) {
+      if (i < length) {
+        state = dictionary.next(state, original.charAt(i));
+        i++;
+
+        int match = dictionary.output[state];
+        if (match != -1) {
+          int begin = i - dictionary.lengths[match];
+          if (candidate == -1 || begin < candidateBegin || (begin == candidateBegin && i > candidateEnd)) {
+            candidate = match;
+            candidateBegin = begin;
+            candidateEnd = i;
+          }
+        }
+      }
+
+      // Once no partial match can begin at or before the candidate, the candidate is the leftmost longest match
+      if (candidate != -1 && (i == length || i - dictionary.depth[state] > candidateBegin)) {
+        if (build == null) {
+          build = new StringBuilder(length + 16);
+          transformNewLines = transformNewLines(node, original, 0, length);
+        }
+
+        escape(node, original, cursor, candidateBegin, transformNewLines, build);
+        String replacement = dictionary.replacements[candidate];
+        build.append(replacement);
+
+        int shift = replacement.length() - dictionary.lengths[candidate];
+        if (offsets != null && shift != 0) {
+          offsets.add(node.begin + candidateBegin, shift);
+        }
+
+        // Continue matching directly after the replaced text
+        cursor = candidateEnd;
+        i = candidateEnd;
+        state = 0;
+        candidate = -1;
+        continue;
+      }
+
+      if (i == length) {
+        break;
+      }
+    }
+
+    if (build == null) {
+      return super.transform(node, original);
+    }
+
+    escape(node, original, cursor, length, transformNewLines, build);
+    return build.toString();
+  }
+
+  /**
+   * A compiled dictionary of patterns and their replacements. This is immutable and thread safe.
+   *
+   * @author Daniel DeGroff
+   */
+  public static final class Dictionary {
+    private final int[] depth;
+
+    private final int[] edgeBegin;
+
+    private final char[] edgeCharacters;
+
+    private final int[] edgeTargets;
+
+    private final int[] fail;
+
+    private final boolean ignoreCase;
+
+    private final int[] lengths;
+
+    private final int[] output;
+
+    private final String[] replacements;
+
+    private final int[] root = new int[128];
+
+    private Dictionary(Map<String, String> patterns, boolean ignoreCase) {
+      this.ignoreCase = ignoreCase;
+      this.lengths = new int[patterns.size()];
+      this.replacements = new String[patterns.size()];
+
+      // Build the trie
+      List<Map<Character, Integer>> children = new ArrayList<>();
+      List<Integer> terminals = new ArrayList<>();
+      List<Integer> depths = new ArrayList<>();
+      children.add(new HashMap<>());
+      terminals.add(-1);
+      depths.add(0);
+
+      int pattern = 0;
+      for (Map.Entry<String, String> entry : patterns.entrySet()) {
+        String key = entry.getKey();
+        if (key == null || key.isEmpty()) {
+          throw new IllegalArgumentException("Dictionary patterns must not be empty");
+        }
+        Objects.requireNonNull(entry.getValue(), "The replacement for the pattern [" + key + "] is required");
+
+        int state = 0;
+        for (int i = 0; i < key.length(); i++) {
+          char c = fold(key.charAt(i));
+          Integer next = children.get(state).get(c);
+          if (next == null) {
+            next = children.size();
+            children.get(state).put(c, next);
+            children.add(new HashMap<>());
+            terminals.add(-1);
+            depths.add(i + 1);
+          }
+          state = next;
+        }
+
+        // When case is ignored the first of two equivalent patterns wins
+        if (terminals.get(state) == -1) {
+          terminals.set(state, pattern);
+        }
+        lengths[pattern] = key.length();
+        replacements[pattern] = entry.getValue();
+        pattern++;
+      }
+
+      // Flatten the edges of each state into sorted arrays
+      int states = children.size();
+      this.depth = new int[states];
+      this.edgeBegin = new int[states + 1];
+      int edges = 0;
+      for (int state = 0; state < states; state++) {
+        depth[state] = depths.get(state);
+        edgeBegin[state] = edges;
+        edges += children.get(state).size();
+      }
+      edgeBegin[states] = edges;
+
+      this.edgeCharacters = new char[edges];
+      this.edgeTargets = new int[edges];
+      for (int state = 0; state < states; state++) {
+        Character[] characters = children.get(state).keySet().toArray(new Character[0]);
+        Arrays.sort(characters);
+        for (int i = 0; i < characters.length; i++) {
+          edgeCharacters[edgeBegin[state] + i] = characters[i];
+          edgeTargets[edgeBegin[state] + i] = children.get(state).get(characters[i]);
+        }
+      }
+
+      for (int i = edgeBegin[0]; i < edgeBegin[1]; i++) {
+        if (edgeCharacters[i] < 128) {
+          root[edgeCharacters[i]] = edgeTargets[i];
+        }
+      }
+
+      // Breadth first to build the failure links and the longest output of each state
+      this.fail = new int[states];
+      this.output = new int[states];
+      output[0] = -1;
+      Deque<Integer> queue = new ArrayDeque<>();
+      for (int i = edgeBegin[0]; i < edgeBegin[1]; i++) {
+        int target = edgeTargets[i];
+        fail[target] = 0;
+        output[target] = terminals.get(target);
+        queue.add(target);
+      }
+
+      while (!queue.isEmpty()) {
+        int state = queue.poll();
+        for (int i = edgeBegin[state]; i < edgeBegin[state + 1]; i++) {
+          int target = edgeTargets[i];
+          fail[target] = next(fail[state], edgeCharacters[i]);
+          output[target] = terminals.get(target) != -1 ? terminals.get(target) : output[fail[target]];
+          queue.add(target);
+        }
+      }
+    }
+
+    /**
+     * Compile the patterns into a dictionary.
+     *
+     * @param patterns   The patterns and their replacements. The replacements are not escaped.
+     * @param ignoreCase Whether or not the patterns are matched without regard to case.
+     * @return The dictionary.
+     */
+    public static Dictionary compile(Map<String, String> patterns, boolean ignoreCase) {
+      Objects.requireNonNull(patterns, "The patterns are required");
+      return new Dictionary(patterns, ignoreCase);
+    }
+
+    /**
+     * @return The number of patterns in the dictionary.
+     */
+    public int size() {
+      return lengths.length;
+    }
+
+    private int edge(int state, char c) {
+      if (state == 0 && c < 128) {
+        int target = root[c];
+        return target == 0 ? -1 : target;
+      }
+
+      int low = edgeBegin[state];
+      int high = edgeBegin[state + 1] - 1;
+      while (low <= high) {
+        int middle = (low + high) >>> 1;
+        char value = edgeCharacters[middle];
+        if (value < c) {
+          low = middle + 1;
+        } else if (value > c) {
+          high = middle - 1;
+        } else {
+          return edgeTargets[middle];
+        }
+      }
+      return -1;
+    }
+
+    private char fold(char c) {
+      return ignoreCase ? Character.toLowerCase(c) : c;
+    }
+
+    private int next(int state, char c) {
+      c = fold(c);
+      while (true) {
+        int target = edge(state, c);
+        if (target != -1) {
+          return target;
+        }
+        if (state == 0) {
+          return 0;
+        }
+        state = fail[state];
+      }
+    }
+  }
+}
@@ -0,0 +1,645 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.primeframework.transformer.domain.BaseNode;
+import org.primeframework.transformer.domain.BaseTagNode;
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.Node;
+import org.primeframework.transformer.domain.Pair;
+import org.primeframework.transformer.domain.TagNode;
+import org.primeframework.transformer.domain.TextNode;
+
+/**
+ * Serializes parsed documents to a compact binary format so they can be stored and loaded again without parsing.
+ * <p>
+ * The format is:
+ * <pre>
+ *   'P' 'T' 'D' version
+ *   source length, source (2 bytes per char)
+ *   node count, count of the children of the document
+ *   nodes in document order
+ *   offsets, attribute offsets
+ * </pre>
+ * Every number other than the characters of the source is a variable length integer, and positions are stored as the
+ * difference from a nearby position (zig-zag encoded) so most take one byte. Each node starts with its number of
+ * children and a flag for tags, followed by its begin and end. Tags add the name end, the body, the simple attribute
+ * and the complex attributes. Strings are UTF-8 with their length.
+ * <p>
+ * {@link #read(ByteBuffer)} builds the document, and {@link #readFlat(ByteBuffer)} returns a {@link FlatDocument} that
+ * decodes the node table into a few int arrays, reads the source straight out of the buffer and decodes the attributes
+ * and offsets only when they are asked for. Building a document this way costs a fraction of parsing it again.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author Daniel DeGroff
+ */
+public class DocumentSerializer {
+  /**
+   * The version of the format written by this class.
+   */
+  public static final int VERSION = 1;
+
+  private static final byte[] MAGIC = {'P', 'T', 'D'};
+
+  /**
+   * Read a serialized document.
+   *
+   * @param buffer The buffer, it is read from its position which is moved past the document.
+   * @return The document.
+   * @throws IllegalArgumentException If the buffer doesn't contain a serialized document of a known version.
+   */
+  public Document read(ByteBuffer buffer) {
+    return readFlat(buffer).toDocument();
+  }
+
+  /**
+   * Read a flat view of a serialized document. The view keeps a reference to the buffer, it must not be changed while
+   * the view is in use.
+   *
+   * @param buffer The buffer, it is read from its position which is moved past the document.
+   * @return The view.
+   * @throws IllegalArgumentException If the buffer doesn't contain a serialized document of a known version.
+   */
+  public FlatDocument readFlat(ByteBuffer buffer) {
+    Objects.requireNonNull(buffer, "A buffer is required");
+    try {
+      FlatDocument document = new FlatDocument(buffer.slice());
+      buffer.position(buffer.position() + document.buffer.limit());
+      return document;
+    } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("The buffer doesn't contain a complete serialized document", e);
+    }
+  }
+
+  /**
+   * Serialize the document.
+   *
+   * @param document The document.
+   * @return The bytes.
+   */
+  public byte[] serialize(Document document) {
+    Objects.requireNonNull(document, "A document is required");
+    Output output = new Output(document.source.length * 2 + 64);
+    output.bytes(MAGIC);
+    output.bytes(new byte[]{VERSION});
+
+    output.varint(document.source.length);
+    output.chars(document.source);
+
+    int count = 0;
+    for (Node ignore : document.preOrder()) {
+      count++;
+    }
+    output.varint(count);
+    output.varint(document.children.size());
+
+    int previous = 0;
+    for (Node node : document.preOrder()) {
+      BaseNode baseNode = (BaseNode) node;
+      if (node instanceof TagNode) {
+        TagNode tagNode = (TagNode) node;
+        output.varint((tagNode.children.size() << 1) | 1);
+        output.zigzag(tagNode.begin - previous);
+        output.zigzag(tagNode.end - tagNode.begin);
+        output.zigzag(tagNode.nameEnd - tagNode.begin);
+        output.zigzag(tagNode.bodyBegin - tagNode.begin);
+        output.zigzag(tagNode.bodyEnd - tagNode.bodyBegin);
+        output.string(tagNode.attribute);
+        output.varint(tagNode.attributes.size());
+        for (Map.Entry<String, String> attribute : tagNode.attributes.entrySet()) {
+          output.string(attribute.getKey());
+          output.string(attribute.getValue());
+        }
+      } else if (node instanceof TextNode) {
+        output.varint(0);
+        output.zigzag(baseNode.begin - previous);
+        output.zigzag(baseNode.end - baseNode.begin);
+      } else {
+        throw new IllegalArgumentException("Unable to serialize a node of type [" + node.getClass().getName() + "]");
+      }
+      previous = baseNode.begin;
+    }
+
+    output.offsets(document.offsets);
+    output.offsets(document.attributeOffsets);
+    return output.toByteArray();
+  }
+
+  /**
+   * Serialize the document to the stream.
+   *
+   * @param document The document.
+   * @param stream   The stream, it is not closed.
+   * @throws TransformException If the stream fails.
+   */
+  public void write(Document document, OutputStream stream) {
+    try {
+      stream.write(serialize(document));
+    } catch (IOException e) {
+      throw new TransformException("Unable to write the document", e);
+    }
+  }
+
+  private static void checkPosition(int position, int length, int node) {
+    if (position < -1 || position > length) {
+      throw new IllegalArgumentException("The node [" + node + "] of the serialized document is outside of the source");
+    }
+  }
+
+  /**
+   * Read a count and check that the rest of the buffer could hold that many items, so a corrupt count fails here
+   * instead of allocating.
+   */
+  private static int readCount(ByteBuffer buffer, int minimumBytes, String name) {
+    int count = readVarint(buffer);
+    if (count < 0 || (long) count * minimumBytes > buffer.remaining()) {
+      throw new IllegalArgumentException("The buffer doesn't contain a complete serialized document, the " + name + " [" + count + "] is larger than the rest of the buffer");
+    }
+    return count;
+  }
+
+  /**
+   * Read offsets, checking that they are in order and inside of the source.
+   */
+  private static List<Pair<Integer, Integer>> readOffsets(ByteBuffer buffer, int length) {
+    int count = readCount(buffer, 2, "offset count");
+    List<Pair<Integer, Integer>> offsets = new ArrayList<>(count);
+    int previous = 0;
+    for (int i = 0; i < count; i++) {
+      int first = previous + readZigzag(buffer);
+      int second = readZigzag(buffer);
+      if (first < 0 || second < 0 || first > length - second) {
+        throw new IllegalArgumentException("The offsets of the serialized document are outside of the source");
+      }
+
+      Pair<Integer, Integer> offset = new Pair<>(first, second);
+      if (i > 0 && offset.compareTo(offsets.get(i - 1)) <= 0) {
+        throw new IllegalArgumentException("The offsets of the serialized document are not in order");
+      }
+      offsets.add(offset);
+      previous = first;
+    }
+    return offsets;
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    int length = readCount(buffer, 1, "string length") - 1;
+    if (length == -1) {
+      return null;
+    }
+
+    if (buffer.hasArray()) {
+      String string = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+      buffer.position(buffer.position() + length);
+      return string;
+    }
+
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static int readVarint(ByteBuffer buffer) {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      byte b = buffer.get();
+      value |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Invalid variable length integer at index [" + buffer.position() + "]");
+  }
+
+  private static int readZigzag(ByteBuffer buffer) {
+    int value = readVarint(buffer);
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * A read only view of a serialized document that doesn't build any nodes. The nodes are numbered in document order
+   * starting at zero, the children of a node follow it directly and the next sibling of a node is {@link #next(int)}:
+   * <pre>
+   *   for (int child = node + 1; child &lt; flat.next(node); child = flat.next(child)) {
+   *     ...
+   *   }
+   * </pre>
+   * A view is immutable and thread safe as long as the buffer isn't changed.
+   *
+   * @author Daniel DeGroff
+   */
+  public static final class FlatDocument {
+    private final int[] attributeIndexes;
+
+    private final int attributeOffsetsIndex;
+
+    private final int[] begins;
+
+    private final int[] bodyBegins;
+
+    private final int[] bodyEnds;
+
+    private final ByteBuffer buffer;
+
+    private final int childCount;
+
+    private final int[] ends;
+
+    private final int[] nameEnds;
+
+    private final int[] nexts;
+
+    private final int offsetsIndex;
+
+    private final int[] parents;
+
+    private final CharBuffer source;
+
+    private FlatDocument(ByteBuffer buffer) {
+      this.buffer = buffer;
+      for (byte b : MAGIC) {
+        if (buffer.get() != b) {
+          throw new IllegalArgumentException("The buffer doesn't contain a serialized document");
+        }
+      }
+
+      int version = buffer.get();
+      if (version != VERSION) {
+        throw new IllegalArgumentException("The serialized document version [" + version + "] is not supported, the supported version is [" + VERSION + "]");
+      }
+
+      int length = readCount(buffer, 2, "source length");
+      ByteBuffer chars = buffer.slice();
+      chars.limit(length * 2);
+      this.source = chars.asCharBuffer();
+      buffer.position(buffer.position() + length * 2);
+
+      // Every node takes at least three bytes, so a count can't allocate more than the buffer could hold
+      int count = readCount(buffer, 3, "node count");
+      this.childCount = readCount(buffer, 0, "child count");
+      if (childCount > count) {
+        throw new IllegalArgumentException("The serialized document has [" + childCount + "] children but only [" + count + "] nodes");
+      }
+      this.attributeIndexes = new int[count];
+      this.begins = new int[count];
+      this.bodyBegins = new int[count];
+      this.bodyEnds = new int[count];
+      this.ends = new int[count];
+      this.nameEnds = new int[count];
+      this.nexts = new int[count];
+      this.parents = new int[count];
+
+      // The number of children left to read for each open tag, the document is at the bottom of the stack
+      int[] remaining = new int[16];
+      int[] open = new int[16];
+      remaining[0] = childCount;
+      open[0] = -1;
+      int depth = 1;
+      int previous = 0;
+      for (int node = 0; node < count; node++) {
+        while (remaining[depth - 1] == 0) {
+          depth--;
+          nexts[open[depth]] = node;
+        }
+        remaining[depth - 1]--;
+        parents[node] = open[depth - 1];
+
+        int header = readVarint(buffer);
+        int begin = previous + readZigzag(buffer);
+        begins[node] = begin;
+        ends[node] = begin + readZigzag(buffer);
+        previous = begin;
+        if (begin < 0 || ends[node] < begin || ends[node] > length) {
+          throw new IllegalArgumentException("The node [" + node + "] of the serialized document is outside of the source");
+        }
+        if ((header & 1) == 0) {
+          attributeIndexes[node] = -1;
+          bodyBegins[node] = -1;
+          bodyEnds[node] = -1;
+          nameEnds[node] = -1;
+          nexts[node] = node + 1;
+          continue;
+        }
+
+        nameEnds[node] = begin + readZigzag(buffer);
+        bodyBegins[node] = begin + readZigzag(buffer);
+        bodyEnds[node] = bodyBegins[node] + readZigzag(buffer);
+        checkPosition(nameEnds[node], length, node);
+        checkPosition(bodyBegins[node], length, node);
+        checkPosition(bodyEnds[node], length, node);
+        attributeIndexes[node] = buffer.position();
+        skipString(buffer);
+        int attributes = readCount(buffer, 2, "attribute count");
+        for (int i = 0; i < attributes * 2; i++) {
+          skipString(buffer);
+        }
+
+        int children = header >>> 1;
+        if (children > count - node - 1) {
+          throw new IllegalArgumentException("The node [" + node + "] of the serialized document has more children than there are nodes left");
+        }
+        if (children == 0) {
+          nexts[node] = node + 1;
+          continue;
+        }
+
+        if (depth == open.length) {
+          open = Arrays.copyOf(open, depth * 2);
+          remaining = Arrays.copyOf(remaining, depth * 2);
+        }
+        open[depth] = node;
+        remaining[depth] = children;
+        depth++;
+      }
+
+      while (depth > 1) {
+        depth--;
+        if (remaining[depth] != 0) {
+          throw new IllegalArgumentException("The node table of the serialized document is incomplete");
+        }
+        nexts[open[depth]] = count;
+      }
+
+      // The offsets are checked here and decoded when they are asked for
+      this.offsetsIndex = buffer.position();
+      DocumentSerializer.readOffsets(buffer, length);
+      this.attributeOffsetsIndex = buffer.position();
+      DocumentSerializer.readOffsets(buffer, length);
+      buffer.limit(buffer.position());
+    }
+
+    /**
+     * @param node The node.
+     * @return The simple attribute of the tag, or null.
+     */
+    public String attribute(int node) {
+      int index = attributeIndexes[node];
+      if (index == -1) {
+        return null;
+      }
+
+      ByteBuffer view = buffer.duplicate();
+      view.position(index);
+      return readString(view);
+    }
+
+    /**
+     * @return The attribute offsets of the document, decoded on every call.
+     */
+    public SortedSet<Pair<Integer, Integer>> attributeOffsets() {
+      return new TreeSet<>(decodeOffsets(attributeOffsetsIndex));
+    }
+
+    /**
+     * Decode the complex attributes of the tag.
+     *
+     * @param node The node.
+     * @return The attributes, in the order of the document.
+     */
+    public Map<String, String> attributes(int node) {
+      int index = attributeIndexes[node];
+      if (index == -1) {
+        return Collections.emptyMap();
+      }
+
+      ByteBuffer view = buffer.duplicate();
+      view.position(index);
+      skipString(view);
+      int count = readVarint(view);
+      Map<String, String> attributes = new LinkedHashMap<>(count * 2);
+      for (int i = 0; i < count; i++) {
+        attributes.put(readString(view), readString(view));
+      }
+      return attributes;
+    }
+
+    public int begin(int node) {
+      return begins[node];
+    }
+
+    public int bodyBegin(int node) {
+      return bodyBegins[node];
+    }
+
+    public int bodyEnd(int node) {
+      return bodyEnds[node];
+    }
+
+    /**
+     * @return The number of children of the document, the first is node zero.
+     */
+    public int childCount() {
+      return childCount;
+    }
+
+    public int end(int node) {
+      return ends[node];
+    }
+
+    /**
+     * @param node The node.
+     * @return The name of the tag, or null for a text node or a tag without a name.
+     */
+    public String getName(int node) {
+      return isTag(node) && nameEnds[node] > begins[node] + 1 ? getString(begins[node] + 1, nameEnds[node]) : null;
+    }
+
+    /**
+     * @param begin The beginning of the range of the source (inclusive).
+     * @param end   The end of the range of the source (exclusive).
+     * @return The source.
+     */
+    public String getString(int begin, int end) {
+      return source.subSequence(begin, end).toString();
+    }
+
+    public boolean isTag(int node) {
+      return attributeIndexes[node] != -1;
+    }
+
+    public int nameEnd(int node) {
+      return nameEnds[node];
+    }
+
+    /**
+     * @param node The node.
+     * @return The index of the node that follows the node and all of its descendants, which is the next sibling if
+     *     there is one.
+     */
+    public int next(int node) {
+      return nexts[node];
+    }
+
+    /**
+     * @return The offsets of the document, decoded on every call.
+     */
+    public SortedSet<Pair<Integer, Integer>> offsets() {
+      return new TreeSet<>(decodeOffsets(offsetsIndex));
+    }
+
+    /**
+     * @param node The node.
+     * @return The parent tag of the node, or -1 if it is a child of the document.
+     */
+    public int parent(int node) {
+      return parents[node];
+    }
+
+    /**
+     * @return The number of nodes.
+     */
+    public int size() {
+      return begins.length;
+    }
+
+    /**
+     * @return The source of the document, read directly from the buffer.
+     */
+    public CharSequence source() {
+      return source.duplicate();
+    }
+
+    /**
+     * Build the document. Nothing is parsed, the nodes are created directly from the node table.
+     *
+     * @return The document.
+     */
+    public Document toDocument() {
+      char[] chars = new char[source.remaining()];
+      source.duplicate().get(chars);
+      Document document = new Document(chars);
+      document.offsets.addAll(decodeOffsets(offsetsIndex));
+      document.attributeOffsets.addAll(decodeOffsets(attributeOffsetsIndex));
+
+      TagNode[] tags = new TagNode[begins.length];
+      for (int node = 0; node < begins.length; node++) {
+        TagNode parent = parents[node] == -1 ? null : tags[parents[node]];
+        BaseTagNode owner = parent != null ? parent : document;
+        if (isTag(node)) {
+          tags[node] = new TagNode(document, parent, begins[node], nameEnds[node], bodyBegins[node], bodyEnds[node], ends[node], attribute(node), attributes(node));
+          owner.addChild(tags[node]);
+        } else {
+          owner.addChild(new TextNode(document, parent, begins[node], ends[node]));
+        }
+      }
+      return document;
+    }
+
+    /**
+     * Decode the offsets that were checked by the constructor, they are in order.
+     */
+    private List<Pair<Integer, Integer>> decodeOffsets(int index) {
+      ByteBuffer view = buffer.duplicate();
+      view.position(index);
+      return DocumentSerializer.readOffsets(view, source.remaining());
+    }
+
+    private void skipString(ByteBuffer buffer) {
+      int length = readCount(buffer, 1, "string length") - 1;
+      if (length > 0) {
+        buffer.position(buffer.position() + length);
+      }
+    }
+  }
+
+  /**
+   * A growable byte array.
+   */
+  private static class Output {
+    private byte[] bytes;
+
+    private int size;
+
+    Output(int capacity) {
+      this.bytes = new byte[capacity];
+    }
+
+    void bytes(byte[] values) {
+      ensure(values.length);
+      System.arraycopy(values, 0, bytes, size, values.length);
+      size += values.length;
+    }
+
+    void chars(char[] chars) {
+      ensure(chars.length * 2);
+      for (char c : chars) {
+        bytes[size++] = (byte) (c >>> 8);
+        bytes[size++] = (byte) c;
+      }
+    }
+
+    void offsets(SortedSet<Pair<Integer, Integer>> offsets) {
+      varint(offsets.size());
+      int previous = 0;
+      for (Pair<Integer, Integer> offset : offsets) {
+        zigzag(offset.first - previous);
+        zigzag(offset.second);
+        previous = offset.first;
+      }
+    }
+
+    void string(String string) {
+      if (string == null) {
+        varint(0);
+        return;
+      }
+
+      byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+      varint(utf8.length + 1);
+      bytes(utf8);
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(bytes, size);
+    }
+
+    void varint(int value) {
+      ensure(5);
+      while ((value & ~0x7F) != 0) {
+        bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      bytes[size++] = (byte) value;
+    }
+
+    void zigzag(int value) {
+      varint((value << 1) ^ (value >> 31));
+    }
+
+    private void ensure(int length) {
+      if (size + length > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+      }
+    }
+  }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.service.DocumentSerializer.FlatDocument;
+
+/**
+ * A size bounded store of parsed documents that keeps them serialized (see {@link DocumentSerializer}) in a single
+ * buffer, usually a direct or memory mapped buffer outside of the heap. Only a small entry per document is kept on the
+ * heap, so a large number of documents can be cached without growing the old generation.
+ * <p>
+ * The buffer is used as a ring. Documents are written one after another, and when there isn't room left the oldest
+ * documents are evicted first. Replacing or removing a document frees its space when the ring comes around to it.
+ * <p>
+ * Documents are read in two ways:
+ * <ul>
+ * <li>{@link #get(Object)} builds the document directly from the stored bytes, without parsing. The transformers work
+ * on a {@link Document}, so this is the way to transform a stored document.</li>
+ * <li>{@link #read(Object, Function)} hands a {@link FlatDocument} to a function, no nodes are built and nothing is
+ * copied. The view reads the stored bytes in place while the function holds the read lock, so it suits lookups like
+ * finding a tag or an attribute without building the tree.</li>
+ * </ul>
+ * This class is thread safe. Reads run concurrently, writes are exclusive.
+ *
+ * @param <K> The type of the keys.
+ * @author Daniel DeGroff
+ */
+public class DocumentStore<K> {
+  private final ByteBuffer buffer;
+
+  private final Deque<Entry<K>> entries = new ArrayDeque<>();
+
+  private final Map<K, Entry<K>> index = new HashMap<>();
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final DocumentSerializer serializer = new DocumentSerializer();
+
+  private long bytes;
+
+  private int head;
+
+  /**
+   * Create a store with a direct buffer of the given capacity.
+   *
+   * @param capacity The capacity in bytes.
+   */
+  public DocumentStore(int capacity) {
+    this(ByteBuffer.allocateDirect(capacity));
+  }
+
+  /**
+   * Create a store over the buffer, from its position to its limit. This may be a slice of a memory mapped file. The
+   * buffer must not be used by anything else.
+   *
+   * @param buffer The buffer.
+   */
+  public DocumentStore(ByteBuffer buffer) {
+    Objects.requireNonNull(buffer, "A buffer is required");
+    this.buffer = buffer.slice();
+  }
+
+  /**
+   * @return The number of bytes used by the documents in the store.
+   */
+  public long bytes() {
+    lock.readLock().lock();
+    try {
+      return bytes;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return The capacity of the store in bytes.
+   */
+  public int capacity() {
+    return buffer.capacity();
+  }
+
+  /**
+   * Remove all of the documents.
+   */
+  public void clear() {
+    lockForWrite();
+    try {
+      entries.clear();
+      index.clear();
+      bytes = 0;
+      head = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Build a document from the store.
+   *
+   * @param key The key.
+   * @return The document, or null if it isn't in the store.
+   */
+  public Document get(K key) {
+    lock.readLock().lock();
+    try {
+      Entry<K> entry = index.get(key);
+      return entry != null ? serializer.read(view(entry)) : null;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Store a document, replacing the document stored with the same key.
+   *
+   * @param key      The key.
+   * @param document The document.
+   * @return True if the document was stored, false if it is larger than the capacity of the store.
+   */
+  public boolean put(K key, Document document) {
+    Objects.requireNonNull(key, "A key is required");
+    byte[] serialized = serializer.serialize(document);
+    int length = serialized.length;
+
+    lockForWrite();
+    try {
+      remove(index.get(key));
+      if (length > buffer.capacity()) {
+        return false;
+      }
+
+      // Wrap around, everything past the head is older than anything before it
+      int offset = head;
+      if (offset + length > buffer.capacity()) {
+        while (!entries.isEmpty() && entries.peekFirst().offset >= head) {
+          evict();
+        }
+        offset = 0;
+      }
+
+      while (!entries.isEmpty() && entries.peekFirst().offset >= offset && entries.peekFirst().offset < offset + length) {
+        evict();
+      }
+
+      ByteBuffer target = buffer.duplicate();
+      target.position(offset);
+      target.put(serialized);
+
+      Entry<K> entry = new Entry<>(key, offset, length);
+      entries.addLast(entry);
+      index.put(key, entry);
+      bytes += length;
+      head = offset + length;
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Pass a flat view of a stored document to the function. The view reads the bytes in the store, nothing is copied and
+   * no nodes are built. The function runs while holding the read lock, so other reads run at the same time but writes
+   * wait for it:
+   * <ul>
+   * <li>The view is only valid during the call, the function must not keep it.</li>
+   * <li>The function must not put, remove or clear documents, doing so throws an <code>IllegalStateException</code>
+   * rather than waiting for a lock it holds itself.</li>
+   * </ul>
+   *
+   * @param key      The key.
+   * @param function The function.
+   * @param <R>      The type of the result.
+   * @return The result of the function, or null if the document isn't in the store.
+   */
+  public <R> R read(K key, Function<FlatDocument, R> function) {
+    Objects.requireNonNull(function, "A function is required");
+    lock.readLock().lock();
+    try {
+      Entry<K> entry = index.get(key);
+      return entry != null ? function.apply(serializer.readFlat(view(entry))) : null;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Remove a document.
+   *
+   * @param key The key.
+   * @return True if the document was in the store.
+   */
+  public boolean remove(K key) {
+    lockForWrite();
+    try {
+      return remove(index.get(key));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return The number of documents in the store.
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return index.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void evict() {
+    Entry<K> entry = entries.removeFirst();
+    if (index.get(entry.key) == entry) {
+      index.remove(entry.key);
+      bytes -= entry.length;
+    }
+  }
+
+  /**
+   * Take the write lock. A read lock can't be upgraded, so a thread that is inside of {@link #read(Object, Function)}
+   * would wait for itself forever.
+   */
+  private void lockForWrite() {
+    if (lock.getReadHoldCount() > 0) {
+      throw new IllegalStateException("The store can't be changed by the function passed to read");
+    }
+    lock.writeLock().lock();
+  }
+
+  /**
+   * Remove an entry from the index, its space is reclaimed when it is evicted.
+   */
+  private boolean remove(Entry<K> entry) {
+    if (entry == null) {
+      return false;
+    }
+
+    index.remove(entry.key);
+    bytes -= entry.length;
+    return true;
+  }
+
+  private ByteBuffer view(Entry<K> entry) {
+    ByteBuffer view = buffer.duplicate();
+    view.position(entry.offset);
+    view.limit(entry.offset + entry.length);
+    return view;
+  }
+
+  private static class Entry<K> {
+    final K key;
+
+    final int length;
+
+    final int offset;
+
+    Entry(K key, int offset, int length) {
+      this.key = key;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+}
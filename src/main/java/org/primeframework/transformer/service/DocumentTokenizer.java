@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.Node;
+import org.primeframework.transformer.domain.TagNames;
+import org.primeframework.transformer.domain.TagNode;
+import org.primeframework.transformer.domain.TextNode;
+
+/**
+ * A cursor over the words in the text of a document, i.e. for a search indexer. Each word is reported as its range in
+ * the document source along with the path of the tags that enclose it, so the words can be highlighted in the source
+ * without scanning the text again.
+ * <p>
+ * A word is a run of letters and digits. The tokenizer reads the document source directly and does not build any
+ * strings, the caller reads the characters of the word from <code>document.source</code>.
+ * <p>
+ * In HTML documents the character references in the text are decoded, so <code>&amp;amp;</code> or
+ * <code>&amp;#169;</code> separate words instead of being words. A reference to a letter or digit (i.e.
+ * <code>caf&amp;#233;</code>) is part of the word, and the range of the word includes the reference.
+ * <p>
+ * Example:
+ * <pre>
+ *   DocumentTokenizer tokens = new DocumentTokenizer(document);
+ *   while (tokens.next()) {
+ *     index(document.source, tokens.begin(), tokens.end(), tokens.isInside("code"));
+ *   }
+ * </pre>
+ * <p>
+ * A tokenizer is not thread safe.
+ *
+ * @author Daniel DeGroff
+ */
+public class DocumentTokenizer {
+  private final Predicate<TagNode> descendPredicate;
+
+  private final Document document;
+
+  private final boolean html;
+
+  private final CharSequence text;
+
+  private int begin = -1;
+
+  /**
+   * The index of the next child at each level.
+   */
+  private int[] childIndexes = new int[16];
+
+  private int depth;
+
+  private int end = -1;
+
+  /**
+   * The end of the character that was last read by {@link #codePointAt(int, int)}.
+   */
+  private int next;
+
+  /**
+   * The open tags, from the outermost to the innermost.
+   */
+  private TagNode[] tags = new TagNode[16];
+
+  private TextNode textNode;
+
+  public DocumentTokenizer(Document document) {
+    this(document, (tag) -> true);
+  }
+
+  /**
+   * @param document         The document.
+   * @param descendPredicate Evaluated for each tag, when it evaluates to false the text inside the tag is skipped.
+   */
+  public DocumentTokenizer(Document document, Predicate<TagNode> descendPredicate) {
+    this(document, descendPredicate, false);
+  }
+
+  /**
+   * @param document         The document.
+   * @param descendPredicate Evaluated for each tag, when it evaluates to false the text inside the tag is skipped.
+   * @param html             True if the document was parsed from HTML, the character references in the text are then
+   *                         decoded.
+   */
+  public DocumentTokenizer(Document document, Predicate<TagNode> descendPredicate, boolean html) {
+    Objects.requireNonNull(document, "A document is required");
+    Objects.requireNonNull(descendPredicate, "A descend predicate is required");
+    this.document = document;
+    this.descendPredicate = descendPredicate;
+    this.html = html;
+    this.text = html ? CharBuffer.wrap(document.source) : null;
+  }
+
+  /**
+   * @return The index in the document source where the current word begins (inclusive).
+   */
+  public int begin() {
+    return begin;
+  }
+
+  /**
+   * @return The number of tags that enclose the current word.
+   */
+  public int depth() {
+    return depth;
+  }
+
+  /**
+   * @return The index in the document source where the current word ends (exclusive).
+   */
+  public int end() {
+    return end;
+  }
+
+  /**
+   * Determine if the current word is inside a tag with the given name.
+   *
+   * @param name The tag name.
+   * @return True if any of the enclosing tags has the name.
+   */
+  public boolean isInside(String name) {
+    int nameId = TagNames.lookup(name);
+    if (nameId != TagNames.UNKNOWN) {
+      return isInside(nameId);
+    }
+
+    // The name isn't registered, compare the names in the source rather than growing the registry
+    for (int i = depth - 1; i >= 0; i--) {
+      if (nameEquals(tags[i], name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Determine if the current word is inside a tag with the given name id.
+   *
+   * @param nameId The id of the tag name in the {@link TagNames} registry.
+   * @return True if any of the enclosing tags has the name.
+   */
+  public boolean isInside(int nameId) {
+    if (nameId == TagNames.UNKNOWN) {
+      return false;
+    }
+
+    for (int i = depth - 1; i >= 0; i--) {
+      if (tags[i].getNameId() == nameId) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Move to the next word.
+   *
+   * @return True if there is a word, false once the end of the document has been reached.
+   */
+  public boolean next() {
+    while (true) {
+      if (textNode != null) {
+        int i = end;
+        while (i < textNode.end && !Character.isLetterOrDigit(codePointAt(i, textNode.end))) {
+          i = next;
+        }
+
+        if (i < textNode.end) {
+          begin = i;
+          while (i < textNode.end && Character.isLetterOrDigit(codePointAt(i, textNode.end))) {
+            i = next;
+          }
+          end = i;
+          return true;
+        }
+        textNode = null;
+      }
+
+      if (!advance()) {
+        begin = -1;
+        end = -1;
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Return one of the tags that enclose the current word.
+   *
+   * @param level The level of the tag, 0 is the outermost tag and <code>depth() - 1</code> the innermost.
+   * @return The tag.
+   */
+  public TagNode tag(int level) {
+    if (level < 0 || level >= depth) {
+      throw new IndexOutOfBoundsException("Invalid level [" + level + "] for a depth of [" + depth + "]");
+    }
+    return tags[level];
+  }
+
+  /**
+   * @return The text node that contains the current word.
+   */
+  public TextNode textNode() {
+    return textNode;
+  }
+
+  /**
+   * Move to the next text node in document order.
+   *
+   * @return False once there are no more text nodes.
+   */
+  private boolean advance() {
+    while (true) {
+      List<Node> children = depth == 0 ? document.children : tags[depth - 1].children;
+      if (childIndexes[depth] == children.size()) {
+        if (depth == 0) {
+          return false;
+        }
+
+        depth--;
+        continue;
+      }
+
+      Node node = children.get(childIndexes[depth]++);
+      if (node instanceof TextNode) {
+        textNode = (TextNode) node;
+        end = textNode.begin;
+        return true;
+      }
+
+      TagNode tagNode = (TagNode) node;
+      if (tagNode.children.isEmpty() || !descendPredicate.test(tagNode)) {
+        continue;
+      }
+
+      if (depth + 1 == childIndexes.length) {
+        childIndexes = Arrays.copyOf(childIndexes, childIndexes.length * 2);
+        tags = Arrays.copyOf(tags, tags.length * 2);
+      }
+      tags[depth++] = tagNode;
+      childIndexes[depth] = 0;
+    }
+  }
+
+  /**
+   * Read the character at the index, decoding a character reference in an HTML document. The index after the character
+   * is left in {@link #next}.
+   */
+  private int codePointAt(int index, int limit) {
+    char[] source = document.source;
+    if (html && source[index] == '&') {
+      int referenceEnd = CharacterReferences.end(text, index, limit);
+      if (referenceEnd != -1) {
+        int codePoint = CharacterReferences.decode(text, index, referenceEnd);
+        next = referenceEnd;
+        return codePoint;
+      }
+    }
+
+    int codePoint = Character.codePointAt(source, index, limit);
+    next = index + Character.charCount(codePoint);
+    return codePoint;
+  }
+
+  private boolean nameEquals(TagNode tagNode, String name) {
+    int begin = tagNode.begin + 1;
+    if (tagNode.nameEnd - begin != name.length()) {
+      return false;
+    }
+
+    for (int i = 0; i < name.length(); i++) {
+      if (Character.toLowerCase(document.source[begin + i]) != Character.toLowerCase(name.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
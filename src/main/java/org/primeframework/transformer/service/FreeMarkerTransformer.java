@@ -15,29 +15,70 @@
  */
 package org.primeframework.transformer.service;
 
-import java.io.StringWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.Predicate;
 
 import freemarker.template.Template;
 import org.primeframework.transformer.domain.Document;
 import org.primeframework.transformer.domain.Node;
+import org.primeframework.transformer.domain.SourceMap;
+import org.primeframework.transformer.domain.TagNames;
 import org.primeframework.transformer.domain.TagNode;
 import org.primeframework.transformer.domain.TextNode;
 
 /**
  * FreeMarker transformer implementation.
+ * <p>
+ * When constructed with a {@link ForkJoinPool}, documents larger than the parallel threshold are rendered in parallel.
+ * The children of the document, and of any tag larger than the threshold, are split into chunks of roughly the
+ * threshold size that are rendered as separate fork-join tasks and then concatenated in document order. In this mode
+ * the {@link NodeConsumer} and {@link TransformFunction} are called concurrently from the pool threads and must be
+ * thread safe, and the nodes are not necessarily visited in document order.
+ * <p>
+ * The document is walked using an explicit stack, so deeply nested documents do not require a large thread stack.
+ * <p>
+ * Previews are always rendered on the calling thread. When the budget runs out inside a tag, the tag and its ancestors
+ * are completed using their templates with the body rendered so far. Note that a tag whose template uses the body as
+ * an attribute, such as an image, may be rendered with a truncated body.
  *
  * @author Daniel DeGroff
  */
-public class FreeMarkerTransformer implements Transformer {
-  private final Map<String, Template> templates = new HashMap<>();
+public class FreeMarkerTransformer implements PreviewTransformer, SourceMapTransformer {
+  /**
+   * The number of characters buffered before they are written when writing to an output stream.
+   */
+  private static final int FLUSH_SIZE = 8 * 1024;
+
+  /**
+   * The maximum number of nested levels at which rendering is forked. Tags nested deeper than this are rendered by the
+   * task that reached them.
+   */
+  private static final int MAX_FORK_DEPTH = 16;
+
+  private final int parallelThreshold;
+
+  private final ForkJoinPool pool;
 
   private final boolean strict;
 
+  /**
+   * The templates indexed by the id of the tag name in the {@link TagNames} registry.
+   */
+  private final Template[] templatesById;
+
   /**
    * Constructor takes the FreeMarker templates.
    *
@@ -55,8 +96,38 @@ public class FreeMarkerTransformer implements Transformer {
    *                  for a specific tag.
    */
   public FreeMarkerTransformer(Map<String, Template> templates, boolean strict) {
-    this.templates.putAll(templates);
+    this(templates, strict, null, 0);
+  }
+
+  /**
+   * Constructor takes the FreeMarker templates, strict mode and the pool used to render large documents in parallel.
+   *
+   * @param templates         The FreeMarker templates used to do the transformation.
+   * @param strict            Determines if the transformer is strict and throws exceptions if a FreeMarker template
+   *                          isn't found for a specific tag.
+   * @param pool              The pool used to render in parallel, or null to always render on the calling thread.
+   * @param parallelThreshold The size of the document source, in characters, at which rendering is split into
+   *                          parallel tasks.
+   */
+  public FreeMarkerTransformer(Map<String, Template> templates, boolean strict, ForkJoinPool pool,
+                               int parallelThreshold) {
+    if (pool != null && parallelThreshold <= 0) {
+      throw new IllegalArgumentException("The parallel threshold must be greater than zero");
+    }
+
     this.strict = strict;
+
+    int length = 0;
+    for (String name : templates.keySet()) {
+      length = Math.max(length, TagNames.intern(name) + 1);
+    }
+
+    this.templatesById = new Template[length];
+    for (Map.Entry<String, Template> entry : templates.entrySet()) {
+      templatesById[TagNames.intern(entry.getKey())] = entry.getValue();
+    }
+    this.pool = pool;
+    this.parallelThreshold = parallelThreshold;
   }
 
   @Override
@@ -64,73 +135,369 @@ public class FreeMarkerTransformer implements Transformer {
                           NodeConsumer nodeConsumer)
       throws TransformException {
     Objects.requireNonNull(transformPredicate, "A transform predicate is required");
-    return recurse(document, transformPredicate, transformFunction, nodeConsumer);
+    if (pool != null && document.length() >= parallelThreshold) {
+      return pool.invoke(new RenderTask(document.children, true, transformPredicate, transformFunction, nodeConsumer, 0));
+    }
+
+    StringBuilder build = new StringBuilder();
+    render(document.children, build, transformPredicate, transformFunction, nodeConsumer, null, null, -1, null);
+    return build.toString();
+  }
+
+  @Override
+  public void transform(Document document, Predicate<TagNode> transformPredicate, TransformFunction transformFunction,
+                        NodeConsumer nodeConsumer, OutputStream out)
+      throws TransformException {
+    Objects.requireNonNull(transformPredicate, "A transform predicate is required");
+    Objects.requireNonNull(out, "An output stream is required");
+    if (pool != null && document.length() >= parallelThreshold) {
+      PreviewTransformer.super.transform(document, transformPredicate, transformFunction, nodeConsumer, out);
+      return;
+    }
+
+    Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    StringBuilder build = new StringBuilder(FLUSH_SIZE * 2);
+    render(document.children, build, transformPredicate, transformFunction, nodeConsumer, null, null, -1, writer);
+    flush(build, writer);
+    try {
+      writer.flush();
+    } catch (IOException e) {
+      throw new TransformException("Failed to write the transformed document", e);
+    }
+  }
+
+  @Override
+  public String transformPreview(Document document, Predicate<TagNode> transformPredicate,
+                                 TransformFunction transformFunction, int budget, String ellipsis)
+      throws TransformException {
+    Objects.requireNonNull(transformPredicate, "A transform predicate is required");
+    StringBuilder build = new StringBuilder(Math.min(document.length(), budget) + 64);
+    render(document.children, build, transformPredicate, transformFunction, null, new PreviewBudget(budget, ellipsis),
+        null, -1, null);
+    return build.toString();
   }
 
-  private String executeTemplate(Template template, TagNode tagNode, String body) throws TransformException {
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The document is always rendered on the calling thread. The body of a transformed tag is located in the output of
+   * its template by the template writing the body as is (i.e. <code>${body}</code>), the last place it is written is
+   * used. When a template changes the body or doesn't write it, the entire output of the template maps to the entire
+   * tag.
+   */
+  @Override
+  public String transformWithSourceMap(Document document, Predicate<TagNode> transformPredicate,
+                                       TransformFunction transformFunction, NodeConsumer nodeConsumer,
+                                       SourceMap sourceMap)
+      throws TransformException {
+    Objects.requireNonNull(transformPredicate, "A transform predicate is required");
+    Objects.requireNonNull(sourceMap, "A source map is required");
+    StringBuilder build = new StringBuilder();
+    render(document.children, build, transformPredicate, transformFunction, nodeConsumer, null, sourceMap, -1, null);
+    return build.toString();
+  }
+
+  /**
+   * Executes the template of the tag directly into the builder.
+   *
+   * @param sourceMap    The source map, may be null.
+   * @param segmentStart The number of segments in the source map before the body of the tag was rendered. The segments
+   *                     of the body are relative to the beginning of the body.
+   */
+  private void completeTag(TagNode tagNode, Template template, String body, NodeConsumer nodeConsumer,
+                           StringBuilder build, SourceMap sourceMap, int segmentStart) {
+    int begin = build.length();
+    BuilderWriter writer = new BuilderWriter(build, sourceMap != null && !body.isEmpty() ? body : null);
+    executeTemplate(template, tagNode, body, writer);
+    if (sourceMap != null) {
+      if (writer.bodyIndex == -1) {
+        sourceMap.truncate(segmentStart);
+        sourceMap.add(begin, build.length(), tagNode.begin, tagNode.end);
+      } else {
+        sourceMap.relocate(segmentStart, writer.bodyIndex);
+        sourceMap.add(begin, writer.bodyIndex, tagNode.begin, tagNode.bodyBegin);
+        sourceMap.add(writer.bodyIndex + body.length(), build.length(), tagNode.bodyEnd, tagNode.end);
+      }
+    }
+
+    if (nodeConsumer != null) {
+      nodeConsumer.accept(tagNode, build, begin, build.length(), body);
+    }
+  }
+
+  private void executeTemplate(Template template, TagNode tagNode, String body, Writer out)
+      throws TransformException {
     Map<String, Object> data = new HashMap<>();
     data.put("body", body);
     data.put("attributes", tagNode.attributes);
     data.put("attribute", tagNode.attribute);
 
     try {
-      Writer out = new StringWriter();
       template.process(data, out);
-      return out.toString();
     } catch (Exception e) {
       throw new TransformException("FreeMarker processing failed for template [" + template.getName() + "]\n\t Data model [" + data + "]", e);
     }
   }
 
-  private String recurse(Node node, Predicate<TagNode> transformPredicate, TransformFunction transformFunction,
-                         NodeConsumer nodeConsumer)
+  private void flush(StringBuilder build, Writer out) throws TransformException {
+    if (build.length() == 0) {
+      return;
+    }
+
+    try {
+      out.append(build);
+    } catch (IOException e) {
+      throw new TransformException("Failed to write the transformed document", e);
+    }
+    build.setLength(0);
+  }
+
+  /**
+   * Renders the nodes into the builder. The tree is walked using an explicit stack rather than recursion so that the
+   * depth of the document is not limited by the size of the thread stack. The body of each open tag is rendered
+   * directly into the builder and is removed from it when the tag is completed and its template is executed.
+   *
+   * @param preview   The budget when rendering a preview, otherwise null. Once the preview is truncated the remaining
+   *                  nodes are skipped and the open tags are completed.
+   * @param sourceMap The source map to add the segments to, may be null. Rendering is never forked when there is a
+   *                  source map.
+   * @param forkDepth The number of times the rendering has been forked, or -1 when rendering sequentially.
+   * @param out       When not null, the output of the top level nodes is written to this writer as it is produced and
+   *                  only the remainder is left in the builder.
+   */
+  private void render(List<Node> nodes, StringBuilder build, Predicate<TagNode> transformPredicate,
+                      TransformFunction transformFunction, NodeConsumer nodeConsumer, PreviewBudget preview,
+                      SourceMap sourceMap, int forkDepth, Writer out)
       throws TransformException {
-    StringBuilder build = new StringBuilder();
-    if (node instanceof TextNode) {
-      TextNode textNode = (TextNode) node;
-      String text = textNode.getBody();
-      if (transformFunction != null) {
-        text = transformFunction.transform(textNode, text);
+    // Compiled predicates use the id of the tag name that is already looked up for the template, and the depth of the
+    // stack. A forked render starts below the top level, the depth of its nodes is found once for the first tag.
+    CompiledTagPredicate compiled = transformPredicate instanceof CompiledTagPredicate ? (CompiledTagPredicate) transformPredicate : null;
+    int baseDepth = -1;
+    Deque<Frame> stack = new ArrayDeque<>();
+    stack.push(new Frame(null, null, nodes, build.length(), 0));
+    while (!stack.isEmpty()) {
+      Frame frame = stack.peek();
+      if (out != null && stack.size() == 1 && build.length() >= FLUSH_SIZE) {
+        flush(build, out);
       }
 
-      if (nodeConsumer != null) {
-        nodeConsumer.accept(node, text, text);
+      if (frame.index == frame.children.size() || (preview != null && preview.truncated)) {
+        stack.pop();
+        if (frame.tagNode != null) {
+          String body = build.substring(frame.bodyStart);
+          build.setLength(frame.bodyStart);
+          if (sourceMap != null) {
+            sourceMap.relocate(frame.segmentStart, -frame.bodyStart);
+          }
+          if (out != null && stack.size() == 1 && nodeConsumer == null) {
+            // A top level tag, the template writes directly to the output
+            flush(build, out);
+            executeTemplate(frame.template, frame.tagNode, body, out);
+          } else {
+            completeTag(frame.tagNode, frame.template, body, nodeConsumer, build, sourceMap, frame.segmentStart);
+          }
+        }
+        continue;
       }
 
-      build.append(text);
-    } else if (node instanceof Document) {
-      Document document = (Document) node;
-      for (Node child : document.children) {
-        build.append(recurse(child, transformPredicate, transformFunction, nodeConsumer));
-      }
-    } else if (node instanceof TagNode) {
-      TagNode tagNode = (TagNode) node;
-      String tagName = tagNode.getName().toLowerCase();
-      Template template = templates.get(tagName);
-      if (template != null && transformPredicate.test(tagNode)) {
-        // Transform the children first
-        StringBuilder childBuild = new StringBuilder();
-        for (Node child : tagNode.children) {
-          childBuild.append(recurse(child, transformPredicate, transformFunction, nodeConsumer));
+      Node node = frame.children.get(frame.index++);
+      if (node instanceof TextNode) {
+        TextNode textNode = (TextNode) node;
+        String text = textNode.getBody();
+        if (preview != null) {
+          text = preview.take(text);
+        }
+
+        if (transformFunction != null) {
+          text = transformFunction.transform(textNode, text);
         }
 
-        String body = childBuild.toString();
-        String result = executeTemplate(template, tagNode, body);
+        int begin = build.length();
+        build.append(text);
+        if (sourceMap != null) {
+          sourceMap.addText(begin, text, textNode.begin, textNode.end, textNode.document.source);
+        }
 
         if (nodeConsumer != null) {
-          nodeConsumer.accept(tagNode, result, body);
+          nodeConsumer.accept(node, build, begin, build.length(), text);
         }
 
-        build.append(result);
-      } else if (strict && template == null) {
-        throw new TransformException("No template found for tag [" + tagNode.getName() + "]");
+        if (preview != null && preview.truncated) {
+          build.append(preview.ellipsis);
+        }
+      } else if (node instanceof TagNode) {
+        TagNode tagNode = (TagNode) node;
+        int nameId = tagNode.getNameId();
+        Template template = nameId >= 0 && nameId < templatesById.length ? templatesById[nameId] : null;
+        if (compiled != null && baseDepth < 0) {
+          baseDepth = CompiledTagPredicate.depth(tagNode, Integer.MAX_VALUE) - stack.size();
+        }
+        boolean transform = template != null && (compiled != null ?
+            compiled.test(tagNode, nameId, baseDepth + stack.size()) : transformPredicate.test(tagNode));
+        if (transform) {
+          // Don't open a tag when there isn't any budget left for its body
+          if (preview != null && preview.remaining == 0) {
+            preview.exhaust(build);
+            continue;
+          }
+
+          // Transform the children first
+          if (forkDepth >= 0 && forkDepth < MAX_FORK_DEPTH && tagNode.length() >= parallelThreshold &&
+              tagNode.children.size() > 1) {
+            String body = renderForked(tagNode.children, transformPredicate, transformFunction, nodeConsumer, forkDepth + 1);
+            completeTag(tagNode, template, body, nodeConsumer, build, null, 0);
+          } else {
+            stack.push(new Frame(tagNode, template, tagNode.children, build.length(),
+                sourceMap != null ? sourceMap.size() : 0));
+          }
+        } else if (strict && template == null) {
+          throw new TransformException("No template found for tag [" + tagNode.getName() + "]");
+        } else if (preview != null) {
+          build.append(preview.takeWhole(tagNode.getRawString()));
+          if (preview.truncated) {
+            build.append(preview.ellipsis);
+          }
+        } else {
+          int begin = build.length();
+          build.append(tagNode.getRawString());
+          if (sourceMap != null) {
+            sourceMap.add(begin, build.length(), tagNode.begin, tagNode.end);
+          }
+        }
       } else {
-        build.append(tagNode.getRawString());
+        throw new TransformException("Invalid node class [" + node.getClass() + "]");
       }
-    } else {
-      throw new TransformException("Invalid node class [" + node.getClass() + "]");
     }
+  }
+
+  /**
+   * Forks the rendering of the sibling nodes into tasks of roughly the parallel threshold size.
+   */
+  private String renderForked(List<Node> nodes, Predicate<TagNode> transformPredicate, TransformFunction transformFunction,
+                      NodeConsumer nodeConsumer, int forkDepth) {
+    List<RenderTask> tasks = ParallelSupport.partition(nodes, parallelThreshold,
+        (chunk) -> new RenderTask(chunk, false, transformPredicate, transformFunction, nodeConsumer, forkDepth));
+    ForkJoinTask.invokeAll(tasks);
 
+    StringBuilder build = new StringBuilder();
+    for (RenderTask task : tasks) {
+      build.append(task.join());
+    }
     return build.toString();
   }
+
+  /**
+   * A writer that appends to a builder, so template output is not copied through an intermediate buffer. It can also
+   * track where a body is written.
+   */
+  private static class BuilderWriter extends Writer {
+    private final String body;
+
+    private final StringBuilder build;
+
+    int bodyIndex = -1;
+
+    /**
+     * @param body The body to track the index of, may be null. The body is only found when it is written as is.
+     */
+    BuilderWriter(StringBuilder build, String body) {
+      this.build = build;
+      this.body = body;
+    }
+
+    @Override
+    public Writer append(CharSequence csq) {
+      build.append(csq);
+      return this;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+      build.append(buffer, offset, length);
+    }
+
+    @Override
+    public void write(String string, int offset, int length) {
+      if (string == body && offset == 0 && length == body.length()) {
+        bodyIndex = build.length();
+      }
+      build.append(string, offset, offset + length);
+    }
+  }
+
+  /**
+   * A tag whose children are being rendered.
+   */
+  private static class Frame {
+    final int bodyStart;
+
+    final List<Node> children;
+
+    final int segmentStart;
+
+    final TagNode tagNode;
+
+    final Template template;
+
+    int index;
+
+    Frame(TagNode tagNode, Template template, List<Node> children, int bodyStart, int segmentStart) {
+      this.tagNode = tagNode;
+      this.template = template;
+      this.children = children;
+      this.bodyStart = bodyStart;
+      this.segmentStart = segmentStart;
+    }
+  }
+
+  /**
+   * Renders a chunk of sibling nodes as a fork-join task.
+   */
+  private class RenderTask extends RecursiveTask<String> {
+    private static final long serialVersionUID = 1L;
+
+    private final int forkDepth;
+
+    private final NodeConsumer nodeConsumer;
+
+    private final List<Node> nodes;
+
+    private final boolean split;
+
+    private final TransformFunction transformFunction;
+
+    private final Predicate<TagNode> transformPredicate;
+
+    /**
+     * @param split When true the nodes are split into smaller tasks, otherwise they are rendered by this task.
+     */
+    RenderTask(List<Node> nodes, boolean split, Predicate<TagNode> transformPredicate,
+               TransformFunction transformFunction, NodeConsumer nodeConsumer, int forkDepth) {
+      this.nodes = nodes;
+      this.split = split;
+      this.transformPredicate = transformPredicate;
+      this.transformFunction = transformFunction;
+      this.nodeConsumer = nodeConsumer;
+      this.forkDepth = forkDepth;
+    }
+
+    @Override
+    protected String compute() {
+      if (split && nodes.size() > 1) {
+        return renderForked(nodes, transformPredicate, transformFunction, nodeConsumer, forkDepth + 1);
+      }
+
+      StringBuilder build = new StringBuilder();
+      render(nodes, build, transformPredicate, transformFunction, nodeConsumer, null, null, forkDepth, null);
+      return build.toString();
+    }
+  }
 }
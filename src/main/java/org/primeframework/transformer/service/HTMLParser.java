@@ -36,6 +36,16 @@ import org.primeframework.transformer.domain.TextNode;
 public class HTMLParser extends AbstractParser {
   private static Map<String, TagAttributes> DEFAULT_TAG_ATTRIBUTES;
 
+  public HTMLParser() {
+  }
+
+  /**
+   * @param indexTags Whether the index of the tags by name is built as part of parsing.
+   */
+  public HTMLParser(boolean indexTags) {
+    super(indexTags);
+  }
+
   @Override
   public Document buildDocument(String source, Map<String, TagAttributes> tagAttributes) {
     return buildDocument(source.toCharArray(), tagAttributes);
@@ -254,10 +264,11 @@ public class HTMLParser extends AbstractParser {
 
   /**
    * Finite States of this parser. Each defined state has one or more state transitions based upon the character at the
-   * current index.
+   * current index. This is shared with the {@link HTMLTextExtractor}, which runs the same state machine without building
+   * a document.
    */
   @SuppressWarnings("Duplicates")
-  private enum State {
+  enum State {
 
     start {
       @Override
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import org.primeframework.transformer.domain.TagNames;
+import org.primeframework.transformer.service.HTMLParser.State;
+
+/**
+ * Extracts the visible text from HTML, i.e. for search indexing. This runs the state machine of the {@link HTMLParser}
+ * directly over the source and streams the text to an {@link Appendable}, no document or nodes are built.
+ * <ul>
+ * <li>Raw text elements (by default <code>script</code> and <code>style</code>) are skipped along with their body.</li>
+ * <li>Comments and declarations (i.e. <code>&lt;!DOCTYPE html&gt;</code>) are skipped.</li>
+ * <li>Runs of whitespace are collapsed into a single space and leading and trailing whitespace is dropped.</li>
+ * <li>Block tags (i.e. <code>p</code>, <code>div</code>, <code>br</code> and <code>li</code>) separate the text with a
+ * newline. The <code>head</code>, <code>title</code> and <code>body</code> tags are block tags too, so the title is kept
+ * on its own line instead of running into the body.</li>
+ * <li>Common named entities and numeric character references are decoded.</li>
+ * </ul>
+ * <p>
+ * The tag names are compiled to the ids of the {@link TagNames} registry. Instances are immutable and thread safe.
+ *
+ * @author Daniel DeGroff
+ */
+public class HTMLTextExtractor {
+  /**
+   * The tags that separate text when none are provided.
+   */
+  public static final Set<String> DEFAULT_BLOCK_TAGS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+      "address", "article", "aside", "blockquote", "body", "br", "dd", "div", "dl", "dt", "fieldset", "figcaption",
+      "figure", "footer", "form", "h1", "h2", "h3", "h4", "h5", "h6", "head", "header", "hr", "li", "main", "nav", "ol",
+      "p", "pre", "section", "table", "td", "th", "title", "tr", "ul")));
+
+  /**
+   * The tags whose body is skipped when none are provided.
+   */
+  public static final Set<String> DEFAULT_RAW_TEXT_TAGS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("script", "style")));
+
+  private final boolean[] blockById;
+
+  private final boolean[] rawTextById;
+
+  public HTMLTextExtractor() {
+    this(DEFAULT_BLOCK_TAGS, DEFAULT_RAW_TEXT_TAGS);
+  }
+
+  /**
+   * @param blockTags   The tags that separate text.
+   * @param rawTextTags The tags whose body is skipped.
+   */
+  public HTMLTextExtractor(Set<String> blockTags, Set<String> rawTextTags) {
+    Objects.requireNonNull(blockTags, "The block tags are required");
+    Objects.requireNonNull(rawTextTags, "The raw text tags are required");
+
+    int length = 0;
+    for (String name : blockTags) {
+      length = Math.max(length, TagNames.intern(name) + 1);
+    }
+    for (String name : rawTextTags) {
+      length = Math.max(length, TagNames.intern(name) + 1);
+    }
+
+    this.blockById = new boolean[length];
+    this.rawTextById = new boolean[length];
+    for (String name : blockTags) {
+      blockById[TagNames.intern(name)] = true;
+    }
+    for (String name : rawTextTags) {
+      rawTextById[TagNames.intern(name)] = true;
+    }
+  }
+
+  /**
+   * Extract the text of the HTML.
+   *
+   * @param source The HTML.
+   * @return The text.
+   */
+  public String extract(String source) {
+    StringBuilder build = new StringBuilder(source.length() / 2);
+    extract(source.toCharArray(), build);
+    return build.toString();
+  }
+
+  /**
+   * Extract the text of the HTML to the appendable.
+   *
+   * @param source The HTML.
+   * @param out    The appendable the text is written to.
+   * @throws TransformException If writing to the appendable fails.
+   */
+  public void extract(char[] source, Appendable out) throws TransformException {
+    Objects.requireNonNull(out, "An appendable is required");
+    try {
+      new Extraction(out).run(source);
+    } catch (IOException e) {
+      throw new TransformException("Failed to write the extracted text", e);
+    }
+  }
+
+  private boolean is(boolean[] tags, int nameId) {
+    return nameId >= 0 && nameId < tags.length && tags[nameId];
+  }
+
+  /**
+   * The state of a single extraction, the separators are only written once more text follows.
+   */
+  private class Extraction {
+    private final Appendable out;
+
+    private boolean empty = true;
+
+    private boolean pendingBreak;
+
+    private boolean pendingSpace;
+
+    private CharSequence text;
+
+    Extraction(Appendable out) {
+      this.out = out;
+    }
+
+    void run(char[] source) throws IOException {
+      text = CharBuffer.wrap(source);
+      State state = State.start;
+      int nameBegin = -1;
+      int nameId = TagNames.UNKNOWN;
+      for (int i = 0; i < source.length; i++) {
+        char c = source[i];
+        State previous = state;
+        state = previous.next(c);
+
+        if (previous == State.tagName && state != State.tagName) {
+          // The state machine keeps the slash of <br/> in the name
+          nameId = TagNames.lookup(source, nameBegin, source[i - 1] == '/' ? i - 1 : i);
+        }
+
+        switch (state) {
+          case text:
+            if (previous == State.inCommentDashDash) {
+              // The end of a comment
+              continue;
+            } else if (previous == State.bang || previous == State.bangDash) {
+              // A declaration, i.e. <!DOCTYPE html>
+              i = indexOf(source, '>', i);
+              state = State.closingTagEnd;
+              continue;
+            } else if (previous == State.tagBegin) {
+              // Not a tag, i.e. 1 < 2
+              append('<');
+            }
+            i = appendText(source, i);
+            break;
+          case tagName:
+            if (previous == State.tagBegin) {
+              nameBegin = i;
+            }
+            break;
+          case closingTagName:
+            if (previous == State.closingTagBegin) {
+              nameBegin = i;
+            }
+            break;
+          case openingTagEnd:
+            if (is(blockById, nameId)) {
+              pendingBreak = true;
+            }
+            if (is(rawTextById, nameId)) {
+              // Continue at the closing tag, the body is not looked at
+              i = closingTagIndex(source, i + 1, TagNames.name(nameId)) - 1;
+              state = State.text;
+            }
+            nameId = TagNames.UNKNOWN;
+            break;
+          case closingTagEnd:
+            if (previous == State.closingTagName) {
+              int nameEnd = i;
+              while (nameEnd > nameBegin && Character.isWhitespace(source[nameEnd - 1])) {
+                nameEnd--;
+              }
+              if (is(blockById, TagNames.lookup(source, nameBegin, nameEnd))) {
+                pendingBreak = true;
+              }
+            }
+            break;
+          default:
+            break;
+        }
+      }
+    }
+
+    private void append(char c) throws IOException {
+      if (Character.isWhitespace(c) || c == '\u00a0') {
+        pendingSpace = !empty;
+        return;
+      }
+
+      if (!empty) {
+        if (pendingBreak) {
+          out.append('\n');
+        } else if (pendingSpace) {
+          out.append(' ');
+        }
+      }
+      pendingBreak = false;
+      pendingSpace = false;
+      empty = false;
+      out.append(c);
+    }
+
+    /**
+     * Appends the text character at the index, decoding it if it begins an entity.
+     *
+     * @return The index of the last character consumed.
+     */
+    private int appendText(char[] source, int index) throws IOException {
+      char c = source[index];
+      int end = c == '&' ? CharacterReferences.end(text, index, source.length) : -1;
+      int codePoint = end != -1 ? CharacterReferences.decode(text, index, end) : -1;
+      if (codePoint == -1) {
+        append(c);
+        return index;
+      }
+
+      if (Character.isBmpCodePoint(codePoint)) {
+        append((char) codePoint);
+      } else {
+        append(Character.highSurrogate(codePoint));
+        out.append(Character.lowSurrogate(codePoint));
+      }
+      return end - 1;
+    }
+
+    private int closingTagIndex(char[] source, int index, String name) {
+      for (int i = index; i + 1 < source.length; i++) {
+        int end = i + 2 + name.length();
+        if (source[i] == '<' && source[i + 1] == '/' && end <= source.length && matches(source, i + 2, name) &&
+            (end == source.length || source[end] == '>' || Character.isWhitespace(source[end]))) {
+          return i;
+        }
+      }
+      return source.length;
+    }
+
+    private int indexOf(char[] source, char c, int index) {
+      for (int i = index; i < source.length; i++) {
+        if (source[i] == c) {
+          return i;
+        }
+      }
+      return source.length;
+    }
+
+    private boolean matches(char[] source, int index, String name) {
+      for (int i = 0; i < name.length(); i++) {
+        if (Character.toLowerCase(source[index + i]) != name.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
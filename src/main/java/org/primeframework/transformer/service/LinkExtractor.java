@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.Pair;
+import org.primeframework.transformer.domain.TagNames;
+import org.primeframework.transformer.domain.TagNode;
+
+/**
+ * Extracts the links and media referenced by a document without transforming it, i.e. for link previews or spam
+ * scoring. The references are resolved the same way the default BBCode templates resolve them:
+ * <ul>
+ * <li><code>[url=x]body[/url]</code> links to <code>x</code>, <code>[url]x[/url]</code> links to the body.</li>
+ * <li><code>[email=x]body[/email]</code> links to <code>mailto:x</code>, <code>[email]x[/email]</code> links to the
+ * body.</li>
+ * <li><code>[img]x[/img]</code> is an image of the body, the simple attribute is the size of the image.</li>
+ * <li>HTML <code>&lt;a href&gt;</code> and <code>&lt;img src&gt;</code> use the attribute.</li>
+ * </ul>
+ * Each reference has the range of the URL in the document source. The tags are visited with {@link
+ * Document#tagNodes()} and only the result is allocated, the URLs are built when they are asked for.
+ *
+ * @author Daniel DeGroff
+ */
+public class LinkExtractor {
+  private static final int A = TagNames.intern("a");
+
+  private static final int EMAIL = TagNames.intern("email");
+
+  private static final int IMG = TagNames.intern("img");
+
+  private static final int URL = TagNames.intern("url");
+
+  /**
+   * Extract the links and media in document order.
+   *
+   * @param document The document.
+   * @return The references.
+   */
+  public List<Link> extract(Document document) {
+    Objects.requireNonNull(document, "A document is required");
+    List<Link> links = new ArrayList<>();
+    for (TagNode tagNode : document.tagNodes()) {
+      Link link = resolve(document, tagNode);
+      if (link != null) {
+        links.add(link);
+      }
+    }
+    return links;
+  }
+
+  /**
+   * @return The link of the value of the named attribute, or null if the tag doesn't have the attribute.
+   */
+  private Link attributeLink(Document document, TagNode tagNode, String name, Type type) {
+    for (String key : tagNode.attributes.keySet()) {
+      if (key.equalsIgnoreCase(name)) {
+        return valueLink(document, tagNode, nameEnd(document.source, tagNode, name), type, null);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return The link of the body, or null if the tag doesn't have one. The body isn't trimmed, the templates use it as
+   *     it is.
+   */
+  private Link bodyLink(Document document, TagNode tagNode, Type type) {
+    return tagNode.bodyBegin < tagNode.bodyEnd ? new Link(document, tagNode, type, tagNode.bodyBegin, tagNode.bodyEnd, null) : null;
+  }
+
+  /**
+   * Find the end of the last attribute with the name in the opening tag, the same attribute the parser kept. Quoted
+   * values are skipped, so a value that contains the name isn't mistaken for it.
+   *
+   * @return The index after the name, or -1 if it isn't found.
+   */
+  private int nameEnd(char[] source, TagNode tagNode, String name) {
+    int found = -1;
+    char quote = 0;
+    int to = openingTagEnd(tagNode);
+    for (int i = tagNode.nameEnd; i < to; i++) {
+      char c = source[i];
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '"' || c == '\'') {
+        quote = c;
+      } else if (Character.isWhitespace(source[i - 1]) && i + name.length() < to && regionMatches(source, i, name) &&
+          (source[i + name.length()] == '=' || Character.isWhitespace(source[i + name.length()]))) {
+        found = i + name.length();
+        i = found - 1;
+      }
+    }
+    return found;
+  }
+
+  private int openingTagEnd(TagNode tagNode) {
+    return tagNode.bodyBegin > tagNode.nameEnd ? tagNode.bodyBegin : tagNode.end;
+  }
+
+  private boolean regionMatches(char[] source, int index, String name) {
+    for (int i = 0; i < name.length(); i++) {
+      if (Character.toLowerCase(source[index + i]) != Character.toLowerCase(name.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Link resolve(Document document, TagNode tagNode) {
+    int nameId = tagNode.getNameId();
+    if (nameId == TagNames.UNKNOWN) {
+      return null;
+    }
+
+    if (nameId == URL) {
+      return tagNode.attribute != null ? valueLink(document, tagNode, tagNode.nameEnd, Type.LINK, null) : bodyLink(document, tagNode, Type.LINK);
+    } else if (nameId == EMAIL) {
+      return tagNode.attribute != null ? valueLink(document, tagNode, tagNode.nameEnd, Type.EMAIL, "mailto:") : bodyLink(document, tagNode, Type.EMAIL);
+    } else if (nameId == A) {
+      return attributeLink(document, tagNode, "href", Type.LINK);
+    } else if (nameId == IMG) {
+      Link link = attributeLink(document, tagNode, "src", Type.IMAGE);
+      return link != null ? link : bodyLink(document, tagNode, Type.IMAGE);
+    }
+    return null;
+  }
+
+  /**
+   * The range of an attribute value is the first attribute offset of the document that follows the name, the simple
+   * attribute of a BBCode tag follows the tag name.
+   *
+   * @return The link of an attribute value, or null if the value is empty.
+   */
+  private Link valueLink(Document document, TagNode tagNode, int nameEnd, Type type, String prefix) {
+    if (nameEnd == -1) {
+      return null;
+    }
+
+    Iterator<Pair<Integer, Integer>> offsets = document.attributeOffsets.tailSet(new Pair<>(nameEnd, 0)).iterator();
+    if (!offsets.hasNext()) {
+      return null;
+    }
+
+    Pair<Integer, Integer> offset = offsets.next();
+    if (offset.second == 0 || offset.first >= openingTagEnd(tagNode)) {
+      return null;
+    }
+    return new Link(document, tagNode, type, offset.first, offset.first + offset.second, prefix);
+  }
+
+  /**
+   * The type of a reference.
+   */
+  public enum Type {
+    EMAIL,
+    IMAGE,
+    LINK
+  }
+
+  /**
+   * A reference to a link or media in a document.
+   *
+   * @author Daniel DeGroff
+   */
+  public static class Link {
+    /**
+     * The index in the document source where the URL begins (inclusive).
+     */
+    public final int begin;
+
+    public final Document document;
+
+    /**
+     * The index in the document source where the URL ends (exclusive).
+     */
+    public final int end;
+
+    /**
+     * Prepended to the source of the URL, i.e. mailto:, may be null.
+     */
+    public final String prefix;
+
+    public final TagNode tagNode;
+
+    public final Type type;
+
+    public Link(Document document, TagNode tagNode, Type type, int begin, int end, String prefix) {
+      this.document = document;
+      this.tagNode = tagNode;
+      this.type = type;
+      this.begin = begin;
+      this.end = end;
+      this.prefix = prefix;
+    }
+
+    /**
+     * @return The URL, built from the document source.
+     */
+    public String getURL() {
+      String url = document.getString(begin, end);
+      return prefix != null ? prefix + url : url;
+    }
+
+    @Override
+    public String toString() {
+      return "Link{" +
+          "type=" + type +
+          ", url=" + getURL() +
+          ", begin=" + begin +
+          ", end=" + end +
+          "}";
+    }
+  }
+}
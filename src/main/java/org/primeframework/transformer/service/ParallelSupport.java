@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.primeframework.transformer.domain.BaseNode;
+import org.primeframework.transformer.domain.Node;
+
+/**
+ * Helpers shared by the transformers that render in parallel.
+ *
+ * @author Daniel DeGroff
+ */
+final class ParallelSupport {
+  private ParallelSupport() {
+  }
+
+  /**
+   * Splits the sibling nodes into consecutive chunks of roughly the threshold size and creates a task for each chunk.
+   * A node that is larger than the threshold by itself is always placed in a chunk of its own so that it can be split
+   * further.
+   *
+   * @param children  The sibling nodes.
+   * @param threshold The size of the source of a chunk, in characters.
+   * @param factory   Creates the task for a chunk.
+   * @param <T>       The task type.
+   * @return The tasks, in document order.
+   */
+  static <T> List<T> partition(List<Node> children, int threshold, Function<List<Node>, T> factory) {
+    List<T> tasks = new ArrayList<>();
+    int chunkBegin = 0;
+    int chunkLength = 0;
+    for (int i = 0; i < children.size(); i++) {
+      int length = ((BaseNode) children.get(i)).length();
+      if (length >= threshold && i > chunkBegin) {
+        tasks.add(factory.apply(children.subList(chunkBegin, i)));
+        chunkBegin = i;
+        chunkLength = 0;
+      }
+
+      chunkLength += length;
+      if (chunkLength >= threshold) {
+        tasks.add(factory.apply(children.subList(chunkBegin, i + 1)));
+        chunkBegin = i + 1;
+        chunkLength = 0;
+      }
+    }
+
+    if (chunkBegin < children.size()) {
+      tasks.add(factory.apply(children.subList(chunkBegin, children.size())));
+    }
+
+    return tasks;
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+/**
+ * Tracks the characters remaining while rendering a preview.
+ *
+ * @author Daniel DeGroff
+ */
+final class PreviewBudget {
+  final String ellipsis;
+
+  int remaining;
+
+  boolean truncated;
+
+  PreviewBudget(int budget, String ellipsis) {
+    if (budget < 0) {
+      throw new IllegalArgumentException("The preview budget must not be negative");
+    }
+
+    this.remaining = budget;
+    this.ellipsis = ellipsis != null ? ellipsis : "";
+  }
+
+  /**
+   * Marks the preview as truncated at the current position of the builder.
+   */
+  void exhaust(StringBuilder build) {
+    truncated = true;
+    build.append(ellipsis);
+  }
+
+  /**
+   * Takes as much of the text as the remaining budget allows. If the text does not fit the preview is marked as
+   * truncated and the caller must append the ellipsis after the text.
+   *
+   * @param text The text.
+   * @return The text, or the beginning of it.
+   */
+  String take(String text) {
+    if (text.length() <= remaining) {
+      remaining -= text.length();
+      return text;
+    }
+
+    // Don't split a surrogate pair
+    int end = remaining;
+    if (end > 0 && Character.isHighSurrogate(text.charAt(end - 1))) {
+      end--;
+    }
+
+    remaining = 0;
+    truncated = true;
+    return text.substring(0, end);
+  }
+
+  /**
+   * Takes all of the markup if it fits in the remaining budget, or none of it. Markup that isn't transformed (i.e. the
+   * raw source of a tag) can't be cut without leaving a broken tag in the preview. If it does not fit the preview is
+   * marked as truncated and the caller must append the ellipsis.
+   *
+   * @param markup The markup.
+   * @return The markup, or an empty string.
+   */
+  String takeWhole(String markup) {
+    if (markup.length() <= remaining) {
+      remaining -= markup.length();
+      return markup;
+    }
+
+    remaining = 0;
+    truncated = true;
+    return "";
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.function.Predicate;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.TagNode;
+
+/**
+ * A transformer that can also transform just the beginning of a document, for use as a preview.
+ *
+ * @author Daniel DeGroff
+ */
+public interface PreviewTransformer extends Transformer {
+  /**
+   * Transform the beginning of the document for use as a preview. Traversal stops once the budget is used up, so the
+   * cost depends on the size of the preview rather than the size of the document. Any elements that are open when the
+   * budget runs out are completed normally, so the result is always well formed.
+   * <p>
+   * The budget is measured in characters of the document source that are emitted as text, the markup produced by the
+   * transformer and any escaping done by the transform function are not counted.
+   *
+   * @param document           The document to transform.
+   * @param transformPredicate This predicate will be evaluated on each {@link TagNode}. If it evaluates to false, the
+   *                           node will not be transformed.
+   * @param transformFunction  A function that can be optionally provided to transform text nodes.
+   * @param budget             The maximum number of characters of text to include.
+   * @param ellipsis           Appended where the text was cut off, may be null.
+   *
+   * @return The transformed preview.
+   *
+   * @throws TransformException If the transformation fails for any reason.
+   */
+  String transformPreview(Document document, Predicate<TagNode> transformPredicate, TransformFunction transformFunction,
+                          int budget, String ellipsis)
+      throws TransformException;
+}
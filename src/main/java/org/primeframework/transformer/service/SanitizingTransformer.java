@@ -0,0 +1,446 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.Node;
+import org.primeframework.transformer.domain.TagNames;
+import org.primeframework.transformer.domain.TagNode;
+import org.primeframework.transformer.domain.TextNode;
+
+/**
+ * Sanitizes HTML documents built by the {@link HTMLParser} using an allow-list of tags and their attributes. The
+ * document is serialized again in a single traversal:
+ * <ul>
+ * <li>Allowed tags are written with their lowercase name and only their allowed attributes. URL attributes (i.e.
+ * <code>href</code> and <code>src</code>) are dropped unless they are relative or use the http, https, ftp or mailto
+ * scheme, character references in the scheme are decoded before it is checked. Tags that are not void elements are
+ * always closed.</li>
+ * <li>Any other tag is dropped, or escaped when escaping is enabled, and its children are sanitized.</li>
+ * <li>Stripped tags (by default <code>script</code>, <code>style</code> and <code>svg</code>) are dropped along with
+ * their body, which is never looked at.</li>
+ * <li>Text is escaped, entities that are already in the text are kept and comments are dropped.</li>
+ * </ul>
+ * <p>
+ * The allow-list is compiled to the ids of the {@link TagNames} registry, so tags are looked up without building their
+ * names. The transform predicate can exclude more tags, tags it rejects are handled like tags that are not allowed. The
+ * transform function is called with the text before it is escaped.
+ * <p>
+ * Example:
+ * <pre>
+ *   Map&lt;String, Set&lt;String&gt;&gt; allowList = new HashMap&lt;&gt;();
+ *   allowList.put("a", Collections.singleton("href"));
+ *   allowList.put("b", Collections.emptySet());
+ *   new SanitizingTransformer(allowList).transform(document, (node) -&gt; true, null, null, outputStream);
+ * </pre>
+ *
+ * @author Daniel DeGroff
+ */
+public class SanitizingTransformer implements Transformer {
+  /**
+   * The tags whose body is dropped when none are provided.
+   */
+  public static final Set<String> DEFAULT_STRIPPED_TAGS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("script", "style", "svg")));
+
+  /**
+   * The number of characters buffered before they are written when writing to an output stream.
+   */
+  private static final int FLUSH_SIZE = 8 * 1024;
+
+  private static final Set<String> URL_ATTRIBUTES = new HashSet<>(Arrays.asList("action", "background", "cite", "formaction", "href", "longdesc", "poster", "src", "srcset"));
+
+  private static final Set<String> URL_SCHEMES = new HashSet<>(Arrays.asList("ftp", "http", "https", "mailto"));
+
+  private static final Set<String> VOID_TAGS = new HashSet<>(Arrays.asList("area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "param", "source", "track", "wbr"));
+
+  /**
+   * The allowed attribute names indexed by tag id, null when the tag is not allowed.
+   */
+  private final Set<String>[] attributesById;
+
+  private final boolean escapeDisallowed;
+
+  private final boolean[] strippedById;
+
+  private final boolean[] voidById;
+
+  /**
+   * @param allowList The allowed tags and the names of their allowed attributes.
+   */
+  public SanitizingTransformer(Map<String, Set<String>> allowList) {
+    this(allowList, false, DEFAULT_STRIPPED_TAGS);
+  }
+
+  /**
+   * @param allowList        The allowed tags and the names of their allowed attributes.
+   * @param escapeDisallowed Whether tags that are not allowed are escaped, so they are displayed as text, rather than
+   *                         dropped.
+   */
+  public SanitizingTransformer(Map<String, Set<String>> allowList, boolean escapeDisallowed) {
+    this(allowList, escapeDisallowed, DEFAULT_STRIPPED_TAGS);
+  }
+
+  /**
+   * @param allowList        The allowed tags and the names of their allowed attributes. Event handler attributes (i.e.
+   *                         <code>onclick</code>) and the stripped tags can not be allowed.
+   * @param escapeDisallowed Whether tags that are not allowed are escaped, so they are displayed as text, rather than
+   *                         dropped.
+   * @param strippedTags     The tags that are dropped along with their body.
+   */
+  @SuppressWarnings("unchecked")
+  public SanitizingTransformer(Map<String, Set<String>> allowList, boolean escapeDisallowed, Set<String> strippedTags) {
+    Objects.requireNonNull(allowList, "An allow-list is required");
+    Objects.requireNonNull(strippedTags, "The stripped tags are required");
+    this.escapeDisallowed = escapeDisallowed;
+
+    int length = 0;
+    for (String name : allowList.keySet()) {
+      length = Math.max(length, TagNames.intern(name) + 1);
+    }
+    for (String name : strippedTags) {
+      length = Math.max(length, TagNames.intern(name) + 1);
+    }
+
+    this.attributesById = (Set<String>[]) new Set<?>[length];
+    this.strippedById = new boolean[length];
+    this.voidById = new boolean[length];
+    for (String name : strippedTags) {
+      strippedById[TagNames.intern(name)] = true;
+    }
+
+    for (Map.Entry<String, Set<String>> entry : allowList.entrySet()) {
+      int id = TagNames.intern(entry.getKey());
+      if (strippedById[id]) {
+        throw new IllegalArgumentException("The stripped tag [" + entry.getKey() + "] can not be allowed");
+      }
+
+      Set<String> attributes = new HashSet<>();
+      if (entry.getValue() != null) {
+        for (String attribute : entry.getValue()) {
+          String name = attribute.toLowerCase();
+          if (name.startsWith("on")) {
+            throw new IllegalArgumentException("The event handler attribute [" + attribute + "] can not be allowed");
+          }
+          attributes.add(name);
+        }
+      }
+
+      attributesById[id] = attributes;
+      voidById[id] = VOID_TAGS.contains(TagNames.name(id));
+    }
+  }
+
+  @Override
+  public String transform(Document document, Predicate<TagNode> transformPredicate, TransformFunction transformFunction,
+                          NodeConsumer nodeConsumer)
+      throws TransformException {
+    Objects.requireNonNull(transformPredicate, "A transform predicate is required");
+    StringBuilder build = new StringBuilder(document.length() + 16);
+    render(document, build, transformPredicate, transformFunction, nodeConsumer, null);
+    return build.toString();
+  }
+
+  @Override
+  public void transform(Document document, Predicate<TagNode> transformPredicate, TransformFunction transformFunction,
+                        NodeConsumer nodeConsumer, OutputStream out)
+      throws TransformException {
+    Objects.requireNonNull(transformPredicate, "A transform predicate is required");
+    Objects.requireNonNull(out, "An output stream is required");
+    Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    StringBuilder build = new StringBuilder(FLUSH_SIZE * 2);
+    render(document, build, transformPredicate, transformFunction, nodeConsumer, writer);
+    flush(build, writer);
+    try {
+      writer.flush();
+    } catch (IOException e) {
+      throw new TransformException("Failed to write the transformed document", e);
+    }
+  }
+
+  /**
+   * Escapes the characters, entities (i.e. <code>&amp;amp;</code>) are kept as they are.
+   *
+   * @param text           The characters.
+   * @param stripComments  Whether comments and other markup declarations (i.e. <code>&lt;!DOCTYPE html&gt;</code>) are
+   *                       dropped.
+   * @param escapeQuotes   Whether double quotes are escaped, for attribute values.
+   */
+  private void escape(CharSequence text, int begin, int end, boolean stripComments, boolean escapeQuotes,
+                      StringBuilder build) {
+    int run = begin;
+    for (int i = begin; i < end; i++) {
+      char c = text.charAt(i);
+      String replacement;
+      if (c == '<') {
+        if (stripComments && i + 1 < end && text.charAt(i + 1) == '!') {
+          build.append(text, run, i);
+          i = declarationEnd(text, i, end) - 1;
+          run = i + 1;
+          continue;
+        }
+        replacement = "&lt;";
+      } else if (c == '>') {
+        replacement = "&gt;";
+      } else if (c == '&') {
+        if (isEntity(text, i + 1, end)) {
+          continue;
+        }
+        replacement = "&amp;";
+      } else if (c == '"' && escapeQuotes) {
+        replacement = "&quot;";
+      } else {
+        continue;
+      }
+
+      build.append(text, run, i).append(replacement);
+      run = i + 1;
+    }
+    build.append(text, run, end);
+  }
+
+  /**
+   * @return The index after the end of the comment or declaration that begins at the index, or the end of the text if
+   *     it is not closed.
+   */
+  private int declarationEnd(CharSequence text, int index, int end) {
+    boolean comment = index + 3 < end && text.charAt(index + 2) == '-' && text.charAt(index + 3) == '-';
+    for (int i = comment ? index + 4 : index + 2; i < end; i++) {
+      if (text.charAt(i) == '>' && (!comment || (text.charAt(i - 1) == '-' && text.charAt(i - 2) == '-'))) {
+        return i + 1;
+      }
+    }
+    return end;
+  }
+
+  private void flush(StringBuilder build, Writer out) throws TransformException {
+    if (build.length() == 0) {
+      return;
+    }
+
+    try {
+      out.append(build);
+    } catch (IOException e) {
+      throw new TransformException("Failed to write the transformed document", e);
+    }
+    build.setLength(0);
+  }
+
+  /**
+   * @return True if the characters at the index are the rest of a named or numeric character reference.
+   */
+  private boolean isEntity(CharSequence text, int index, int end) {
+    if (index >= end) {
+      return false;
+    }
+
+    int i = index;
+    if (text.charAt(i) == '#') {
+      i++;
+      boolean hex = i < end && (text.charAt(i) == 'x' || text.charAt(i) == 'X');
+      if (hex) {
+        i++;
+      }
+
+      int digits = i;
+      while (i < end && (hex ? Character.digit(text.charAt(i), 16) != -1 : text.charAt(i) >= '0' && text.charAt(i) <= '9')) {
+        i++;
+      }
+      return i > digits && i < end && text.charAt(i) == ';';
+    }
+
+    while (i < end && ((text.charAt(i) >= 'a' && text.charAt(i) <= 'z') || (text.charAt(i) >= 'A' && text.charAt(i) <= 'Z') ||
+        (i > index && text.charAt(i) >= '0' && text.charAt(i) <= '9'))) {
+      i++;
+    }
+    return i > index && i < end && text.charAt(i) == ';';
+  }
+
+  /**
+   * The scheme is read the way a browser reads it. Character references are decoded and tabs and newlines are ignored,
+   * so <code>java&amp;#x09;script&amp;colon;</code> is the javascript scheme.
+   *
+   * @return True if the URL is relative or uses one of the allowed schemes.
+   */
+  private boolean isSafeURL(String value) {
+    StringBuilder scheme = new StringBuilder();
+    for (int i = 0; i < value.length(); i++) {
+      int c = value.charAt(i);
+      if (c == '&') {
+        int end = CharacterReferences.end(value, i, value.length());
+        if (end != -1) {
+          c = CharacterReferences.decode(value, i, end);
+          if (c == -1) {
+            // A reference that isn't known could be hiding the scheme
+            return false;
+          }
+          i = end - 1;
+        }
+      }
+
+      if (c == '\t' || c == '\n' || c == '\r' || (scheme.length() == 0 && c <= ' ')) {
+        continue;
+      }
+
+      if (c == ':') {
+        return URL_SCHEMES.contains(scheme.toString().toLowerCase());
+      } else if (c == '/' || c == '?' || c == '#') {
+        return true;
+      }
+      scheme.appendCodePoint(c);
+    }
+    return true;
+  }
+
+  private void openTag(TagNode tagNode, int nameId, StringBuilder build) {
+    Set<String> allowed = attributesById[nameId];
+    build.append('<').append(TagNames.name(nameId));
+    for (Map.Entry<String, String> attribute : tagNode.attributes.entrySet()) {
+      String name = attribute.getKey().toLowerCase();
+      String value = attribute.getValue();
+      if (!allowed.contains(name) || (URL_ATTRIBUTES.contains(name) && !isSafeURL(value))) {
+        continue;
+      }
+
+      build.append(' ').append(name).append("=\"");
+      escape(value, 0, value.length(), false, true, build);
+      build.append('"');
+    }
+    build.append('>');
+  }
+
+  /**
+   * Renders the document into the builder. The tree is walked using an explicit stack of the open tags.
+   *
+   * @param out When not null, the output is written to this writer as it is produced and only the remainder is left in
+   *            the builder. With a node consumer, the output is only written between top level nodes.
+   */
+  private void render(Document document, StringBuilder build, Predicate<TagNode> transformPredicate,
+                      TransformFunction transformFunction, NodeConsumer nodeConsumer, Writer out)
+      throws TransformException {
+    CompiledTagPredicate compiled = transformPredicate instanceof CompiledTagPredicate ? (CompiledTagPredicate) transformPredicate : null;
+    CharBuffer source = CharBuffer.wrap(document.source);
+    Deque<Frame> stack = new ArrayDeque<>();
+    stack.push(new Frame(null, TagNames.UNKNOWN, false, document.children, 0, 0));
+    while (!stack.isEmpty()) {
+      Frame frame = stack.peek();
+      if (out != null && build.length() >= FLUSH_SIZE && (nodeConsumer == null || stack.size() == 1)) {
+        flush(build, out);
+      }
+
+      if (frame.index == frame.children.size()) {
+        stack.pop();
+        if (frame.tagNode != null) {
+          int bodyEnd = build.length();
+          TagNode tagNode = frame.tagNode;
+          if (frame.allowed) {
+            if (!voidById[frame.nameId]) {
+              build.append("</").append(TagNames.name(frame.nameId)).append('>');
+            }
+          } else if (escapeDisallowed) {
+            int closingBegin = tagNode.hasBody() ? tagNode.bodyEnd : tagNode.bodyBegin;
+            if (closingBegin >= 0 && closingBegin < tagNode.end) {
+              escape(source, closingBegin, tagNode.end, false, false, build);
+            }
+          }
+
+          if (nodeConsumer != null) {
+            nodeConsumer.accept(tagNode, build, frame.begin, build.length(), CharBuffer.wrap(build, frame.bodyBegin, bodyEnd));
+          }
+        }
+        continue;
+      }
+
+      Node node = frame.children.get(frame.index++);
+      if (node instanceof TextNode) {
+        TextNode textNode = (TextNode) node;
+        String text = textNode.getBody();
+        if (transformFunction != null) {
+          text = transformFunction.transform(textNode, text);
+        }
+
+        int begin = build.length();
+        escape(text, 0, text.length(), true, false, build);
+        if (nodeConsumer != null) {
+          nodeConsumer.accept(node, build, begin, build.length(), text);
+        }
+      } else if (node instanceof TagNode) {
+        TagNode tagNode = (TagNode) node;
+        int nameId = tagNode.getNameId();
+        boolean known = nameId >= 0 && nameId < attributesById.length;
+        boolean allowed = known && attributesById[nameId] != null &&
+            (compiled != null ? compiled.test(tagNode, nameId, stack.size()) : transformPredicate.test(tagNode));
+        if (!allowed && known && strippedById[nameId]) {
+          continue;
+        }
+
+        int begin = build.length();
+        if (allowed) {
+          openTag(tagNode, nameId, build);
+        } else if (escapeDisallowed && tagNode.bodyBegin > tagNode.begin) {
+          escape(source, tagNode.begin, tagNode.bodyBegin, false, false, build);
+        }
+        stack.push(new Frame(tagNode, nameId, allowed, tagNode.children, begin, build.length()));
+      } else {
+        throw new TransformException("Invalid node class [" + node.getClass() + "]");
+      }
+    }
+  }
+
+  /**
+   * A tag whose children are being sanitized.
+   */
+  private static class Frame {
+    final boolean allowed;
+
+    final int begin;
+
+    final int bodyBegin;
+
+    final List<Node> children;
+
+    final int nameId;
+
+    final TagNode tagNode;
+
+    int index;
+
+    Frame(TagNode tagNode, int nameId, boolean allowed, List<Node> children, int begin, int bodyBegin) {
+      this.tagNode = tagNode;
+      this.nameId = nameId;
+      this.allowed = allowed;
+      this.children = children;
+      this.begin = begin;
+      this.bodyBegin = bodyBegin;
+    }
+  }
+}
@@ -0,0 +1,440 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import org.primeframework.transformer.domain.BaseTagNode;
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.TagNames;
+import org.primeframework.transformer.domain.TagNode;
+
+/**
+ * A compiled CSS style selector, i.e. <code>div.content &gt; p a[href]</code> or <code>table tr td, th</code>. This
+ * supports:
+ * <ul>
+ * <li>Type selectors (<code>p</code>) and the universal selector (<code>*</code>), the case of the name is ignored.</li>
+ * <li>Class (<code>.content</code>) and id (<code>#main</code>) selectors.</li>
+ * <li>Attribute selectors: <code>[href]</code>, <code>[type=text]</code>, <code>[class~=a]</code>,
+ * <code>[lang|=en]</code>, <code>[href^=http]</code>, <code>[src$=".png"]</code> and <code>[title*=foo]</code>.</li>
+ * <li>Descendant (whitespace) and child (<code>&gt;</code>) combinators, and groups separated by commas.</li>
+ * </ul>
+ * <p>
+ * Selectors are matched from right to left, a tag is tested against the last compound selector first and then the
+ * ancestors are checked by following the {@link TagNode#parent} pointers. When selecting from a document, the
+ * candidates for a selector that ends with a type are taken from the {@link Document#tagIndex()}, so the tree is not
+ * walked at all once the document has been indexed.
+ * <p>
+ * A selector is immutable and thread safe, compile it once and reuse it. Since it is a predicate, it can also be
+ * passed to a transformer to select the tags that are transformed.
+ *
+ * @author Daniel DeGroff
+ */
+public final class Selector implements Predicate<TagNode> {
+  /**
+   * The name id of a compound selector without a type.
+   */
+  private static final int ANY = -2;
+
+  /**
+   * The compound selectors of each group, from left to right.
+   */
+  private final Compound[][] groups;
+
+  private final String selector;
+
+  private Selector(String selector, Compound[][] groups) {
+    this.selector = selector;
+    this.groups = groups;
+  }
+
+  /**
+   * Compile the selector.
+   *
+   * @param selector The selector.
+   * @return The compiled selector.
+   * @throws IllegalArgumentException If the selector is not valid or uses syntax that isn't supported.
+   */
+  public static Selector compile(String selector) {
+    Objects.requireNonNull(selector, "A selector is required");
+    return new Selector(selector, new SelectorParser(selector).parse());
+  }
+
+  /**
+   * Select the matching tags below the root, the root itself is not included.
+   *
+   * @param root The document or tag to select from.
+   * @return The matching tags in document order.
+   */
+  public List<TagNode> select(BaseTagNode root) {
+    List<TagNode> result = new ArrayList<>();
+    Compound last = groups.length == 1 ? groups[0][groups[0].length - 1] : null;
+    if (root instanceof Document && last != null && last.nameId != ANY) {
+      for (TagNode candidate : ((Document) root).tagIndex().get(last.nameId)) {
+        if (matches(groups[0], groups[0].length - 1, candidate)) {
+          result.add(candidate);
+        }
+      }
+      return result;
+    }
+
+    for (TagNode candidate : root.tagNodes()) {
+      if (candidate != root && test(candidate)) {
+        result.add(candidate);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Select the first matching tag below the root.
+   *
+   * @param root The document or tag to select from.
+   * @return The first matching tag in document order, or null.
+   */
+  public TagNode selectFirst(BaseTagNode root) {
+    for (TagNode candidate : root.tagNodes()) {
+      if (candidate != root && test(candidate)) {
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public boolean test(TagNode tagNode) {
+    for (Compound[] group : groups) {
+      if (matches(group, group.length - 1, tagNode)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return selector;
+  }
+
+  private boolean matches(Compound[] compounds, int index, TagNode tagNode) {
+    Compound compound = compounds[index];
+    if (!compound.matches(tagNode)) {
+      return false;
+    }
+
+    if (index == 0) {
+      return true;
+    }
+
+    if (compound.child) {
+      return tagNode.parent != null && matches(compounds, index - 1, tagNode.parent);
+    }
+
+    for (TagNode ancestor = tagNode.parent; ancestor != null; ancestor = ancestor.parent) {
+      if (matches(compounds, index - 1, ancestor)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private enum Operator {
+    CONTAINS,
+    DASH,
+    EQUALS,
+    EXISTS,
+    INCLUDES,
+    PREFIX,
+    SUFFIX
+  }
+
+  /**
+   * An attribute condition of a compound selector.
+   */
+  private static class Condition {
+    final String name;
+
+    final Operator operator;
+
+    final String value;
+
+    Condition(String name, Operator operator, String value) {
+      this.name = name;
+      this.operator = operator;
+      this.value = value;
+    }
+
+    boolean matches(TagNode tagNode) {
+      String actual = null;
+      for (Map.Entry<String, String> attribute : tagNode.attributes.entrySet()) {
+        if (attribute.getKey().equalsIgnoreCase(name)) {
+          actual = attribute.getValue();
+          break;
+        }
+      }
+
+      if (actual == null) {
+        return false;
+      }
+
+      switch (operator) {
+        case CONTAINS:
+          return !value.isEmpty() && actual.contains(value);
+        case DASH:
+          return actual.equals(value) || (actual.startsWith(value) && actual.length() > value.length() && actual.charAt(value.length()) == '-');
+        case EQUALS:
+          return actual.equals(value);
+        case EXISTS:
+          return true;
+        case INCLUDES:
+          return includesWord(actual, value);
+        case PREFIX:
+          return !value.isEmpty() && actual.startsWith(value);
+        case SUFFIX:
+          return !value.isEmpty() && actual.endsWith(value);
+        default:
+          return false;
+      }
+    }
+
+    private boolean includesWord(String actual, String word) {
+      if (word.isEmpty()) {
+        return false;
+      }
+
+      int index = actual.indexOf(word);
+      while (index != -1) {
+        int end = index + word.length();
+        if ((index == 0 || Character.isWhitespace(actual.charAt(index - 1))) &&
+            (end == actual.length() || Character.isWhitespace(actual.charAt(end)))) {
+          return true;
+        }
+        index = actual.indexOf(word, index + 1);
+      }
+      return false;
+    }
+  }
+
+  /**
+   * A sequence of simple selectors that all apply to the same tag, i.e. <code>div.content[title]</code>.
+   */
+  private static class Compound {
+    /**
+     * Whether this is joined to the previous compound selector by the child combinator rather than the descendant
+     * combinator.
+     */
+    final boolean child;
+
+    final Condition[] conditions;
+
+    final int nameId;
+
+    Compound(int nameId, Condition[] conditions, boolean child) {
+      this.nameId = nameId;
+      this.conditions = conditions;
+      this.child = child;
+    }
+
+    boolean matches(TagNode tagNode) {
+      if (nameId != ANY && tagNode.getNameId() != nameId) {
+        return false;
+      }
+
+      for (Condition condition : conditions) {
+        if (!condition.matches(tagNode)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Parses the selector syntax.
+   */
+  private static class SelectorParser {
+    private final String selector;
+
+    private int index;
+
+    SelectorParser(String selector) {
+      this.selector = selector;
+    }
+
+    Compound[][] parse() {
+      List<Compound[]> groups = new ArrayList<>();
+      do {
+        groups.add(complex());
+      } while (accept(','));
+
+      if (index < selector.length()) {
+        throw error("Unexpected character");
+      }
+      return groups.toArray(new Compound[0][]);
+    }
+
+    private boolean accept(char c) {
+      skipWhitespace();
+      if (index < selector.length() && selector.charAt(index) == c) {
+        index++;
+        return true;
+      }
+      return false;
+    }
+
+    private Compound[] complex() {
+      List<Compound> compounds = new ArrayList<>();
+      skipWhitespace();
+      compounds.add(compound(false));
+      while (true) {
+        boolean whitespace = skipWhitespace();
+        if (index == selector.length() || selector.charAt(index) == ',') {
+          break;
+        }
+
+        boolean child = accept('>');
+        if (!child && !whitespace) {
+          throw error("Expected a combinator");
+        }
+        skipWhitespace();
+        compounds.add(compound(child));
+      }
+      return compounds.toArray(new Compound[0]);
+    }
+
+    private Compound compound(boolean child) {
+      int nameId = ANY;
+      if (index < selector.length() && selector.charAt(index) == '*') {
+        index++;
+      } else if (index < selector.length() && isIdentifier(selector.charAt(index))) {
+        nameId = TagNames.intern(identifier());
+      }
+
+      List<Condition> conditions = new ArrayList<>();
+      while (index < selector.length()) {
+        char c = selector.charAt(index);
+        if (c == '.') {
+          index++;
+          conditions.add(new Condition("class", Operator.INCLUDES, identifier()));
+        } else if (c == '#') {
+          index++;
+          conditions.add(new Condition("id", Operator.EQUALS, identifier()));
+        } else if (c == '[') {
+          index++;
+          conditions.add(condition());
+        } else {
+          break;
+        }
+      }
+
+      if (nameId == ANY && conditions.isEmpty() && (index == 0 || selector.charAt(index - 1) != '*')) {
+        throw error("Expected a selector");
+      }
+      return new Compound(nameId, conditions.toArray(new Condition[0]), child);
+    }
+
+    private Condition condition() {
+      skipWhitespace();
+      String name = identifier();
+      skipWhitespace();
+      if (accept(']')) {
+        return new Condition(name, Operator.EXISTS, null);
+      }
+
+      Operator operator;
+      char c = index < selector.length() ? selector.charAt(index) : 0;
+      if (c == '=') {
+        operator = Operator.EQUALS;
+      } else {
+        switch (c) {
+          case '*':
+            operator = Operator.CONTAINS;
+            break;
+          case '|':
+            operator = Operator.DASH;
+            break;
+          case '~':
+            operator = Operator.INCLUDES;
+            break;
+          case '^':
+            operator = Operator.PREFIX;
+            break;
+          case '$':
+            operator = Operator.SUFFIX;
+            break;
+          default:
+            throw error("Expected an attribute operator");
+        }
+        index++;
+        if (index == selector.length() || selector.charAt(index) != '=') {
+          throw error("Expected an attribute operator");
+        }
+      }
+      index++;
+
+      skipWhitespace();
+      String value;
+      if (index < selector.length() && (selector.charAt(index) == '"' || selector.charAt(index) == '\'')) {
+        char quote = selector.charAt(index);
+        int end = selector.indexOf(quote, index + 1);
+        if (end == -1) {
+          throw error("Unterminated string");
+        }
+        value = selector.substring(index + 1, end);
+        index = end + 1;
+      } else {
+        value = identifier();
+      }
+
+      if (!accept(']')) {
+        throw error("Expected ]");
+      }
+      return new Condition(name, operator, value);
+    }
+
+    private IllegalArgumentException error(String message) {
+      return new IllegalArgumentException(message + " at index [" + index + "] of the selector [" + selector + "]");
+    }
+
+    private String identifier() {
+      int begin = index;
+      while (index < selector.length() && isIdentifier(selector.charAt(index))) {
+        index++;
+      }
+
+      if (begin == index) {
+        throw error("Expected a name");
+      }
+      return selector.substring(begin, index);
+    }
+
+    private boolean isIdentifier(char c) {
+      return Character.isLetterOrDigit(c) || c == '-' || c == '_' || c > 127;
+    }
+
+    private boolean skipWhitespace() {
+      int begin = index;
+      while (index < selector.length() && Character.isWhitespace(selector.charAt(index))) {
+        index++;
+      }
+      return index > begin;
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.function.Predicate;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.SourceMap;
+import org.primeframework.transformer.domain.TagNode;
+
+/**
+ * A transformer that can map the positions in its result back to the positions in the document source.
+ *
+ * @author Daniel DeGroff
+ */
+public interface SourceMapTransformer extends Transformer {
+  /**
+   * Transform the document and fill in a map from the positions in the result to the positions in the document source,
+   * in the same pass. The source map is useful for things like comments attached to a selection of the result or
+   * highlighting search matches found in the source.
+   *
+   * @param document           The document to transform.
+   * @param transformPredicate This predicate will be evaluated on each {@link TagNode}. If it evaluates to false, the
+   *                           node will not be transformed.
+   * @param transformFunction  A function that can be optionally provided to transform text nodes.
+   * @param nodeConsumer       A consumer that accepts each node as they are traversed during the transformation.
+   * @param sourceMap          The source map that the segments of the result are added to.
+   *
+   * @return The transformer result.
+   *
+   * @throws TransformException If the transformation fails for any reason.
+   */
+  String transformWithSourceMap(Document document, Predicate<TagNode> transformPredicate,
+                                TransformFunction transformFunction, NodeConsumer nodeConsumer, SourceMap sourceMap)
+      throws TransformException;
+}
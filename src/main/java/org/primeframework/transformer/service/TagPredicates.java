@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import org.primeframework.transformer.domain.TagNames;
+import org.primeframework.transformer.domain.TagNode;
+
+/**
+ * Factory for {@link CompiledTagPredicate}s.
+ * <p>
+ * Example:
+ * <pre>
+ *   CompiledTagPredicate predicate = TagPredicates.allow("b", "i", "url", "quote")
+ *                                                 .withMaxDepth(5)
+ *                                                 .where(TagPredicates.attribute("href", (value) -&gt; value.startsWith("https://")), "url");
+ * </pre>
+ *
+ * @author Daniel DeGroff
+ */
+public final class TagPredicates {
+  private TagPredicates() {
+  }
+
+  /**
+   * @return A predicate that accepts every tag.
+   */
+  public static CompiledTagPredicate all() {
+    return new CompiledTagPredicate(new long[0], true, Integer.MAX_VALUE, CompiledTagPredicate.newConditions(0));
+  }
+
+  /**
+   * @param names The tag names.
+   * @return A predicate that only accepts the named tags.
+   */
+  public static CompiledTagPredicate allow(String... names) {
+    return allow(Arrays.asList(names));
+  }
+
+  /**
+   * @param names The tag names.
+   * @return A predicate that only accepts the named tags.
+   */
+  public static CompiledTagPredicate allow(Collection<String> names) {
+    return new CompiledTagPredicate(bits(names, false), false, Integer.MAX_VALUE, CompiledTagPredicate.newConditions(0));
+  }
+
+  /**
+   * A condition on an attribute of a tag, for use with {@link CompiledTagPredicate#where(Predicate, String...)}. A tag
+   * without the attribute does not pass the condition.
+   *
+   * @param attribute  The name of the attribute, or null for the simple attribute (i.e. <code>[url=value]</code>).
+   * @param valueTest  The test of the attribute value.
+   * @return The condition.
+   */
+  public static Predicate<TagNode> attribute(String attribute, Predicate<String> valueTest) {
+    Objects.requireNonNull(valueTest, "A value test is required");
+    return (tagNode) -> {
+      String value = attribute == null ? tagNode.attribute : tagNode.attributes.get(attribute);
+      return value != null && valueTest.test(value);
+    };
+  }
+
+  /**
+   * @param names The tag names.
+   * @return A predicate that accepts every tag except the named tags.
+   */
+  public static CompiledTagPredicate deny(String... names) {
+    return deny(Arrays.asList(names));
+  }
+
+  /**
+   * @param names The tag names.
+   * @return A predicate that accepts every tag except the named tags.
+   */
+  public static CompiledTagPredicate deny(Collection<String> names) {
+    return new CompiledTagPredicate(bits(names, true), true, Integer.MAX_VALUE, CompiledTagPredicate.newConditions(0));
+  }
+
+  /**
+   * @param maxDepth The maximum depth, a tag at the top level of the document has a depth of one.
+   * @return A predicate that accepts every tag nested at most the given number of tags deep.
+   */
+  public static CompiledTagPredicate maxDepth(int maxDepth) {
+    return all().withMaxDepth(maxDepth);
+  }
+
+  private static long[] bits(Collection<String> names, boolean deny) {
+    int[] ids = new int[names.size()];
+    int max = -1;
+    int index = 0;
+    for (String name : names) {
+      ids[index] = TagNames.intern(Objects.requireNonNull(name, "Tag names must not be null"));
+      max = Math.max(max, ids[index++]);
+    }
+
+    long[] bits = new long[max < 0 ? 0 : (max >>> 6) + 1];
+    if (deny) {
+      Arrays.fill(bits, -1L);
+    }
+
+    for (int id : ids) {
+      if (deny) {
+        bits[id >>> 6] &= ~(1L << id);
+      } else {
+        bits[id >>> 6] |= 1L << id;
+      }
+    }
+    return bits;
+  }
+}
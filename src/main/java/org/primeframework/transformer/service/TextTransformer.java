@@ -15,10 +15,26 @@
  */
 package org.primeframework.transformer.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.Predicate;
 
+import org.primeframework.transformer.domain.BaseNode;
 import org.primeframework.transformer.domain.Document;
 import org.primeframework.transformer.domain.Node;
+import org.primeframework.transformer.domain.Rope;
+import org.primeframework.transformer.domain.SourceMap;
 import org.primeframework.transformer.domain.TagNode;
 import org.primeframework.transformer.domain.TextNode;
 
@@ -30,50 +46,268 @@ import org.primeframework.transformer.domain.TextNode;
  *     Document document = new Document("[b] Hello World![/b]")
  *     new TextTransformer().transform(document, null, null, null) == " Hello World!"
  * </pre>
+ * <p>
+ * When constructed with a {@link ForkJoinPool}, documents larger than the parallel threshold are rendered in parallel
+ * the same way as the {@link FreeMarkerTransformer}. In this mode the {@link NodeConsumer} and {@link
+ * TransformFunction} are called concurrently from the pool threads and must be thread safe.
  *
  * @author Daniel DeGroff
  */
-public class TextTransformer implements Transformer {
+public class TextTransformer implements PreviewTransformer, SourceMapTransformer {
+  /**
+   * The maximum number of nested levels at which rendering is forked.
+   */
+  private static final int MAX_FORK_DEPTH = 16;
+
+  private final int parallelThreshold;
+
+  private final ForkJoinPool pool;
+
+  public TextTransformer() {
+    this(null, 0);
+  }
+
+  /**
+   * @param pool              The pool used to render in parallel, or null to always render on the calling thread.
+   * @param parallelThreshold The size of the document source, in characters, at which rendering is split into
+   *                          parallel tasks.
+   */
+  public TextTransformer(ForkJoinPool pool, int parallelThreshold) {
+    if (pool != null && parallelThreshold <= 0) {
+      throw new IllegalArgumentException("The parallel threshold must be greater than zero");
+    }
+
+    this.pool = pool;
+    this.parallelThreshold = parallelThreshold;
+  }
+
   @Override
   public String transform(Document document, Predicate<TagNode> transformPredicate, TransformFunction transformFunction,
                           NodeConsumer nodeConsumer) throws TransformException {
+    if (pool != null && document.length() >= parallelThreshold) {
+      return pool.invoke(new RenderTask(document.source, document.children, true, transformPredicate, transformFunction,
+          nodeConsumer, 0));
+    }
+
+    return transformToRope(document, transformPredicate, transformFunction, nodeConsumer).toString();
+  }
+
+  @Override
+  public void transform(Document document, Predicate<TagNode> transformPredicate, TransformFunction transformFunction,
+                        NodeConsumer nodeConsumer, OutputStream out)
+      throws TransformException {
+    Objects.requireNonNull(out, "An output stream is required");
+    if (pool != null && document.length() >= parallelThreshold) {
+      PreviewTransformer.super.transform(document, transformPredicate, transformFunction, nodeConsumer, out);
+      return;
+    }
+
+    // The slices of the rope are encoded straight from the document source
+    Rope rope = transformToRope(document, transformPredicate, transformFunction, nodeConsumer);
+    try {
+      Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+      rope.writeTo(writer);
+      writer.flush();
+    } catch (IOException e) {
+      throw new TransformException("Failed to write the transformed document", e);
+    }
+  }
+
+  @Override
+  public String transformPreview(Document document, Predicate<TagNode> transformPredicate,
+                                 TransformFunction transformFunction, int budget, String ellipsis)
+      throws TransformException {
+    Rope build = new Rope(document.source);
+    render(document.children, build, transformPredicate, transformFunction, null, new PreviewBudget(budget, ellipsis),
+        null, -1);
+    return build.toString();
+  }
+
+  /**
+   * Transform the document into a rope. Text that is not changed by the transform function and tags that are not
+   * transformed are slices of the document source rather than copies, so a mostly text document can be written out
+   * with almost no copying. The rope is always built on the calling thread.
+   *
+   * @param document           The document to transform.
+   * @param transformPredicate This predicate will be evaluated on each {@link TagNode}. If it evaluates to false, the
+   *                           node will not be transformed.
+   * @param transformFunction  A function that can be optionally provided to transform text nodes.
+   * @param nodeConsumer       A consumer that accepts each node as they are traversed during the transformation.
+   * @return The result as a rope over the document source.
+   * @throws TransformException If the transformation fails for any reason.
+   */
+  public Rope transformToRope(Document document, Predicate<TagNode> transformPredicate,
+                              TransformFunction transformFunction, NodeConsumer nodeConsumer)
+      throws TransformException {
     // Build the plain text version of the document
-    StringBuilder build = new StringBuilder();
-    recurse(document, build, transformPredicate, transformFunction, nodeConsumer);
+    Rope build = new Rope(document.source);
+    render(document.children, build, transformPredicate, transformFunction, nodeConsumer, null, null, -1);
+    return build;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The document is always rendered on the calling thread.
+   */
+  @Override
+  public String transformWithSourceMap(Document document, Predicate<TagNode> transformPredicate,
+                                       TransformFunction transformFunction, NodeConsumer nodeConsumer,
+                                       SourceMap sourceMap)
+      throws TransformException {
+    Objects.requireNonNull(sourceMap, "A source map is required");
+    Rope build = new Rope(document.source);
+    render(document.children, build, transformPredicate, transformFunction, nodeConsumer, null, sourceMap, -1);
     return build.toString();
   }
 
-  private void recurse(Node node, StringBuilder build, Predicate<TagNode> transformPredicate, TransformFunction transformFunction,
-                       NodeConsumer nodeConsumer) throws TransformException {
-    if (node instanceof TextNode) {
-      TextNode textNode = (TextNode) node;
-      String text = textNode.getBody();
-      if (transformFunction != null) {
-        text = transformFunction.transform(textNode, text);
+  /**
+   * Renders the nodes into the rope. The tree is walked using an explicit stack of the children still to be visited
+   * at each level rather than recursion, so the depth of the document is not limited by the size of the thread stack.
+   *
+   * @param preview   The budget when rendering a preview, otherwise null. Rendering stops once the preview is
+   *                  truncated.
+   * @param sourceMap The source map to add the segments to, may be null.
+   * @param forkDepth The number of times the rendering has been forked, or -1 when rendering sequentially.
+   */
+  private void render(List<Node> nodes, Rope build, Predicate<TagNode> transformPredicate,
+                      TransformFunction transformFunction, NodeConsumer nodeConsumer, PreviewBudget preview,
+                      SourceMap sourceMap, int forkDepth)
+      throws TransformException {
+    Deque<Iterator<Node>> stack = new ArrayDeque<>();
+    stack.push(nodes.iterator());
+    while (!stack.isEmpty() && (preview == null || !preview.truncated)) {
+      Iterator<Node> iterator = stack.peek();
+      if (!iterator.hasNext()) {
+        stack.pop();
+        continue;
       }
 
-      if (nodeConsumer != null) {
-        nodeConsumer.accept(node, text, text);
-      }
+      Node node = iterator.next();
+      if (node instanceof TextNode) {
+        TextNode textNode = (TextNode) node;
+        int begin = build.length();
+        if (transformFunction == null && nodeConsumer == null && preview == null) {
+          build.appendSlice(textNode.begin, textNode.end);
+          if (sourceMap != null) {
+            sourceMap.add(begin, build.length(), textNode.begin, textNode.end);
+          }
+          continue;
+        }
 
-      build.append(text);
-    } else if (node instanceof Document) {
-      Document document = (Document) node;
-      for (Node child : document.children) {
-        recurse(child, build, transformPredicate, transformFunction, nodeConsumer);
-      }
-    } else if (node instanceof TagNode) {
-      TagNode tagNode = (TagNode) node;
-      if (transformPredicate.test(tagNode)) {
-        // Transform the children first
-        for (Node child : tagNode.children) {
-          recurse(child, build, transformPredicate, transformFunction, nodeConsumer);
+        String original = textNode.getBody();
+        String text = original;
+        if (preview != null) {
+          text = preview.take(text);
         }
+
+        if (transformFunction != null) {
+          text = transformFunction.transform(textNode, text);
+        }
+
+        // Functions like the HTMLTransformFunction return the original when nothing changed
+        if (text == original) {
+          build.appendSlice(textNode.begin, textNode.end);
+        } else {
+          build.append(text);
+        }
+
+        if (sourceMap != null) {
+          sourceMap.addText(begin, text, textNode.begin, textNode.end, textNode.document.source);
+        }
+
+        if (nodeConsumer != null) {
+          nodeConsumer.accept(node, build, begin, build.length(), text);
+        }
+
+        if (preview != null && preview.truncated) {
+          build.append(preview.ellipsis);
+        }
+      } else if (node instanceof TagNode) {
+        TagNode tagNode = (TagNode) node;
+        if (transformPredicate.test(tagNode)) {
+          // Transform the children first
+          if (forkDepth >= 0 && forkDepth < MAX_FORK_DEPTH && tagNode.length() >= parallelThreshold &&
+              tagNode.children.size() > 1) {
+            renderForked(tagNode.children, build, transformPredicate, transformFunction, nodeConsumer, forkDepth + 1);
+          } else {
+            stack.push(tagNode.children.iterator());
+          }
+        } else if (preview != null) {
+          build.append(preview.takeWhole(tagNode.getRawString()));
+          if (preview.truncated) {
+            build.append(preview.ellipsis);
+          }
+        } else {
+          int begin = build.length();
+          build.appendSlice(tagNode.begin, tagNode.end);
+          if (sourceMap != null) {
+            sourceMap.add(begin, build.length(), tagNode.begin, tagNode.end);
+          }
+        }
+      } else {
+        throw new TransformException("Invalid node class [" + node.getClass() + "]");
+      }
+    }
+  }
+
+  /**
+   * Forks the rendering of the sibling nodes into tasks of roughly the parallel threshold size.
+   */
+  private void renderForked(List<Node> nodes, Rope build, Predicate<TagNode> transformPredicate,
+                            TransformFunction transformFunction, NodeConsumer nodeConsumer, int forkDepth) {
+    char[] source = ((BaseNode) nodes.get(0)).document.source;
+    List<RenderTask> tasks = ParallelSupport.partition(nodes, parallelThreshold,
+        (chunk) -> new RenderTask(source, chunk, false, transformPredicate, transformFunction, nodeConsumer, forkDepth));
+    ForkJoinTask.invokeAll(tasks);
+    for (RenderTask task : tasks) {
+      build.append(task.join());
+    }
+  }
+
+  /**
+   * Renders a chunk of sibling nodes as a fork-join task.
+   */
+  private class RenderTask extends RecursiveTask<String> {
+    private static final long serialVersionUID = 1L;
+
+    private final int forkDepth;
+
+    private final NodeConsumer nodeConsumer;
+
+    private final List<Node> nodes;
+
+    private final char[] source;
+
+    private final boolean split;
+
+    private final TransformFunction transformFunction;
+
+    private final Predicate<TagNode> transformPredicate;
+
+    /**
+     * @param split When true the nodes are split into smaller tasks, otherwise they are rendered by this task.
+     */
+    RenderTask(char[] source, List<Node> nodes, boolean split, Predicate<TagNode> transformPredicate,
+               TransformFunction transformFunction, NodeConsumer nodeConsumer, int forkDepth) {
+      this.source = source;
+      this.nodes = nodes;
+      this.split = split;
+      this.transformPredicate = transformPredicate;
+      this.transformFunction = transformFunction;
+      this.nodeConsumer = nodeConsumer;
+      this.forkDepth = forkDepth;
+    }
+
+    @Override
+    protected String compute() {
+      Rope build = new Rope(source);
+      if (split && nodes.size() > 1) {
+        renderForked(nodes, build, transformPredicate, transformFunction, nodeConsumer, forkDepth + 1);
       } else {
-        build.append(tagNode.getRawString());
+        render(nodes, build, transformPredicate, transformFunction, nodeConsumer, null, null, forkDepth);
       }
-    } else {
-      throw new TransformException("Invalid node class [" + node.getClass() + "]");
+      return build.toString();
     }
   }
 }
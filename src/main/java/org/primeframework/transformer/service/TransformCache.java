@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.domain.TagNode;
+import org.primeframework.transformer.service.Transformer.TransformFunction;
+
+/**
+ * Caches the result of parsing and transforming a source string so that the same source rendered with the same
+ * configuration is only parsed and transformed once.
+ * <p>
+ * Entries are keyed by a fingerprint of the source plus the identity of the tag attributes, transform predicate and
+ * transform function. Because the identity is used, callers should hold on to a single instance of each for the life
+ * of the cache. A transform function that records state, such as an {@link TransformFunction.HTMLTransformFunction}
+ * built with {@link org.primeframework.transformer.domain.Offsets}, should not be used with the cache because the state
+ * is only captured when the result is first rendered.
+ * <p>
+ * Concurrent requests for the same missing entry are coalesced, only one thread renders the result and the others wait
+ * for it.
+ * <p>
+ * Example:
+ * <pre>
+ *   TransformCache cache = new TransformCache(new BBCodeParser(), new BBCodeToHTMLTransformer());
+ *   String html = cache.transform(source, attributes, predicate, function);
+ * </pre>
+ *
+ * @author Daniel DeGroff
+ */
+public class TransformCache {
+  /**
+   * The default maximum weight of the {@link LRUStore}, measured in characters of source and result.
+   */
+  public static final long DEFAULT_MAX_WEIGHT = 16 * 1024 * 1024;
+
+  private final LongAdder coalesced = new LongAdder();
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder loadFailures = new LongAdder();
+
+  private final Map<Key, CompletableFuture<String>> loading = new ConcurrentHashMap<>();
+
+  private final LongAdder misses = new LongAdder();
+
+  private final Parser parser;
+
+  private final Store store;
+
+  private final Transformer transformer;
+
+  public TransformCache(Parser parser, Transformer transformer) {
+    this(parser, transformer, new LRUStore(DEFAULT_MAX_WEIGHT));
+  }
+
+  public TransformCache(Parser parser, Transformer transformer, Store store) {
+    Objects.requireNonNull(parser, "A parser is required");
+    Objects.requireNonNull(transformer, "A transformer is required");
+    Objects.requireNonNull(store, "A store is required");
+    this.parser = parser;
+    this.transformer = transformer;
+    this.store = store;
+  }
+
+  /**
+   * Removes all of the entries from the cache.
+   */
+  public void invalidateAll() {
+    store.clear();
+  }
+
+  /**
+   * @return A snapshot of the cache statistics.
+   */
+  public Stats stats() {
+    return new Stats(hits.sum(), misses.sum(), coalesced.sum(), loadFailures.sum());
+  }
+
+  /**
+   * Parse and transform the source, or return the cached result of a previous call with the same source and
+   * configuration.
+   *
+   * @param source             The source string.
+   * @param tagAttributes      The tag attributes passed to the parser, may be null.
+   * @param transformPredicate The transform predicate passed to the transformer.
+   * @param transformFunction  The transform function passed to the transformer, may be null.
+   *
+   * @return The transformer result.
+   *
+   * @throws TransformException If the transformation fails for any reason.
+   */
+  public String transform(String source, Map<String, TagAttributes> tagAttributes,
+                          Predicate<TagNode> transformPredicate, TransformFunction transformFunction)
+      throws TransformException {
+    Key key = new Key(source, tagAttributes, transformPredicate, transformFunction);
+    String result = store.get(key);
+    if (result != null) {
+      hits.increment();
+      return result;
+    }
+
+    CompletableFuture<String> future = new CompletableFuture<>();
+    CompletableFuture<String> existing = loading.putIfAbsent(key, future);
+    if (existing != null) {
+      coalesced.increment();
+      try {
+        return existing.join();
+      } catch (CompletionException e) {
+        throw new TransformException("Transformation failed for a coalesced request", e.getCause());
+      }
+    }
+
+    misses.increment();
+    try {
+      // Another thread may have finished loading between the store lookup and claiming the key
+      result = store.get(key);
+      if (result == null) {
+        result = transformer.transform(parser.buildDocument(source, tagAttributes), transformPredicate,
+            transformFunction, null);
+        store.put(key, result);
+      }
+
+      future.complete(result);
+      return result;
+    } catch (Throwable t) {
+      // Errors too (i.e. a StackOverflowError), otherwise the coalesced callers would wait forever
+      loadFailures.increment();
+      future.completeExceptionally(t);
+      throw t;
+    } finally {
+      loading.remove(key, future);
+    }
+  }
+
+  /**
+   * The cache SPI. Implementations must be thread safe.
+   *
+   * @author Daniel DeGroff
+   */
+  public interface Store {
+    /**
+     * Removes all of the entries.
+     */
+    void clear();
+
+    /**
+     * @param key The key.
+     * @return The cached result or null if there isn't one.
+     */
+    String get(Key key);
+
+    /**
+     * Stores the result. The store is free to evict this or any other entry at any time.
+     *
+     * @param key    The key.
+     * @param result The transformer result.
+     */
+    void put(Key key, String result);
+  }
+
+  /**
+   * The cache key. The source is retained so that fingerprint collisions never return the wrong result.
+   *
+   * @author Daniel DeGroff
+   */
+  public static final class Key {
+    public final long fingerprint;
+
+    public final String source;
+
+    public final Map<String, TagAttributes> tagAttributes;
+
+    public final TransformFunction transformFunction;
+
+    public final Predicate<TagNode> transformPredicate;
+
+    private final int hash;
+
+    public Key(String source, Map<String, TagAttributes> tagAttributes, Predicate<TagNode> transformPredicate,
+               TransformFunction transformFunction) {
+      Objects.requireNonNull(source, "A source is required");
+      this.source = source;
+      this.tagAttributes = tagAttributes;
+      this.transformPredicate = transformPredicate;
+      this.transformFunction = transformFunction;
+      this.fingerprint = fingerprint(source);
+
+      int result = Long.hashCode(fingerprint);
+      result = 31 * result + System.identityHashCode(tagAttributes);
+      result = 31 * result + System.identityHashCode(transformPredicate);
+      result = 31 * result + System.identityHashCode(transformFunction);
+      this.hash = result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return fingerprint == key.fingerprint &&
+          tagAttributes == key.tagAttributes &&
+          transformPredicate == key.transformPredicate &&
+          transformFunction == key.transformFunction &&
+          source.equals(key.source);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    /**
+     * @return The weight of this key, this is the length of the source.
+     */
+    public int weight() {
+      return source.length();
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the source.
+     *
+     * @param source The source.
+     * @return The fingerprint.
+     */
+    private static long fingerprint(String source) {
+      long hash = 0xcbf29ce484222325L;
+      for (int i = 0; i < source.length(); i++) {
+        hash ^= source.charAt(i);
+        hash *= 0x100000001b3L;
+      }
+      return hash;
+    }
+  }
+
+  /**
+   * A bounded, in-process least recently used store. The size of the store is bounded by the total number of
+   * characters of the sources and results it holds rather than the number of entries.
+   *
+   * @author Daniel DeGroff
+   */
+  public static class LRUStore implements Store {
+    private final LinkedHashMap<Key, String> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final long maxWeight;
+
+    private long evictions;
+
+    private long weight;
+
+    public LRUStore(long maxWeight) {
+      if (maxWeight <= 0) {
+        throw new IllegalArgumentException("The maximum weight must be greater than zero");
+      }
+      this.maxWeight = maxWeight;
+    }
+
+    @Override
+    public synchronized void clear() {
+      entries.clear();
+      weight = 0;
+    }
+
+    /**
+     * @return The number of entries that have been evicted to stay under the maximum weight.
+     */
+    public synchronized long evictions() {
+      return evictions;
+    }
+
+    @Override
+    public synchronized String get(Key key) {
+      return entries.get(key);
+    }
+
+    @Override
+    public synchronized void put(Key key, String result) {
+      long entryWeight = (long) key.weight() + result.length();
+      if (entryWeight > maxWeight) {
+        return;
+      }
+
+      String previous = entries.put(key, result);
+      if (previous != null) {
+        weight -= key.weight() + previous.length();
+      }
+      weight += entryWeight;
+
+      Iterator<Map.Entry<Key, String>> iterator = entries.entrySet().iterator();
+      while (weight > maxWeight && iterator.hasNext()) {
+        Map.Entry<Key, String> eldest = iterator.next();
+        weight -= eldest.getKey().weight() + eldest.getValue().length();
+        iterator.remove();
+        evictions++;
+      }
+    }
+
+    /**
+     * @return The number of entries in the store.
+     */
+    public synchronized int size() {
+      return entries.size();
+    }
+
+    /**
+     * @return The current weight of the store.
+     */
+    public synchronized long weight() {
+      return weight;
+    }
+  }
+
+  /**
+   * An immutable snapshot of the cache statistics.
+   *
+   * @author Daniel DeGroff
+   */
+  public static final class Stats {
+    /**
+     * The number of requests that waited on another thread rendering the same entry.
+     */
+    public final long coalesced;
+
+    /**
+     * The number of requests returned directly from the store.
+     */
+    public final long hits;
+
+    /**
+     * The number of renders that failed.
+     */
+    public final long loadFailures;
+
+    /**
+     * The number of requests that rendered the result.
+     */
+    public final long misses;
+
+    public Stats(long hits, long misses, long coalesced, long loadFailures) {
+      this.hits = hits;
+      this.misses = misses;
+      this.coalesced = coalesced;
+      this.loadFailures = loadFailures;
+    }
+
+    /**
+     * @return The ratio of requests that did not have to render the result, or 1.0 when there haven't been any
+     *     requests.
+     */
+    public double hitRate() {
+      long total = hits + misses + coalesced;
+      return total == 0 ? 1.0 : (double) (hits + coalesced) / total;
+    }
+
+    @Override
+    public String toString() {
+      return "Stats{" +
+          "hits=" + hits +
+          ", misses=" + misses +
+          ", coalesced=" + coalesced +
+          ", loadFailures=" + loadFailures +
+          "}";
+    }
+  }
+}
@@ -15,6 +15,9 @@
  */
 package org.primeframework.transformer.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.function.Predicate;
 
@@ -48,6 +51,32 @@ public interface Transformer {
                    NodeConsumer nodeConsumer)
       throws TransformException;
 
+  /**
+   * Transform the document and write the result to the output stream encoded as UTF-8. Implementations may write the
+   * result as it is produced rather than building the entire result in memory first. The output stream is flushed but
+   * not closed.
+   *
+   * @param document           The document to transform.
+   * @param transformPredicate This predicate will be evaluated on each {@link TagNode}. If it evaluates to false, the
+   *                           node will not be transformed.
+   * @param transformFunction  A function that can be optionally provided to transform text nodes.
+   * @param nodeConsumer       A consumer that accepts each node as they are traversed during the transformation.
+   * @param out                The output stream.
+   *
+   * @throws TransformException If the transformation fails for any reason, or writing to the output stream fails.
+   */
+  default void transform(Document document, Predicate<TagNode> transformPredicate, TransformFunction transformFunction,
+                         NodeConsumer nodeConsumer, OutputStream out)
+      throws TransformException {
+    String result = transform(document, transformPredicate, transformFunction, nodeConsumer);
+    try {
+      out.write(result.getBytes(StandardCharsets.UTF_8));
+      out.flush();
+    } catch (IOException e) {
+      throw new TransformException("Failed to write the transformed document", e);
+    }
+  }
+
   /**
    * Defines a consumer that accepts each node in the Document as they are transformed.
    *
@@ -62,6 +91,46 @@ public interface Transformer {
      * @param newBody The new body of the node that is the result of nested transformations.
      */
     void accept(Node node, String result, String newBody);
+
+    /**
+     * Accepts the given node and the position of its transformed result in the output being built. This is the method
+     * the transformers call, by default it builds the strings and calls {@link #accept(Node, String, String)}.
+     * <p>
+     * The output is a view of the transformer's buffer and is only valid during the call. Once the output has been
+     * written (see {@link Transformer#transform(Document, Predicate, TransformFunction, NodeConsumer, OutputStream)}),
+     * the buffer only contains the output that hasn't been written yet and the positions are relative to it.
+     * <p>
+     * The output isn't always the buffer of the entire transformation. When rendering is forked (see
+     * {@link TextTransformer#TextTransformer(java.util.concurrent.ForkJoinPool, int)}) each task renders into a buffer
+     * of its own, and the FreeMarker transformer renders the body of a tag into a region that the template then moves.
+     * The positions locate the result within the output given with the call, they aren't positions in the final
+     * output. Use {@link SourceMapTransformer} to map the final output back to the document.
+     *
+     * @param node    The node.
+     * @param output  The output being built.
+     * @param begin   The index in the output where the result of the node begins (inclusive).
+     * @param end     The index in the output where the result of the node ends (exclusive).
+     * @param newBody The new body of the node that is the result of nested transformations.
+     */
+    default void accept(Node node, CharSequence output, int begin, int end, CharSequence newBody) {
+      accept(node, output.subSequence(begin, end).toString(), newBody.toString());
+    }
+  }
+
+  /**
+   * A {@link NodeConsumer} that only receives positions and views, the transformers never build strings for it.
+   * Consumers that only count nodes or record positions should implement this interface.
+   *
+   * @author Daniel DeGroff
+   */
+  interface NodeRangeConsumer extends NodeConsumer {
+    @Override
+    void accept(Node node, CharSequence output, int begin, int end, CharSequence newBody);
+
+    @Override
+    default void accept(Node node, String result, String newBody) {
+      accept(node, result, 0, result.length(), newBody);
+    }
   }
 
   /**
@@ -87,9 +156,15 @@ public interface Transformer {
      * @author Daniel DeGroff
      */
     public static class HTMLTransformFunction implements TransformFunction {
-      private final Map<String, TagAttributes> attributes;
+      /**
+       * Characters that may need to be escaped, indexed by character. Anything greater than '&gt;' never needs to be
+       * escaped.
+       */
+      private static final boolean[] ESCAPABLE = new boolean['>' + 1];
 
-      private final Offsets offsets;
+      protected final Map<String, TagAttributes> attributes;
+
+      protected final Offsets offsets;
 
       public HTMLTransformFunction() {
         this.offsets = null;
@@ -108,44 +183,68 @@ public interface Transformer {
 
       @Override
       public String transform(TextNode node, String original) {
-        StringBuilder build = new StringBuilder();
-        char[] ca = original.toCharArray();
-        for (int i = 0; i < ca.length; i++) {
-          switch (ca[i]) {
+        int length = original.length();
+        int first = indexOfEscapable(original, 0, length, true);
+        if (first == length) {
+          return original;
+        }
+
+        boolean transformNewLines = transformNewLines(node, original, first, length);
+        if (!transformNewLines) {
+          first = indexOfEscapable(original, first, length, false);
+          if (first == length) {
+            return original;
+          }
+        }
+
+        StringBuilder build = new StringBuilder(length + 16);
+        build.append(original, 0, first);
+        escape(node, original, first, length, transformNewLines, build);
+        return build.toString();
+      }
+
+      /**
+       * Escapes the characters of the original String between the start and end index and appends the result. Runs of
+       * characters that don't need escaping are appended in bulk.
+       *
+       * @param node              The node.
+       * @param original          The original body of the node.
+       * @param start             The index to start escaping at (inclusive).
+       * @param end               The index to stop escaping at (exclusive).
+       * @param transformNewLines Whether or not newlines are transformed to &lt;br&gt;.
+       * @param build             The builder to append to.
+       */
+      protected void escape(TextNode node, String original, int start, int end, boolean transformNewLines,
+                            StringBuilder build) {
+        int run = start;
+        for (int i = start; i < end; i++) {
+          char c = original.charAt(i);
+          if (c > '>' || !ESCAPABLE[c]) {
+            continue;
+          }
+
+          String replacement;
+          switch (c) {
             case '&':
-              build.append("&amp;");
-              if (offsets != null) {
-                offsets.add(node.begin + i, 4);
-              }
+              replacement = "&amp;";
               break;
             case '<':
-              build.append("&lt;");
-              if (offsets != null) {
-                offsets.add(node.begin + i, 3);
-              }
+              replacement = "&lt;";
               break;
             case '>':
-              build.append("&gt;");
-              if (offsets != null) {
-                offsets.add(node.begin + i, 3);
-              }
+              replacement = "&gt;";
               break;
             case '"':
-              build.append("&quot;");
-              if (offsets != null) {
-                offsets.add(node.begin + i, 5);
-              }
+              replacement = "&quot;";
               break;
-            case '\n':
-            case '\r':
-              String parentTagNode = node.parent != null ? node.parent.getName().toLowerCase() : null;
-              if (parentTagNode != null && attributes != null && attributes.containsKey(parentTagNode) &&
-                  !attributes.get(parentTagNode).transformNewLines) {
-                build.append(ca[i]);
-                break;
+            default:
+              // '\n' or '\r'
+              if (!transformNewLines) {
+                continue;
               }
 
-              if (i + 1 < ca.length && ((ca[i] == '\n' && ca[i + 1] == '\r') || (ca[i] == '\r' && ca[i + 1] == '\n'))) {
+              build.append(original, run, i).append("<br>");
+              if (i + 1 < end && ((c == '\n' && original.charAt(i + 1) == '\r') || (c == '\r' && original.charAt(i + 1) == '\n'))) {
                 if (offsets != null) {
                   offsets.add(node.begin + i, 2);
                 }
@@ -155,14 +254,72 @@ public interface Transformer {
                 offsets.add(node.begin + i, 3);
               }
 
-              build.append("<br>");
-              break;
-            default:
-              build.append(ca[i]);
+              run = i + 1;
+              continue;
           }
+
+          build.append(original, run, i).append(replacement);
+          if (offsets != null) {
+            offsets.add(node.begin + i, replacement.length() - 1);
+          }
+          run = i + 1;
         }
 
-        return build.toString();
+        build.append(original, run, end);
+      }
+
+      /**
+       * Find the first character that needs to be escaped.
+       *
+       * @param original The original body of the node.
+       * @param start    The index to start looking at (inclusive).
+       * @param end      The index to stop looking at (exclusive).
+       * @param newLines Whether or not newlines should be considered escapable.
+       * @return The index of the first escapable character, or the end index if there isn't one.
+       */
+      protected int indexOfEscapable(String original, int start, int end, boolean newLines) {
+        for (int i = start; i < end; i++) {
+          char c = original.charAt(i);
+          if (c <= '>' && ESCAPABLE[c] && (newLines || (c != '\n' && c != '\r'))) {
+            return i;
+          }
+        }
+        return end;
+      }
+
+      /**
+       * Resolves the newline policy for the node. The parent tag attributes are only consulted when there is a newline
+       * in the text, so this is cheap to call once per node.
+       *
+       * @param node     The node.
+       * @param original The original body of the node.
+       * @param start    The index to start looking for newlines at (inclusive).
+       * @param end      The index to stop looking for newlines at (exclusive).
+       * @return True if newlines in the text should be transformed.
+       */
+      protected boolean transformNewLines(TextNode node, String original, int start, int end) {
+        if (attributes == null || node.parent == null) {
+          return true;
+        }
+
+        int newLine = original.indexOf('\n', start);
+        int carriageReturn = original.indexOf('\r', start);
+        if ((newLine == -1 || newLine >= end) && (carriageReturn == -1 || carriageReturn >= end)) {
+          return true;
+        }
+
+        String name = node.parent.getName();
+        TagAttributes tagAttributes = name != null ? attributes.get(name.toLowerCase()) : null;
+        return tagAttributes == null || tagAttributes.transformNewLines;
+      }
+
+      static {
+        ESCAPABLE['&'] = true;
+        ESCAPABLE['<'] = true;
+        ESCAPABLE['>'] = true;
+        ESCAPABLE['"'] = true;
+        ESCAPABLE['\n'] = true;
+        ESCAPABLE['\r'] = true;
       }
     }
   }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.jackson;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.Node;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.domain.TagNode;
+import org.primeframework.transformer.domain.TextNode;
+import org.primeframework.transformer.service.BBCodeParser;
+import org.primeframework.transformer.service.BBCodeToHTMLTransformer;
+import org.primeframework.transformer.service.HTMLParser;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests the DocumentModule.
+ *
+ * @author Daniel DeGroff
+ */
+public class DocumentModuleTest {
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  private final ObjectMapper mapper = new ObjectMapper().registerModule(new DocumentModule());
+
+  @DataProvider
+  public static Object[][] bbcode() {
+    return new Object[][]{
+        {""},
+        {"Hello \"World\""},
+        {"a [b]bold [i]italic[/i][/b] [url=http://foo.com]foo[/url] [font size=\"10\" family=\"verdana\"]x[/font]"},
+        {"[list][*]one[*]two[/list][code]do not [b]parse[/b][/code] [b]unclosed [:)]"}
+    };
+  }
+
+  @Test
+  public void deep() throws Exception {
+    int depth = 5_000;
+    StringBuilder build = new StringBuilder();
+    for (int i = 0; i < depth; i++) {
+      build.append("[b]");
+    }
+    build.append("x");
+    for (int i = 0; i < depth; i++) {
+      build.append("[/b]");
+    }
+
+    Document document = new BBCodeParser().buildDocument(build.toString(), attributes);
+    Document read = mapper.readValue(mapper.writeValueAsString(document), Document.class);
+    assertEquals(read.getChildTagNodes().size(), depth);
+    assertEquals(new BBCodeToHTMLTransformer().transform(read, (node) -> true, null, null),
+        new BBCodeToHTMLTransformer().transform(document, (node) -> true, null, null));
+  }
+
+  @Test
+  public void html() throws Exception {
+    Document document = new HTMLParser().buildDocument("<div class=\"a\" id=main><p>One<br />two <input disabled></p></div>", attributes);
+    Document read = mapper.readValue(mapper.writeValueAsString(document), Document.class);
+    assertEquals(read, document);
+    assertEquals(read.getChildTagNodes().get(0).attributes, document.getChildTagNodes().get(0).attributes);
+  }
+
+  @Test
+  public void invalid() throws Exception {
+    assertInvalid("{\"children\": []}", "source");
+    assertInvalid("{\"source\": \"a\", \"children\": [{\"begin\": 0, \"type\": \"text\"}]}", "type must be the first");
+    assertInvalid("{\"source\": \"a\", \"children\": [{\"type\": \"comment\"}]}", "Invalid node type [comment]");
+    assertInvalid("{\"source\": \"a\", \"children\": {}}", "Expected [START_ARRAY]");
+  }
+
+  @Test
+  public void json() throws Exception {
+    Document document = new BBCodeParser().buildDocument("a [b]b[/b]", attributes);
+    assertEquals(mapper.writeValueAsString(document), "{\"source\":\"a [b]b[/b]\",\"offsets\":[[2,3],[6,4]],\"attributeOffsets\":[]," +
+        "\"children\":[{\"type\":\"text\",\"begin\":0,\"end\":2},{\"type\":\"tag\",\"begin\":2,\"end\":10,\"nameEnd\":4,\"bodyBegin\":5,\"bodyEnd\":6,\"name\":\"b\",\"children\":[" +
+        "{\"type\":\"text\",\"begin\":5,\"end\":6}]}]}");
+
+    // Unknown fields are skipped and the remaining fields of a tag may follow its children
+    Document read = mapper.readValue("{\"version\": {\"a\": [1]}, \"source\": \"a [b]b[/b]\", \"children\": [" +
+        "{\"type\": \"tag\", \"begin\": 2, \"children\": [{\"type\": \"text\", \"begin\": 5, \"end\": 6, \"extra\": null}], \"end\": 10, \"nameEnd\": 4, \"bodyBegin\": 5, \"bodyEnd\": 6}]}", Document.class);
+    assertEquals(read.children.size(), 1);
+    TagNode bold = (TagNode) read.children.get(0);
+    assertEquals(bold.getName(), "b");
+    assertEquals(bold.end, 10);
+    assertEquals(((TextNode) bold.children.get(0)).getBody(), "b");
+  }
+
+  @Test(dataProvider = "bbcode")
+  public void roundTrip(String source) throws Exception {
+    Document document = new BBCodeParser().buildDocument(source, attributes);
+    Document read = mapper.readValue(mapper.writeValueAsBytes(document), Document.class);
+    assertEquals(read, document);
+    assertEquals(read.offsets, document.offsets);
+    assertEquals(read.attributeOffsets, document.attributeOffsets);
+
+    // Parent links
+    for (Node node : read.preOrder()) {
+      TagNode parent = node instanceof TagNode ? ((TagNode) node).parent : ((TextNode) node).parent;
+      if (parent != null) {
+        assertTrue(parent.children.stream().anyMatch((child) -> child == node));
+        assertSame(parent.document, read);
+      }
+    }
+  }
+
+  private void assertInvalid(String json, String message) throws Exception {
+    try {
+      mapper.readValue(json, Document.class);
+      fail("Expected an exception");
+    } catch (JsonMappingException e) {
+      assertTrue(e.getMessage().contains(message), e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.Offsets;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests the AutoLinkTransformFunction.
+ *
+ * @author Daniel DeGroff
+ */
+public class AutoLinkTransformFunctionTest {
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  @DataProvider
+  public static Object[][] links() {
+    return new Object[][]{
+        {"Go to http://foo.com now", "Go to <a href=\"http://foo.com\">http://foo.com</a> now"},
+        {"https://foo.com/a?b=1&c=2.", "<a href=\"https://foo.com/a?b=1&amp;c=2\">https://foo.com/a?b=1&amp;c=2</a>."},
+        {"(see www.foo.com/bar)", "(see <a href=\"http://www.foo.com/bar\">www.foo.com/bar</a>)"},
+        {"http://en.wikipedia.org/wiki/Foo_(bar)", "<a href=\"http://en.wikipedia.org/wiki/Foo_(bar)\">http://en.wikipedia.org/wiki/Foo_(bar)</a>"},
+        {"mail bob.smith@example.com, thanks", "mail <a href=\"mailto:bob.smith@example.com\">bob.smith@example.com</a>, thanks"},
+        {"Not a link: xhttp://foo.com http:// www. a@b @foo.com foo@bar.c", "Not a link: xhttp://foo.com http:// www. a@b @foo.com foo@bar.c"},
+        {"<b>http://foo.com</b>", "&lt;b&gt;<a href=\"http://foo.com\">http://foo.com</a>&lt;/b&gt;"},
+        {"[url]http://foo.com[/url] http://bar.com", "<a       href=\"http://foo.com\" >http://foo.com</a> <a href=\"http://bar.com\">http://bar.com</a>"},
+        {"[code]http://foo.com[/code]", "<pre style=\"margin: 5px 15px 5px 15px; border: 1px dashed #2f6fab; font-family: monospace; padding: 3px 5px 3px 5px; background-color: #f9f9f9;\">http://foo.com</pre>"},
+        {"[b]line http://foo.com\nnext[/b]", "<strong>line <a href=\"http://foo.com\">http://foo.com</a><br>next</strong>"},
+    };
+  }
+
+  @Test(dataProvider = "links")
+  public void autoLink(String source, String expected) {
+    Document document = new BBCodeParser().buildDocument(source, attributes);
+    String actual = new BBCodeToHTMLTransformer().transform(document, (node) -> true, new AutoLinkTransformFunction(attributes), null);
+    assertEquals(actual, expected);
+  }
+
+  @Test
+  public void linear() {
+    // Inputs that cause regular expressions to backtrack
+    StringBuilder build = new StringBuilder();
+    for (int i = 0; i < 200_000; i++) {
+      build.append("a.");
+    }
+    build.append("@@http://(((((");
+    for (int i = 0; i < 200_000; i++) {
+      build.append("a@-");
+    }
+
+    Document document = new BBCodeParser().buildDocument(build.toString(), attributes);
+    long start = System.currentTimeMillis();
+    new TextTransformer().transform(document, (node) -> true, new AutoLinkTransformFunction(), null);
+    assertTrue(System.currentTimeMillis() - start < 5_000);
+  }
+
+  @Test
+  public void offsets() {
+    Document document = new BBCodeParser().buildDocument("a http://x.io&b", attributes);
+    Offsets offsets = new Offsets();
+    String actual = new TextTransformer().transform(document, (node) -> true, new AutoLinkTransformFunction(offsets, attributes), null);
+    assertEquals(actual, "a <a href=\"http://x.io&amp;b\">http://x.io&amp;b</a>");
+
+    Offsets expected = new Offsets();
+    expected.add(2, 28); // <a href="http://x.io&amp;b">
+    expected.add(13, 4); // &
+    expected.add(15, 4); // </a>
+    assertEquals(offsets, expected);
+
+    // The closing anchor and the escaped character share a position
+    document = new BBCodeParser().buildDocument("a@b.io&", attributes);
+    offsets = new Offsets();
+    actual = new TextTransformer().transform(document, (node) -> true, new AutoLinkTransformFunction(offsets, attributes), null);
+    assertEquals(actual, "<a href=\"mailto:a@b.io\">a@b.io</a>&amp;");
+    assertEquals(offsets.computeOffsetFromIndex(6), 24 + 8);
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.service.Transformer.TransformFunction.HTMLTransformFunction;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests the BatchTransformer.
+ *
+ * @author Daniel DeGroff
+ */
+public class BatchTransformerTest {
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  @Test
+  public void failure() {
+    List<String> sources = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      sources.add(i == 7 ? "[foo]bar[/foo]" : "[b]" + i + "[/b]");
+    }
+
+    BatchTransformer batch = new BatchTransformer(new BBCodeParser(), new BBCodeToHTMLTransformer(true));
+    try {
+      batch.transform(sources, attributes, (node) -> true, null);
+      fail("Expected an exception");
+    } catch (TransformException e) {
+      assertEquals(e.getMessage(), "Transformation failed for the source at index [7]");
+    }
+  }
+
+  @Test
+  public void list() {
+    List<String> sources = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      sources.add("[b]" + i + "[/b] & [i]more[/i]");
+    }
+
+    BatchTransformer batch = new BatchTransformer(new BBCodeParser(), new BBCodeToHTMLTransformer());
+    List<String> results = batch.transform(sources, attributes, (node) -> true, new HTMLTransformFunction());
+    assertEquals(results.size(), 500);
+    for (int i = 0; i < 500; i++) {
+      assertEquals(results.get(i), "<strong>" + i + "</strong> &amp; <em>more</em>");
+    }
+  }
+
+  @Test
+  public void stream() {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      BatchTransformer batch = new BatchTransformer(new BBCodeParser(), new TextTransformer(), executor, 8);
+
+      List<String> results = new ArrayList<>();
+      BatchTransformer.Report report = batch.transform(IntStream.range(0, 1_000).mapToObj((i) -> "[b]" + i + "[/b]"),
+          attributes, (node) -> true, null, results::add);
+
+      assertEquals(results, IntStream.range(0, 1_000).mapToObj(String::valueOf).collect(Collectors.toList()));
+      assertEquals(report.documents, 1_000);
+      assertEquals(report.characters, results.stream().mapToInt((result) -> result.length() + 7).sum());
+      assertTrue(report.documentsPerSecond() > 0);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.service.Transformer.TransformFunction.HTMLTransformFunction;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests parsing and transforming documents nested deeper than the thread stack would allow using recursion.
+ *
+ * @author Daniel DeGroff
+ */
+public class DeepNestingTest {
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  /**
+   * Compares the sequential transformers on a shallow document. Run by hand to check for regressions.
+   */
+  @Test(enabled = false)
+  public void benchmark() {
+    StringBuilder source = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      source.append("Hello [b]World[/b] & [i]friends [u]of[/u][/i] the [url=http://foo.com]world[/url]\n");
+    }
+    Document document = new BBCodeParser().buildDocument(source.toString(), attributes);
+    Transformer html = new BBCodeToHTMLTransformer();
+    Transformer text = new TextTransformer();
+    HTMLTransformFunction function = new HTMLTransformFunction(null, attributes);
+
+    for (int round = 0; round < 5; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < 20_000; i++) {
+        html.transform(document, (node) -> true, function, null);
+      }
+      long htmlNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < 200_000; i++) {
+        text.transform(document, (node) -> true, function, null);
+      }
+      long textNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < 200_000; i++) {
+        new BBCodeParser().buildDocument(source.toString(), attributes);
+      }
+      long parseNanos = System.nanoTime() - start;
+
+      System.out.println("html [" + htmlNanos / 20_000 + "] ns/op, text [" + textNanos / 200_000 + "] ns/op, parse [" + parseNanos / 200_000 + "] ns/op");
+    }
+  }
+
+  @Test
+  public void html() throws Exception {
+    int depth = 5_000;
+    String result = runWithSmallStack(() -> {
+      Document document = new BBCodeParser().buildDocument(nested("[b]", "x", "[/b]", depth), attributes);
+      assertEquals(document.getChildTagNodes().size(), depth);
+      return new BBCodeToHTMLTransformer().transform(document, (node) -> true, null, null);
+    });
+    assertEquals(result, nested("<strong>", "x", "</strong>", depth));
+
+    // Forked rendering of a deep document
+    Document document = new BBCodeParser().buildDocument(nested("[b]", "x", "[/b]", depth), attributes);
+    assertEquals(new BBCodeToHTMLTransformer(false, ForkJoinPool.commonPool(), 100).transform(document, (node) -> true, null, null), result);
+  }
+
+  @Test
+  public void text() throws Exception {
+    int depth = 100_000;
+    String result = runWithSmallStack(() -> {
+      // The unclosed tags are converted to text nodes that are collapsed
+      Document document = new BBCodeParser().buildDocument(nested("[quote]", "x", "[/quote]", depth) + "[b]a[i]b", attributes);
+      return new TextTransformer().transform(document, (node) -> true, null, null);
+    });
+    assertEquals(result, "x[b]a[i]b");
+  }
+
+  private String nested(String open, String body, String close, int depth) {
+    StringBuilder build = new StringBuilder();
+    for (int i = 0; i < depth; i++) {
+      build.append(open);
+    }
+    build.append(body);
+    for (int i = 0; i < depth; i++) {
+      build.append(close);
+    }
+    return build.toString();
+  }
+
+  private String runWithSmallStack(Callable<String> callable) throws Exception {
+    AtomicReference<String> result = new AtomicReference<>();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread thread = new Thread(null, () -> {
+      try {
+        result.set(callable.call());
+      } catch (Throwable t) {
+        failure.set(t);
+      }
+    }, "small-stack", 256 * 1024);
+    thread.start();
+    thread.join();
+
+    if (failure.get() != null) {
+      throw new AssertionError("Failed with a small stack", failure.get());
+    }
+    return result.get();
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.Offsets;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.service.DictionaryTransformFunction.Dictionary;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests the DictionaryTransformFunction.
+ *
+ * @author Daniel DeGroff
+ */
+public class DictionaryTransformFunctionTest {
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  @Test
+  public void escapedAndReplaced() {
+    Map<String, String> patterns = new LinkedHashMap<>();
+    patterns.put(":)", "<img src=\"smile.png\">");
+    patterns.put("<3", "<img src=\"heart.png\">");
+    patterns.put("darn", "****");
+    Dictionary dictionary = Dictionary.compile(patterns, true);
+
+    assertTransform(dictionary, "[b]Hi :) & <3[/b]\nDARN it", "<strong>Hi <img src=\"smile.png\"> &amp; <img src=\"heart.png\"></strong><br>**** it");
+    assertTransform(dictionary, "[b]Nothing to see[/b] here", "<strong>Nothing to see</strong> here");
+    assertTransform(dictionary, ":):):)", "<img src=\"smile.png\"><img src=\"smile.png\"><img src=\"smile.png\">");
+    assertTransform(dictionary, "Not a smiley :", "Not a smiley :");
+  }
+
+  @Test
+  public void largeDictionary() {
+    Map<String, String> patterns = new HashMap<>();
+    for (int i = 0; i < 20_000; i++) {
+      patterns.put("word" + i + "x", "<b>" + i + "</b>");
+    }
+    Dictionary dictionary = Dictionary.compile(patterns, false);
+    assertEquals(dictionary.size(), 20_000);
+    assertTransform(dictionary, "word1x word19999x word20000x wordword42x", "<b>1</b> <b>19999</b> word20000x word<b>42</b>");
+  }
+
+  @Test
+  public void leftmostLongest() {
+    Map<String, String> patterns = new LinkedHashMap<>();
+    patterns.put("ab", "1");
+    patterns.put("abcd", "2");
+    patterns.put("bc", "3");
+    patterns.put("cde", "4");
+    Dictionary dictionary = Dictionary.compile(patterns, false);
+
+    assertTransform(dictionary, "abcd", "2");
+    assertTransform(dictionary, "abce", "1ce");
+    assertTransform(dictionary, "xbcde", "x3de");
+    assertTransform(dictionary, "abcde", "2e");
+    assertTransform(dictionary, "ABCD", "ABCD");
+  }
+
+  @Test
+  public void offsets() {
+    Map<String, String> patterns = new LinkedHashMap<>();
+    patterns.put(":)", "<img>");
+    patterns.put("abc", "x");
+    Dictionary dictionary = Dictionary.compile(patterns, false);
+
+    Document document = new BBCodeParser().buildDocument("a:)&[b]abc[/b]", attributes);
+    Offsets offsets = new Offsets();
+    String actual = new BBCodeToHTMLTransformer().transform(document, (node) -> true, new DictionaryTransformFunction(dictionary, offsets, attributes), null);
+    assertEquals(actual, "a<img>&amp;<strong>x</strong>");
+
+    Offsets expected = new Offsets();
+    expected.add(1, 3);  // :)
+    expected.add(3, 4);  // &
+    expected.add(7, -2); // abc
+    assertEquals(offsets, expected);
+  }
+
+  private void assertTransform(Dictionary dictionary, String source, String expected) {
+    Document document = new BBCodeParser().buildDocument(source, attributes);
+    String actual = new BBCodeToHTMLTransformer().transform(document, (node) -> true, new DictionaryTransformFunction(dictionary, attributes), null);
+    assertEquals(actual, expected);
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.service.DocumentSerializer.FlatDocument;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests the DocumentSerializer.
+ *
+ * @author Daniel DeGroff
+ */
+public class DocumentSerializerTest {
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  private final DocumentSerializer serializer = new DocumentSerializer();
+
+  @DataProvider
+  public static Object[][] bbcode() {
+    return new Object[][]{
+        {""},
+        {"Hello World"},
+        {"a [b]bold [i]italic[/i][/b] [url=http://foo.com]foo[/url] [font size=\"10\" family=\"verdana\"]x[/font]"},
+        {"[list][*]one[*]two[/list][code]do not [b]parse[/b][/code] [b]unclosed"},
+        {"[quote name=\"J\u00f6rg\"]\u2603 snow[/quote][:)]"}
+    };
+  }
+
+  @Test
+  public void flat() {
+    Document document = new BBCodeParser().buildDocument("a [b]bold [i]italic[/i][/b] [font size=\"10\"]x[/font]", attributes);
+    FlatDocument flat = serializer.readFlat(ByteBuffer.wrap(serializer.serialize(document)));
+    assertEquals(flat.size(), 8);
+    assertEquals(flat.childCount(), 4);
+    assertEquals(flat.source().toString(), new String(document.source));
+
+    // a, [b], bold, [i], italic, " ", [font], x
+    assertFalse(flat.isTag(0));
+    assertEquals(flat.getString(flat.begin(0), flat.end(0)), "a ");
+    assertEquals(flat.getName(1), "b");
+    assertEquals(flat.parent(1), -1);
+    assertEquals(flat.next(1), 5);
+    assertEquals(flat.parent(4), 3);
+    assertEquals(flat.getName(3), "i");
+    assertEquals(flat.getString(flat.bodyBegin(3), flat.bodyEnd(3)), "italic");
+    assertEquals(flat.next(5), 6);
+    assertEquals(flat.attributes(6).get("size"), "10");
+    assertNull(flat.attribute(6));
+    assertNull(flat.getName(7));
+    assertEquals(flat.next(6), 8);
+    assertEquals(flat.offsets(), document.offsets);
+    assertEquals(flat.attributeOffsets(), document.attributeOffsets);
+
+    // Children of the bold tag
+    StringBuilder children = new StringBuilder();
+    for (int child = 2; child < flat.next(1); child = flat.next(child)) {
+      children.append(flat.isTag(child) ? flat.getName(child) : flat.getString(flat.begin(child), flat.end(child))).append(",");
+    }
+    assertEquals(children.toString(), "bold ,i,");
+  }
+
+  @Test
+  public void invalid() {
+    byte[] bytes = serializer.serialize(new BBCodeParser().buildDocument("[b]bold[/b]", attributes));
+    assertInvalid(new byte[]{'X', 'T', 'D', 1}, "serialized document");
+
+    byte[] version = bytes.clone();
+    version[3] = 99;
+    assertInvalid(version, "version [99]");
+    assertInvalid(Arrays.copyOf(bytes, bytes.length - 3), "complete");
+  }
+
+  @Test
+  public void invalidCounts() {
+    // A negative and a huge node count fail before anything is allocated
+    assertInvalid(new byte[]{'P', 'T', 'D', 1, 0, -1, -1, -1, -1, 0x0F, 0}, "node count [-1]");
+    assertInvalid(new byte[]{'P', 'T', 'D', 1, 0, -1, -1, -1, 0x3F, 0}, "node count [134217727]");
+    assertInvalid(new byte[]{'P', 'T', 'D', 1, -1, -1, -1, -1, 0x07}, "source length");
+    assertInvalid(new byte[]{'P', 'T', 'D', 1, 0, 1, 2, 0, 0, 0, 0, 0}, "children");
+  }
+
+  @Test
+  public void invalidPositions() {
+    // A text node from 0 to 5 in a source of one character
+    assertInvalid(new byte[]{'P', 'T', 'D', 1, 1, 0, 'a', 1, 1, 0, 0, 10, 0, 0}, "outside of the source");
+
+    // An offset past the end of the source
+    assertInvalid(new byte[]{'P', 'T', 'D', 1, 1, 0, 'a', 1, 1, 0, 0, 2, 1, 4, 2, 0}, "outside of the source");
+  }
+
+  @Test
+  public void largeDocument() {
+    StringBuilder build = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      build.append("Hello [b]World[/b] & [i]friends [u]of[/u][/i] the [url=http://foo.com]world[/url]\n");
+    }
+    Document parsed = new BBCodeParser().buildDocument(build.toString(), attributes);
+    byte[] bytes = serializer.serialize(parsed);
+    assertTrue(bytes.length < build.length() * 4, "Size [" + bytes.length + "]");
+    assertEquals(serializer.read(ByteBuffer.wrap(bytes)), parsed);
+  }
+
+  @Test(dataProvider = "bbcode")
+  public void roundTrip(String source) {
+    Document document = new BBCodeParser().buildDocument(source, attributes);
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    serializer.write(document, stream);
+    Document read = serializer.read(ByteBuffer.wrap(stream.toByteArray()));
+    assertEquals(read, document);
+    assertEquals(read.offsets, document.offsets);
+    assertEquals(read.attributeOffsets, document.attributeOffsets);
+    assertEquals(new BBCodeToHTMLTransformer().transform(read, (node) -> true, null, null),
+        new BBCodeToHTMLTransformer().transform(document, (node) -> true, null, null));
+  }
+
+  @Test
+  public void roundTripHTML() {
+    Document document = new HTMLParser().buildDocument("<div class=\"a\" id=main><p>One<br />two <input disabled></p></div>", attributes);
+    Document read = serializer.read(ByteBuffer.wrap(serializer.serialize(document)));
+    assertEquals(read, document);
+    assertEquals(read.getChildTagNodes().get(0).attributes, document.getChildTagNodes().get(0).attributes);
+  }
+
+  @Test
+  public void sequential() {
+    Document first = new BBCodeParser().buildDocument("[b]first[/b]", attributes);
+    Document second = new BBCodeParser().buildDocument("second [i]2[/i]", attributes);
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    serializer.write(first, stream);
+    serializer.write(second, stream);
+
+    // Read from a direct buffer with other bytes around the documents
+    byte[] bytes = stream.toByteArray();
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 2);
+    buffer.put((byte) 7).put(bytes).put((byte) 7);
+    buffer.flip();
+    buffer.get();
+    assertEquals(serializer.read(buffer), first);
+    assertEquals(serializer.read(buffer), second);
+    assertEquals(buffer.remaining(), 1);
+  }
+
+  private void assertInvalid(byte[] bytes, String message) {
+    try {
+      serializer.read(ByteBuffer.wrap(bytes));
+      fail("Expected an exception");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains(message), e.getMessage());
+    }
+  }
+}
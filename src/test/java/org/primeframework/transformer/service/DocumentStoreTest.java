@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests the DocumentStore.
+ *
+ * @author Daniel DeGroff
+ */
+public class DocumentStoreTest {
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  @Test
+  public void concurrent() throws Exception {
+    DocumentStore<Integer> store = new DocumentStore<>(4_096);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 400; i++) {
+        int key = i % 50;
+        futures.add(executor.submit(() -> {
+          if (key % 3 == 0) {
+            store.put(key, document(key));
+          }
+
+          // A document that is found is always complete
+          Document document = store.get(key);
+          if (document != null) {
+            assertEquals(document, document(key));
+          }
+          return null;
+        }));
+      }
+
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertTrue(store.bytes() <= store.capacity());
+  }
+
+  @Test
+  public void eviction() {
+    int length = new DocumentSerializer().serialize(document(0)).length;
+    DocumentStore<Integer> store = new DocumentStore<>(length * 3 + length / 2);
+    for (int i = 0; i < 3; i++) {
+      assertTrue(store.put(i, document(i)));
+    }
+    assertEquals(store.size(), 3);
+    assertEquals(store.bytes(), length * 3);
+
+    // The oldest document is evicted first and the ring wraps around
+    store.put(3, document(3));
+    assertEquals(store.size(), 3);
+    assertNull(store.get(0));
+    assertEquals(store.get(1), document(1));
+    assertEquals(store.get(3), document(3));
+
+    store.put(4, document(4));
+    assertNull(store.get(1));
+    assertEquals(store.get(2), document(2));
+    assertEquals(store.get(4), document(4));
+
+    // The space of a replaced document is reused
+    store.put(2, document(2));
+    assertEquals(store.size(), 3);
+    assertEquals(store.get(2), document(2));
+    assertEquals(store.get(3), document(3));
+    assertEquals(store.bytes(), length * 3);
+
+    assertTrue(store.remove(4));
+    assertFalse(store.remove(4));
+    assertEquals(store.size(), 2);
+    assertEquals(store.bytes(), length * 2);
+
+    store.clear();
+    assertEquals(store.size(), 0);
+    assertEquals(store.bytes(), 0);
+    assertNull(store.get(2));
+  }
+
+  @Test
+  public void mapped() throws Exception {
+    File file = File.createTempFile("documents", ".bin");
+    file.deleteOnExit();
+    try (RandomAccessFile random = new RandomAccessFile(file, "rw"); FileChannel channel = random.getChannel()) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, 64 * 1024);
+      DocumentStore<String> store = new DocumentStore<>(buffer);
+      assertEquals(store.capacity(), 64 * 1024);
+      for (int i = 0; i < 100; i++) {
+        store.put("document" + i, document(i));
+      }
+
+      assertEquals(store.size(), 100);
+      String html = new BBCodeToHTMLTransformer().transform(store.get("document42"), (node) -> true, null, null);
+      assertEquals(html, "Document 42 <strong>bold <em>42</em></strong> <a       href=\"http://foo.com/42\" >link</a>");
+    }
+  }
+
+  @Test
+  public void read() {
+    DocumentStore<String> store = new DocumentStore<>(1_024);
+    store.put("a", document(7));
+    assertEquals(store.read("a", (flat) -> flat.getName(1) + ":" + flat.size()), "b:8");
+    assertNull(store.read("b", (flat) -> "found"));
+  }
+
+  @Test(timeOut = 10_000)
+  public void readThenWrite() {
+    DocumentStore<String> store = new DocumentStore<>(1_024);
+    store.put("a", document(7));
+
+    // The function holds the read lock, so writing fails instead of waiting for the lock forever
+    String name = store.read("a", (view) -> {
+      try {
+        store.put("b", document(8));
+        fail("Expected an IllegalStateException");
+      } catch (IllegalStateException e) {
+        assertEquals(e.getMessage(), "The store can't be changed by the function passed to read");
+      }
+      return view.getName(1);
+    });
+    assertEquals(name, "b");
+    assertEquals(store.size(), 1);
+
+    // Once the function returns the store can be written again
+    store.remove("a");
+    store.put("b", document(8));
+    assertEquals(store.read("b", (view) -> view.getString(view.begin(0), view.end(0))), "Document 8 ");
+  }
+
+  @Test
+  public void tooLarge() {
+    DocumentStore<String> store = new DocumentStore<>(16);
+    store.put("a", new BBCodeParser().buildDocument("a", attributes));
+    assertFalse(store.put("b", document(1)));
+    assertNull(store.get("b"));
+    assertEquals(store.size(), 1);
+
+    // A replacement that doesn't fit removes the old document
+    assertFalse(store.put("a", document(1)));
+    assertEquals(store.size(), 0);
+  }
+
+  private Document document(int i) {
+    return new BBCodeParser().buildDocument("Document " + i + " [b]bold [i]" + i + "[/i][/b] [url=http://foo.com/" + i + "]link[/url]", attributes);
+  }
+}
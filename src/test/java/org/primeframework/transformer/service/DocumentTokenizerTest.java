@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.domain.TagNames;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests the DocumentTokenizer.
+ *
+ * @author Daniel DeGroff
+ */
+public class DocumentTokenizerTest {
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  @Test
+  public void bbCode() {
+    String source = "Hello, [b]big [i]world's[/i][/b] [code]x = 42;[/code] caf\u00e9 \uD835\uDC00b!";
+    Document document = new BBCodeParser().buildDocument(source, attributes);
+    DocumentTokenizer tokens = new DocumentTokenizer(document);
+    List<String> words = new ArrayList<>();
+    List<String> paths = new ArrayList<>();
+    while (tokens.next()) {
+      words.add(new String(document.source, tokens.begin(), tokens.end() - tokens.begin()));
+      StringBuilder path = new StringBuilder();
+      for (int i = 0; i < tokens.depth(); i++) {
+        path.append('/').append(tokens.tag(i).getName());
+      }
+      paths.add(path.toString());
+    }
+
+    assertEquals(words, Arrays.asList("Hello", "big", "world", "s", "x", "42", "caf\u00e9", "\uD835\uDC00b"));
+    assertEquals(paths, Arrays.asList("", "/b", "/b/i", "/b/i", "/code", "/code", "", ""));
+    assertFalse(tokens.next());
+    assertEquals(tokens.begin(), -1);
+  }
+
+  @Test
+  public void html() {
+    String source = "<div>one <a href=\"http://foo.com\">two</a><script>skipped()</script></div>three";
+    Document document = new HTMLParser().buildDocument(source, attributes);
+    DocumentTokenizer tokens = new DocumentTokenizer(document, TagPredicates.deny("script"));
+    assertTrue(tokens.next());
+    assertEquals(tokens.begin(), source.indexOf("one"));
+    assertFalse(tokens.isInside("a"));
+    assertTrue(tokens.isInside("DIV"));
+
+    assertTrue(tokens.next());
+    assertEquals(tokens.begin(), source.indexOf("two"));
+    assertEquals(tokens.end(), source.indexOf("two") + 3);
+    assertTrue(tokens.isInside("a"));
+    assertEquals(tokens.textNode().parent, tokens.tag(1));
+
+    assertTrue(tokens.next());
+    assertEquals(tokens.begin(), source.indexOf("three"));
+    assertEquals(tokens.depth(), 0);
+    assertFalse(tokens.next());
+  }
+
+  @Test
+  public void htmlReferences() {
+    String source = "<p>Fish &amp; chips &#169; 2026&nbsp;caf&#233; &bogus; A&#x42;C</p>";
+    Document document = new HTMLParser().buildDocument(source, attributes);
+    DocumentTokenizer tokens = new DocumentTokenizer(document, (tag) -> true, true);
+    List<String> words = new ArrayList<>();
+    while (tokens.next()) {
+      words.add(new String(document.source, tokens.begin(), tokens.end() - tokens.begin()));
+    }
+
+    // The ranges include the references to letters
+    assertEquals(words, Arrays.asList("Fish", "chips", "2026", "caf&#233;", "A&#x42;C"));
+
+    // The references are words when the document isn't HTML
+    tokens = new DocumentTokenizer(document);
+    words.clear();
+    while (tokens.next()) {
+      words.add(new String(document.source, tokens.begin(), tokens.end() - tokens.begin()));
+    }
+    assertEquals(words.subList(0, 3), Arrays.asList("Fish", "amp", "chips"));
+  }
+
+  @Test
+  public void isInsideUnknown() {
+    Document document = new HTMLParser().buildDocument("<p>one</p>", attributes);
+    DocumentTokenizer tokens = new DocumentTokenizer(document);
+    assertTrue(tokens.next());
+    int size = TagNames.size();
+    assertFalse(tokens.isInside("isInsideUnknownNever"));
+    assertEquals(TagNames.size(), size);
+  }
+
+  static {
+    attributes.put("code", new TagAttributes(false, true, false, true));
+  }
+}
@@ -15,9 +15,14 @@
  */
 package org.primeframework.transformer.service;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
 
@@ -25,13 +30,17 @@ import freemarker.template.Configuration;
 import freemarker.template.Template;
 import org.primeframework.transformer.domain.Document;
 import org.primeframework.transformer.domain.Offsets;
+import org.primeframework.transformer.domain.Rope;
 import org.primeframework.transformer.domain.TagAttributes;
 import org.primeframework.transformer.domain.TagNode;
+import org.primeframework.transformer.domain.TextNode;
+import org.primeframework.transformer.service.Transformer.NodeRangeConsumer;
 import org.primeframework.transformer.service.Transformer.TransformFunction.HTMLTransformFunction;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 import static org.testng.AssertJUnit.fail;
 
@@ -132,6 +141,30 @@ public class FreemarkerTransformerTest {
     assertTransform(strict, doc, (node) -> true, null, expected, expectedOffsets);
   }
 
+  @Test
+  public void escapeHTMLFastPath() throws Exception {
+    Document doc = parseDocument("[list]No escapes here[/list]\n[code]foo\r\nbar[/code] & done");
+    Map<String, TagAttributes> attributes = new HashMap<>();
+    attributes.put("code", new TagAttributes(false, true, false, false));
+    HTMLTransformFunction function = new HTMLTransformFunction(attributes);
+
+    // No escapable characters, the original is returned as is
+    TextNode text = (TextNode) ((TagNode) doc.children.get(0)).children.get(0);
+    String original = text.getBody();
+    assertSame(function.transform(text, original), original);
+
+    // Newlines are not transformed inside of code, so nothing to escape
+    TextNode code = (TextNode) ((TagNode) doc.children.get(2)).children.get(0);
+    original = code.getBody();
+    assertSame(function.transform(code, original), original);
+
+    TextNode last = (TextNode) doc.children.get(3);
+    assertEquals(function.transform(last, last.getBody()), " &amp; done");
+
+    TextNode newLine = (TextNode) doc.children.get(1);
+    assertEquals(function.transform(newLine, newLine.getBody()), "<br>");
+  }
+
   @Test(dataProvider = "strictness")
   public void nestedNodesAreNotTransformedIfParentFailsPredicate(boolean strict) throws Exception {
     Document doc = parseDocument("[list] [*] foo [*] bar [/list]");
@@ -140,6 +173,67 @@ public class FreemarkerTransformerTest {
     assertTransform(strict, doc, (node) -> !node.getName().equals("list"), null, expected, expectedOffsets);
   }
 
+  @Test
+  public void nodeRangeConsumer() throws Exception {
+    Document doc = parseDocument("x & [a]y[b]z[/b][/a]\n[c]w[/c]");
+    Transformer transformer = new FreeMarkerTransformer(templates);
+    List<String> results = new ArrayList<>();
+    List<String> bodies = new ArrayList<>();
+    String expected = transformer.transform(doc, (node) -> true, new HTMLTransformFunction(), (node, result, body) -> {
+      results.add(result);
+      bodies.add(body);
+    });
+
+    // The range consumer sees the same results as views of the output
+    List<String> ranges = new ArrayList<>();
+    List<String> rangeBodies = new ArrayList<>();
+    String actual = transformer.transform(doc, (node) -> true, new HTMLTransformFunction(), (NodeRangeConsumer) (node, output, begin, end, body) -> {
+      ranges.add(output.subSequence(begin, end).toString());
+      rangeBodies.add(body.toString());
+    });
+    assertEquals(actual, expected);
+    assertEquals(ranges, results);
+    assertEquals(rangeBodies, bodies);
+    assertEquals(results, Arrays.asList("x &amp; ", "y", "z", "<bbbbbb>z</bbbbbb>", "<aaaaaa>y<bbbbbb>z</bbbbbb></aaaaaa>", "<br>", "w", "<cccccc>w</cccccc>"));
+
+    // The last result always ends the output of the text transformer
+    int[] last = new int[1];
+    Rope rope = new TextTransformer().transformToRope(doc, (node) -> true, new HTMLTransformFunction(), (NodeRangeConsumer) (node, output, begin, end, body) -> {
+      assertEquals(end, output.length());
+      last[0] = begin;
+    });
+    assertEquals(rope.subSequence(last[0], rope.length()).toString(), "w");
+  }
+
+  @Test
+  public void outputStream() throws Exception {
+    StringBuilder source = new StringBuilder();
+    for (int i = 0; i < 2_000; i++) {
+      source.append("caf\u00e9 [a]\u65e5\u672c [b]\uD83D\uDE00 & ").append(i).append("[/b][/a] [foo]x[/foo]\n");
+    }
+    Document doc = parseDocument(source.toString());
+    Transformer transformer = new FreeMarkerTransformer(templates);
+    String expected = transformer.transform(doc, (node) -> true, new HTMLTransformFunction(), null);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    transformer.transform(doc, (node) -> true, new HTMLTransformFunction(), null, out);
+    assertEquals(out.toByteArray(), expected.getBytes(StandardCharsets.UTF_8));
+
+    // With a node consumer the top level templates are not streamed
+    out = new ByteArrayOutputStream();
+    StringBuilder consumed = new StringBuilder();
+    transformer.transform(doc, (node) -> true, new HTMLTransformFunction(), (node, result, body) -> consumed.append('.'), out);
+    assertEquals(new String(out.toByteArray(), StandardCharsets.UTF_8), expected);
+    int streamed = consumed.length();
+    consumed.setLength(0);
+    transformer.transform(doc, (node) -> true, new HTMLTransformFunction(), (node, result, body) -> consumed.append('.'));
+    assertEquals(streamed, consumed.length());
+
+    out = new ByteArrayOutputStream();
+    new TextTransformer().transform(doc, (node) -> true, new HTMLTransformFunction(), null, out);
+    assertEquals(new String(out.toByteArray(), StandardCharsets.UTF_8), new TextTransformer().transform(doc, (node) -> true, new HTMLTransformFunction(), null));
+  }
+
   @Test(dataProvider = "strictness")
   public void prefixAndSuffix(boolean strict) throws Exception {
     Document doc = parseDocument("abc[b] bbb [/b]123");
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.primeframework.transformer.domain.BaseNode;
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.Node;
+import org.primeframework.transformer.domain.Pair;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.domain.TagNode;
+import org.primeframework.transformer.domain.TextNode;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests frozen documents.
+ *
+ * @author Daniel DeGroff
+ */
+public class FrozenDocumentTest {
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  private static final String SOURCE = "a [b]bold [i]italic[/i][/b] [url=http://foo.com]foo[/url] [font size=\"10\"]x[/font]";
+
+  @Test
+  public void concurrent() throws Exception {
+    Document document = new BBCodeParser().buildDocument(SOURCE, attributes).freeze();
+    String expected = new BBCodeToHTMLTransformer().transform(document, (node) -> true, null, null);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> futures = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+        Transformer transformer = i % 2 == 0 ? new BBCodeToHTMLTransformer() : new TextTransformer();
+        futures.add(executor.submit(() -> transformer.transform(document, (node) -> true, null, null)));
+      }
+
+      for (int i = 0; i < futures.size(); i++) {
+        assertEquals(futures.get(i).get(), i % 2 == 0 ? expected : "a bold italic foo x");
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void freeze() {
+    Document document = new BBCodeParser().buildDocument(SOURCE, attributes);
+    Document frozen = document.freeze();
+    assertFalse(document.isFrozen());
+    assertTrue(frozen.isFrozen());
+    assertSame(frozen.freeze(), frozen);
+    assertNotSame(frozen, document);
+    assertEquals(frozen, document);
+    assertEquals(frozen.offsets, document.offsets);
+    assertEquals(frozen.attributeOffsets, document.attributeOffsets);
+
+    // Every node belongs to the snapshot
+    for (Node node : frozen.preOrder()) {
+      TagNode parent = node instanceof TagNode ? ((TagNode) node).parent : ((TextNode) node).parent;
+      assertSame(((BaseNode) node).document, frozen);
+      assertTrue(parent == null || parent.children.contains(node));
+      if (parent != null) {
+        assertSame(parent.document, frozen);
+      }
+    }
+    assertEquals(frozen.tagIndex().get("b").size(), 1);
+
+    // Changes to the original don't show through
+    document.children.clear();
+    document.source[0] = 'z';
+    assertEquals(frozen.children.size(), 6);
+    assertEquals(frozen.children.get(0).getRawString(), "a ");
+  }
+
+  @Test
+  public void immutable() {
+    Document frozen = new BBCodeParser().buildDocument(SOURCE, attributes).freeze();
+    TagNode bold = frozen.getChildTagNodes().get(0);
+    TagNode font = frozen.getChildTagNodes().get(3);
+    assertEquals(font.attributes.get("size"), "10");
+
+    assertUnsupported(() -> frozen.addChild(new TextNode(frozen, null, 0, 1)));
+    assertUnsupported(() -> frozen.children.remove(0));
+    assertUnsupported(() -> frozen.offsets.add(new Pair<>(0, 1)));
+    assertUnsupported(() -> frozen.attributeOffsets.clear());
+    assertUnsupported(() -> bold.addChild(new TextNode(frozen, bold, 0, 1)));
+    assertUnsupported(() -> bold.children.set(0, null));
+    assertUnsupported(() -> font.attributes.put("size", "12"));
+    assertUnsupported(() -> bold.attributes.put("size", "12"));
+    assertUnsupported(() -> frozen.getChildTagNodes().get(1).children.clear());
+  }
+
+  @Test
+  public void publicFields() throws Exception {
+    // The fields that hold the structure can't be assigned, and the structure they hold can't be changed
+    for (Field field : new Field[]{Document.class.getField("children"), Document.class.getField("offsets"),
+        Document.class.getField("attributeOffsets"), Document.class.getField("source"),
+        TagNode.class.getField("children"), TagNode.class.getField("attributes")}) {
+      assertTrue(Modifier.isFinal(field.getModifiers()), field.getName());
+    }
+
+    Document frozen = new BBCodeParser().buildDocument(SOURCE, attributes).freeze();
+    for (TagNode tagNode : frozen.tagNodes()) {
+      assertUnsupported(() -> tagNode.children.add(new TextNode(frozen, tagNode, 0, 1)));
+      assertUnsupported(() -> tagNode.attributes.put("size", "12"));
+    }
+    assertUnsupported(() -> frozen.children.add(new TextNode(frozen, null, 0, 1)));
+    assertUnsupported(() -> frozen.offsets.remove(frozen.offsets.first()));
+    assertUnsupported(() -> frozen.attributeOffsets.add(new Pair<>(0, 1)));
+  }
+
+  private void assertUnsupported(Runnable runnable) {
+    try {
+      runnable.run();
+      fail("Expected an UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+      // Expected
+    }
+  }
+}
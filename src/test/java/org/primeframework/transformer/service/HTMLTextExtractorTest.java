@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.io.StringWriter;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests the HTMLTextExtractor.
+ *
+ * @author Daniel DeGroff
+ */
+public class HTMLTextExtractorTest {
+  @DataProvider
+  public static Object[][] html() {
+    return new Object[][]{
+        {"Hello <b>World</b>", "Hello World"},
+        {"  Hello \n\t <i>big</i>   World  ", "Hello big World"},
+        {"<p>One</p><p>Two</p>", "One\nTwo"},
+        {"<div>a<br>b<br/>c</div> d", "a\nb\nc\nd"},
+        {"<ul><li>one</li> <li>two</li></ul>after", "one\ntwo\nafter"},
+        {"a<script type=\"text/javascript\">if (a < b) { document.write('<p>x</p>'); }</script>b", "ab"},
+        {"a<STYLE>p { color: red }</STYLE> b", "a b"},
+        {"<!DOCTYPE html><html><head><title>T</title></head><body>x<!-- <p>comment</p> -->y</body></html>", "T\nxy"},
+        {"<html><head><title>Title</title><meta charset=\"utf-8\"></head><body>Hi</body></html>", "Title\nHi"},
+        {"<title>T</title><body>Hi", "T\nHi"},
+        {"1 < 2 &amp; 3 &gt; 2 &quot;q&quot; &#169; &#x1F600; &bogus; & done", "1 < 2 & 3 > 2 \"q\" \u00a9 \uD83D\uDE00 &bogus; & done"},
+        {"&#00000000000000000000000000000058; &#x000000000000000000000000000000003a; &#0; &#xD800; &#99999999999999999999;", ": : \uFFFD \uFFFD \uFFFD"},
+        {"a&nbsp;&nbsp;b", "a b"},
+        {"<a href=\"http://foo.com\" title=\"x > y\">link</a> text", "link text"},
+        {"", ""},
+    };
+  }
+
+  @Test(dataProvider = "html")
+  public void extract(String source, String expected) {
+    assertEquals(new HTMLTextExtractor().extract(source), expected);
+
+    StringWriter writer = new StringWriter();
+    new HTMLTextExtractor().extract(source.toCharArray(), writer);
+    assertEquals(writer.toString(), expected);
+  }
+
+  @Test
+  public void unclosedRawText() {
+    assertEquals(new HTMLTextExtractor().extract("before<script>never closed <p>x</p>"), "before");
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.service.LinkExtractor.Link;
+import org.primeframework.transformer.service.LinkExtractor.Type;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests the LinkExtractor.
+ *
+ * @author Daniel DeGroff
+ */
+public class LinkExtractorTest {
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  @Test
+  public void bbCode() {
+    String source = "[url=\"http://foo.com\"]Foo[/url] [b][url] http://bar.com [/url][/b] [email=a@b.com]mail[/email] " +
+        "[email]c@d.com[/email] [img=100x50]http://foo.com/a.png[/img] [url][/url] [code][url]http://no.com[/url][/code]";
+    Document document = new BBCodeParser().buildDocument(source, attributes);
+    List<Link> links = new LinkExtractor().extract(document);
+    assertEquals(links.size(), 5);
+    assertLink(links.get(0), Type.LINK, "http://foo.com", source);
+    assertLink(links.get(1), Type.LINK, " http://bar.com ", source);
+    assertLink(links.get(2), Type.EMAIL, "mailto:a@b.com", source);
+    assertLink(links.get(3), Type.EMAIL, "c@d.com", source);
+    assertLink(links.get(4), Type.IMAGE, "http://foo.com/a.png", source);
+    assertEquals(links.get(2).tagNode.getName(), "email");
+  }
+
+  @Test
+  public void html() {
+    String source = "<div><A HREF='http://foo.com'>foo</A><p><img alt=\"x\" src=\"/a.png\"></p><a name=\"top\">no</a></div>";
+    Document document = new HTMLParser().buildDocument(source, attributes);
+    List<Link> links = new LinkExtractor().extract(document);
+    assertEquals(links.size(), 2);
+    assertLink(links.get(0), Type.LINK, "http://foo.com", source);
+    assertLink(links.get(1), Type.IMAGE, "/a.png", source);
+  }
+
+  @Test
+  public void repeatedValue() {
+    // The range is the value of the attribute, not an earlier attribute or text with the same value
+    String source = "<a title=\"http://foo.com\" data-href='href=http://foo.com' href=\"http://foo.com\">x</a>" +
+        "<img alt=\"/a.png\" SRC=\"/a.png\">[url=http://bar.com]http://bar.com[/url]";
+    Document document = new HTMLParser().buildDocument(source, attributes);
+    List<Link> links = new LinkExtractor().extract(document);
+    assertEquals(links.size(), 2);
+    assertLink(links.get(0), Type.LINK, "http://foo.com", source);
+    assertEquals(links.get(0).begin, source.indexOf("href=\"") + 6);
+    assertLink(links.get(1), Type.IMAGE, "/a.png", source);
+    assertEquals(links.get(1).begin, source.indexOf("SRC=") + 5);
+
+    document = new BBCodeParser().buildDocument("[url=http://bar.com]http://bar.com[/url]", attributes);
+    links = new LinkExtractor().extract(document);
+    assertEquals(links.get(0).begin, 5);
+  }
+
+  private void assertLink(Link link, Type type, String url, String source) {
+    assertEquals(link.type, type);
+    assertEquals(link.getURL(), url);
+    String raw = url.startsWith("mailto:") ? url.substring(7) : url;
+    assertEquals(source.substring(link.begin, link.end), raw);
+  }
+
+  static {
+    attributes.put("code", new TagAttributes(false, true, false, true));
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jol.info.GraphLayout;
+import org.primeframework.transformer.domain.AttributeMap;
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.Node;
+import org.primeframework.transformer.domain.NodeList;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.domain.TagNode;
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Compares the memory used by the nodes of parsed documents with the memory they used when every tag allocated a list
+ * and a map, measured with JOL. The source and the offsets of the document are not counted.
+ *
+ * @author Daniel DeGroff
+ */
+public class MemoryLayoutTest {
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  @Test
+  public void bbcode() {
+    StringBuilder build = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      build.append("Hello [b]World[/b] & [i]friends [u]of[/u][/i] the [url=http://foo.com]world[/url]\n[list][*]one[*]two[/list]");
+    }
+    report("BBCode", new BBCodeParser().buildDocument(build.toString(), attributes));
+  }
+
+  @Test
+  public void html() {
+    StringBuilder build = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      build.append("<ul><li><a href=\"/page/").append(i).append("\" class=\"link\">Page</a><br></li>")
+           .append("<li><img src=\"/").append(i).append(".png\" alt=\"image\" width=\"10\" height=\"10\"></li></ul>")
+           .append("<p>Some <b>bold</b> text<br><input type=\"checkbox\" checked></p>");
+    }
+    report("HTML", new HTMLParser().buildDocument(build.toString(), attributes));
+  }
+
+  private void report(String name, Document document) {
+    long nodes = document.nodes().count();
+    long total = GraphLayout.parseInstance(document).totalSize();
+    long excluded = GraphLayout.parseInstance(document.source, document.offsets, document.attributeOffsets).totalSize();
+
+    // Swap the lean containers of every tag for the list and map that every tag allocated before. The copies hold nulls
+    // in place of the children, so only the containers are measured and not the nodes they reach.
+    List<Object> lean = new ArrayList<>();
+    List<Object> eager = new ArrayList<>();
+    for (TagNode tagNode : document.tagNodes()) {
+      NodeList leanChildren = new NodeList();
+      List<Node> eagerChildren = new ArrayList<>();
+      for (int i = 0; i < tagNode.children.size(); i++) {
+        leanChildren.add(null);
+        eagerChildren.add(null);
+      }
+      leanChildren.trimToSize();
+
+      AttributeMap leanAttributes = new AttributeMap();
+      leanAttributes.putAll(tagNode.attributes);
+      leanAttributes.trimToSize();
+      Collections.addAll(lean, leanChildren, leanAttributes);
+      Collections.addAll(eager, eagerChildren, new LinkedHashMap<>(tagNode.attributes));
+    }
+
+    long perNode = (total - excluded) / nodes;
+    long eagerPerNode = (total - excluded - GraphLayout.parseInstance(lean.toArray()).totalSize() +
+        GraphLayout.parseInstance(eager.toArray()).totalSize()) / nodes;
+    Reporter.log(name + ": [" + perNode + "] bytes per node, [" + eagerPerNode + "] with a list and a map for every tag");
+    assertTrue(perNode * 100 <= eagerPerNode * 85, name + " uses [" + perNode + "] bytes per node, [" + eagerPerNode + "] before");
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.primeframework.transformer.domain.BaseTagNode;
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.Node;
+import org.primeframework.transformer.domain.NodeVisitor;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.domain.TagNode;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Tests the pre-order and post-order iteration, the visitor and the node streams of documents.
+ *
+ * @author Daniel DeGroff
+ */
+public class NodeTraversalTest {
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  private static final String SOURCE = "a[b]b[i]c[/i][u][/u]d[/b]e[quote][s]f[/s]g[/quote]";
+
+  @Test
+  public void deep() {
+    int depth = 20_000;
+    StringBuilder build = new StringBuilder();
+    for (int i = 0; i < depth; i++) {
+      build.append("[b]");
+    }
+    build.append("x");
+    for (int i = 0; i < depth; i++) {
+      build.append("[/b]");
+    }
+
+    Document document = new BBCodeParser().buildDocument(build.toString(), attributes);
+    int count = 0;
+    Node last = null;
+    for (Node node : document.preOrder()) {
+      count++;
+      last = node;
+    }
+    assertEquals(count, depth + 1);
+    assertEquals(last.getRawString(), "x");
+
+    Node first = document.postOrder().iterator().next();
+    assertEquals(first.getRawString(), "x");
+    assertEquals(document.nodes().parallel().count(), depth + 1);
+  }
+
+  @Test
+  public void parallel() {
+    StringBuilder build = new StringBuilder();
+    for (int i = 0; i < 2_000; i++) {
+      build.append("text ").append(i).append(" [b]bold [i]").append(i).append("[/i][/b]\n");
+    }
+
+    Document document = new BBCodeParser().buildDocument(build.toString(), attributes);
+    List<Node> expected = preOrder(document);
+    assertEquals(document.nodes().collect(Collectors.toList()), expected);
+    assertEquals(document.nodes().parallel().collect(Collectors.toList()), expected);
+    assertEquals(document.nodes().parallel().filter((node) -> node instanceof TagNode).count(), 4_000);
+  }
+
+  @Test
+  public void postOrder() {
+    Document document = new BBCodeParser().buildDocument(SOURCE, attributes);
+    assertEquals(raw(document.postOrder()), "a,b,c,[i]c[/i],[u][/u],d,[b]b[i]c[/i][u][/u]d[/b],e,f,[s]f[/s],g," +
+        "[quote][s]f[/s]g[/quote]");
+
+    // The tag itself comes last
+    TagNode quote = document.getChildTagNodes().get(3);
+    assertEquals(raw(quote.postOrder()), "f,[s]f[/s],g,[quote][s]f[/s]g[/quote]");
+  }
+
+  @Test
+  public void preOrder() {
+    Document document = new BBCodeParser().buildDocument(SOURCE, attributes);
+    List<Node> actual = new ArrayList<>();
+    document.preOrder().forEach(actual::add);
+    assertEquals(actual, preOrder(document));
+
+    TagNode bold = document.getChildTagNodes().get(0);
+    assertEquals(raw(bold.preOrder()), "[b]b[i]c[/i][u][/u]d[/b],b,[i]c[/i],c,[u][/u],d");
+    assertEquals(raw(new Document("").preOrder()), "");
+  }
+
+  @Test
+  public void split() {
+    Document document = new BBCodeParser().buildDocument(SOURCE, attributes);
+    Spliterator<Node> suffix = document.nodes().spliterator();
+    List<Node> actual = new ArrayList<>();
+
+    // Split until the prefixes are single subtrees, the order must be kept
+    Spliterator<Node> prefix;
+    while ((prefix = suffix.trySplit()) != null) {
+      prefix.forEachRemaining(actual::add);
+    }
+    suffix.forEachRemaining(actual::add);
+    assertEquals(actual, preOrder(document));
+  }
+
+  @Test
+  public void visit() {
+    Document document = new BBCodeParser().buildDocument(SOURCE, attributes);
+    StringBuilder build = new StringBuilder();
+    document.visit(new NodeVisitor() {
+      @Override
+      public boolean enter(Node node) {
+        build.append(node instanceof TagNode ? "<" + ((TagNode) node).getName() + ">" : node.getRawString());
+        return !(node instanceof TagNode) || !((TagNode) node).getName().equals("s");
+      }
+
+      @Override
+      public void leave(Node node) {
+        if (node instanceof TagNode) {
+          build.append("</").append(((TagNode) node).getName()).append(">");
+        }
+      }
+    });
+    assertEquals(build.toString(), "a<b>b<i>c</i><u></u>d</b>e<quote><s></s>g</quote>");
+
+    // Visiting a tag includes the tag
+    List<Node> entered = new ArrayList<>();
+    TagNode bold = document.getChildTagNodes().get(0);
+    bold.visit(new NodeVisitor() {
+      @Override
+      public boolean enter(Node node) {
+        entered.add(node);
+        return false;
+      }
+    });
+    assertEquals(entered.size(), 1);
+    assertSame(entered.get(0), bold);
+  }
+
+  private List<Node> preOrder(BaseTagNode root) {
+    List<Node> nodes = new ArrayList<>();
+    for (Node child : root.getChildren()) {
+      nodes.add(child);
+      if (child instanceof TagNode) {
+        nodes.addAll(preOrder((TagNode) child));
+      }
+    }
+    return nodes;
+  }
+
+  private String raw(Iterable<Node> nodes) {
+    List<String> result = new ArrayList<>();
+    nodes.forEach((node) -> result.add(node.getRawString()));
+    return String.join(",", result);
+  }
+}
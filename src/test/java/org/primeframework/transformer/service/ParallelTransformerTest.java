@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.Offsets;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.service.Transformer.TransformFunction.HTMLTransformFunction;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests the parallel mode of the transformers.
+ *
+ * @author Daniel DeGroff
+ */
+public class ParallelTransformerTest {
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  private final ForkJoinPool pool = new ForkJoinPool(4);
+
+  @AfterClass
+  public void afterClass() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void html() {
+    Document document = new BBCodeParser().buildDocument(source(), attributes);
+    Offsets sequentialOffsets = new Offsets();
+    String expected = new BBCodeToHTMLTransformer().transform(document, (node) -> true, new HTMLTransformFunction(sequentialOffsets, attributes), null);
+
+    AtomicInteger sequentialCount = new AtomicInteger();
+    new BBCodeToHTMLTransformer().transform(document, (node) -> true, null, (node, transformed, body) -> sequentialCount.incrementAndGet());
+
+    Offsets parallelOffsets = new Offsets();
+    AtomicInteger parallelCount = new AtomicInteger();
+    Transformer transformer = new BBCodeToHTMLTransformer(false, pool, 1_000);
+    String actual = transformer.transform(document, (node) -> true, new HTMLTransformFunction(parallelOffsets, attributes), (node, transformed, body) -> parallelCount.incrementAndGet());
+    assertEquals(actual, expected);
+    assertEquals(parallelOffsets, sequentialOffsets);
+    assertEquals(parallelCount.get(), sequentialCount.get());
+
+    // Below the threshold, rendered on the calling thread
+    document = new BBCodeParser().buildDocument("[b]small[/b]", attributes);
+    assertEquals(transformer.transform(document, (node) -> true, null, null), "<strong>small</strong>");
+  }
+
+  @Test
+  public void strict() {
+    Document document = new BBCodeParser().buildDocument(source() + "[foo]bar[/foo]", attributes);
+    try {
+      new BBCodeToHTMLTransformer(true, pool, 1_000).transform(document, (node) -> true, null, null);
+      fail("Expected an exception");
+    } catch (TransformException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void text() {
+    Document document = new BBCodeParser().buildDocument(source(), attributes);
+    String expected = new TextTransformer().transform(document, (node) -> true, null, null);
+    String actual = new TextTransformer(pool, 1_000).transform(document, (node) -> true, null, null);
+    assertEquals(actual, expected);
+  }
+
+  private String source() {
+    StringBuilder build = new StringBuilder();
+    for (int i = 0; i < 2_000; i++) {
+      build.append("Line ").append(i).append(" & [b]bold [i]italic ").append(i).append("[/i][/b]\n");
+      if (i % 100 == 0) {
+        build.append("[list]");
+        for (int j = 0; j < 50; j++) {
+          build.append("[*]item ").append(j).append(" <tag>");
+        }
+        build.append("[/list]");
+      }
+    }
+    return build.toString();
+  }
+}
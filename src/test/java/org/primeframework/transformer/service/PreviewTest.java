@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.service.Transformer.TransformFunction.HTMLTransformFunction;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests the preview transformation of the transformers.
+ *
+ * @author Daniel DeGroff
+ */
+public class PreviewTest {
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  @DataProvider
+  public static Object[][] html() {
+    return new Object[][]{
+        {"Hello World", 100, "Hello World"},
+        {"Hello World", 11, "Hello World"},
+        {"Hello World", 5, "Hello..."},
+        {"[b]Hello [i]World[/i] foo[/b] bar", 8, "<strong>Hello <em>Wo...</em></strong>"},
+        {"[b]Hello[/b][i]World[/i]", 5, "<strong>Hello</strong>..."},
+        {"[b]Hello[/b] World", 5, "<strong>Hello</strong>..."},
+        {"[sub]one[/sub][sup]two[/sup][sub]three[/sub]", 5, "<sub>one</sub><sup>tw...</sup>"},
+        {"a < b & c", 5, "a &lt; b..."},
+        {"[foo]bar[/foo] baz", 3, "..."},
+        {"[foo]bar[/foo] baz", 14, "[foo]bar[/foo]..."},
+        {"Hello", 0, "..."},
+    };
+  }
+
+  @Test(dataProvider = "html")
+  public void html(String source, int budget, String expected) {
+    Document document = new BBCodeParser().buildDocument(source, attributes);
+    String actual = new BBCodeToHTMLTransformer().transformPreview(document, (node) -> true, new HTMLTransformFunction(attributes), budget, "...");
+    assertEquals(actual, expected);
+  }
+
+  @Test
+  public void large() {
+    StringBuilder source = new StringBuilder();
+    for (int i = 0; i < 100_000; i++) {
+      source.append("[quote][b]Post ").append(i).append("[/b] with some text[/quote]\n");
+    }
+    Document document = new BBCodeParser().buildDocument(source.toString(), attributes);
+
+    String actual = new TextTransformer().transformPreview(document, (node) -> true, null, 20, "\u2026");
+    assertEquals(actual, "Post 0 with some tex\u2026");
+
+    actual = new BBCodeToHTMLTransformer().transformPreview(document, (node) -> true, null, 10, null);
+    assertTrue(actual.startsWith("<blockquote"), actual);
+    assertTrue(actual.endsWith("</blockquote>"), actual);
+    assertTrue(actual.contains("<strong>Post 0</strong> wit</"), actual);
+    assertTrue(actual.length() < 200, actual);
+  }
+
+  @Test
+  public void surrogatePair() {
+    Document document = new BBCodeParser().buildDocument("ab\uD83D\uDE00cd", attributes);
+    assertEquals(new TextTransformer().transformPreview(document, (node) -> true, null, 3, "~"), "ab~");
+    assertEquals(new TextTransformer().transformPreview(document, (node) -> true, null, 4, "~"), "ab\uD83D\uDE00~");
+  }
+
+  @Test
+  public void text() {
+    Document document = new BBCodeParser().buildDocument("[b]Hello[/b] [i]World[/i]", attributes);
+    assertEquals(new TextTransformer().transformPreview(document, (node) -> true, null, 7, "..."), "Hello W...");
+    assertEquals(new TextTransformer().transformPreview(document, (node) -> true, null, 11, "..."), "Hello World");
+    assertEquals(new TextTransformer().transformPreview(document, (node) -> false, null, 6, "..."), "...");
+    assertEquals(new TextTransformer().transformPreview(document, (node) -> false, null, 13, "..."), "[b]Hello[/b] ...");
+
+    // A tag that isn't transformed is never cut
+    document = new HTMLParser().buildDocument("Hi <a href=\"/x\">link</a> there", attributes);
+    assertEquals(new TextTransformer().transformPreview(document, (node) -> false, null, 8, "..."), "Hi ...");
+    assertEquals(new TextTransformer().transformPreview(document, (node) -> false, null, 24, "..."), "Hi <a href=\"/x\">link</a>...");
+    assertEquals(new BBCodeToHTMLTransformer().transformPreview(document, (node) -> false, null, 8, "..."), "Hi ...");
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests the SanitizingTransformer.
+ *
+ * @author Daniel DeGroff
+ */
+public class SanitizingTransformerTest {
+  private static final Map<String, Set<String>> allowList = new HashMap<>();
+
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  @DataProvider
+  public static Object[][] html() {
+    return new Object[][]{
+        {"Hello <b>World</b>", "Hello <b>World</b>"},
+        {"<B CLASS=\"x\" onclick=\"evil()\">bold</B>", "<b class=\"x\">bold</b>"},
+        {"<a href=\"http://foo.com?a=1&amp;b=2\" title='say \"hi\"'>link</a>", "<a href=\"http://foo.com?a=1&amp;b=2\" title=\"say &quot;hi&quot;\">link</a>"},
+        {"<a href=\"javascript:alert(1)\">x</a><a href=\" JavaScript:alert(1)\">y</a><a href=\"/relative:path\">z</a>", "<a>x</a><a>y</a><a href=\"/relative:path\">z</a>"},
+        {"<img src=\"data:image/png;base64,xyz\"><img src=\"https://foo.com/a.png\">", "<img><img src=\"https://foo.com/a.png\">"},
+        {"<a href=\"javascript&#58;alert(1)\">a</a><a href=\"javascript&#x3a;alert(1)\">b</a><a href=\"javascript&#58alert(1)\">c</a>", "<a>a</a><a>b</a><a>c</a>"},
+        {"<a href=\"javascript&colon;alert(1)\">a</a><a href=\"java&#x09;script:alert(1)\">b</a><a href=\"java&Tab;scr&NewLine;ipt:alert(1)\">c</a>", "<a>a</a><a>b</a><a>c</a>"},
+        {"<a href=\"&#x6A;avascript:alert(1)\">a</a><a href=\"\tjava\nscript:alert(1)\">b</a><a href=\"javascript&unknown;alert(1)\">c</a>", "<a>a</a><a>b</a><a>c</a>"},
+        {"<a href=\"javascript&#00000000000000000000000000000058;alert(1)\">a</a><a href=\"javascript&#x0000000000000000000000000000003A;alert(1)\">b</a><a href=\"javascript&#0000000000000000000000000000000000000000000000000058alert(1)\">c</a>", "<a>a</a><a>b</a><a>c</a>"},
+        {"<a href=\"https&#58;//foo.com/?a=1&amp;b=2\">a</a><a href=\"/search?q=a&#58;b\">b</a>", "<a href=\"https&#58;//foo.com/?a=1&amp;b=2\">a</a><a href=\"/search?q=a&#58;b\">b</a>"},
+        {"a<script>alert('<b>x</b>')</script>b<style>p { color: red }</style>c", "abc"},
+        {"<div><p>text</p><iframe src=\"x\">in</iframe></div>", "<p>text</p>in"},
+        {"1 < 2 & 3 > 2 &amp; &#169; &#x1F600; &nope", "1 &lt; 2 &amp; 3 &gt; 2 &amp; &#169; &#x1F600; &amp;nope"},
+        {"before<!-- comment <b>x</b> -->after", "beforeafter"},
+        {"<b>unclosed", "&lt;b&gt;unclosed"},
+        {"line<br>break<br />end", "line<br>break<br>end"},
+    };
+  }
+
+  @Test(dataProvider = "html")
+  public void sanitize(String source, String expected) {
+    Document document = new HTMLParser().buildDocument(source, attributes);
+    String actual = new SanitizingTransformer(allowList).transform(document, (node) -> true, null, null);
+    assertEquals(actual, expected);
+
+    // Streaming produces the same output
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new SanitizingTransformer(allowList).transform(document, (node) -> true, null, null, out);
+    assertEquals(new String(out.toByteArray(), StandardCharsets.UTF_8), expected);
+  }
+
+  @Test
+  public void escapeDisallowed() {
+    Document document = new HTMLParser().buildDocument("<div class=\"x\"><b>bold</b> <i>it</i></div><script>x</script>", attributes);
+    String actual = new SanitizingTransformer(allowList, true).transform(document, (node) -> true, null, null);
+    assertEquals(actual, "&lt;div class=\"x\"&gt;<b>bold</b> &lt;i&gt;it&lt;/i&gt;&lt;/div&gt;");
+
+    // Tags rejected by the predicate are handled the same way
+    actual = new SanitizingTransformer(allowList, true).transform(document, TagPredicates.deny("b"), null, null);
+    assertEquals(actual, "&lt;div class=\"x\"&gt;&lt;b&gt;bold&lt;/b&gt; &lt;i&gt;it&lt;/i&gt;&lt;/div&gt;");
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void eventHandlersNotAllowed() {
+    new SanitizingTransformer(Collections.singletonMap("b", Collections.singleton("onMouseOver")));
+  }
+
+  @Test
+  public void large() {
+    StringBuilder source = new StringBuilder();
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 20_000; i++) {
+      source.append("<p onclick=\"x()\">Post ").append(i).append(" &amp; <script>bad()</script><b>more</b></p>\n");
+      expected.append("<p>Post ").append(i).append(" &amp; <b>more</b></p>\n");
+    }
+
+    Document document = new HTMLParser().buildDocument(source.toString(), attributes);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new SanitizingTransformer(allowList).transform(document, (node) -> true, null, null, out);
+    assertEquals(new String(out.toByteArray(), StandardCharsets.UTF_8), expected.toString());
+  }
+
+  static {
+    allowList.put("a", new HashSet<>(Arrays.asList("href", "title")));
+    allowList.put("b", Collections.singleton("class"));
+    allowList.put("br", Collections.emptySet());
+    allowList.put("img", Collections.singleton("src"));
+    allowList.put("p", Collections.emptySet());
+  }
+}
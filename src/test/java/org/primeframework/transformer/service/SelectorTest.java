@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.TagNode;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests the Selector.
+ *
+ * @author Daniel DeGroff
+ */
+public class SelectorTest {
+  private static final String HTML = "<div class=\"content main\" id=\"top\">" +
+      "<p lang=\"en-US\">One <a href=\"http://a.com\">a</a> <a name=\"b\">b</a></p>" +
+      "<section><p><a href=\"http://c.com/c.png\" title=\"Big Image\">c</a></p></section>" +
+      "</div>" +
+      "<div><p><a href=\"https://d.com\">d</a></p></div>" +
+      "<table><tr><td>1</td><th>2</th></tr><tr><td>3</td></tr></table>";
+
+  @DataProvider
+  public static Object[][] invalid() {
+    return new Object[][]{
+        {""},
+        {"div >"},
+        {"> div"},
+        {"div,"},
+        {"a[href"},
+        {"a[href!=x]"},
+        {"a[title=\"x]"},
+        {"div:first-child"},
+        {"."}
+    };
+  }
+
+  @DataProvider
+  public static Object[][] selectors() {
+    return new Object[][]{
+        {"a", "a,b,c,d"},
+        {"A", "a,b,c,d"},
+        {"a[href]", "a,c,d"},
+        {"div.content > p a[href]", "a"},
+        {"div.content a[href]", "a,c"},
+        {".main a", "a,b,c"},
+        {"#top > section > p > a", "c"},
+        {"div > a", ""},
+        {"a[href^=https]", "d"},
+        {"a[href$='.png']", "c"},
+        {"a[title*=\"g I\"]", "c"},
+        {"a[title~=Image]", "c"},
+        {"a[title~=Imag]", ""},
+        {"p[lang|=en] a", "a,b"},
+        {"p[LANG=en-US] *", "a,b"},
+        {"table tr td", "1,3"},
+        {"td, th", "1,2,3"},
+        {"tr > *", "1,2,3"},
+        {"section a, p > a[name]", "b,c"},
+        {"div  >  p  >  a", "a,b,d"}
+    };
+  }
+
+  @Test(dataProvider = "invalid")
+  public void invalid(String selector) {
+    try {
+      Selector.compile(selector);
+      fail("Expected the selector [" + selector + "] to be invalid");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains(selector), e.getMessage());
+    }
+  }
+
+  @Test
+  public void matches() {
+    Document document = parse(HTML);
+    Selector selector = Selector.compile("div.content > p a[href]");
+    TagNode first = Selector.compile("a").selectFirst(document);
+    assertTrue(selector.test(first));
+    assertFalse(selector.test(Selector.compile("a[name]").selectFirst(document)));
+    assertEquals(selector.toString(), "div.content > p a[href]");
+  }
+
+  @Test(dataProvider = "selectors")
+  public void select(String selector, String expected) {
+    Document document = parse(HTML);
+    Selector compiled = Selector.compile(selector);
+    assertEquals(text(compiled.select(document)), expected, selector);
+
+    // The tag index and a walk of the tree agree
+    List<TagNode> walked = new ArrayList<>();
+    document.tagNodes().forEach((tagNode) -> {
+      if (compiled.test(tagNode)) {
+        walked.add(tagNode);
+      }
+    });
+    assertEquals(text(walked), expected, selector);
+  }
+
+  @Test
+  public void selectBelowTag() {
+    Document document = parse(HTML);
+    TagNode top = Selector.compile("#top").selectFirst(document);
+    assertEquals(text(Selector.compile("a").select(top)), "a,b,c");
+    assertEquals(text(Selector.compile("div a").select(top)), "a,b,c");
+    assertEquals(Selector.compile("div").select(top).size(), 0);
+    assertNull(Selector.compile("td").selectFirst(top));
+  }
+
+  private Document parse(String source) {
+    return new HTMLParser().buildDocument(source, new HashMap<>());
+  }
+
+  private String text(List<TagNode> tagNodes) {
+    List<String> result = new ArrayList<>();
+    for (TagNode tagNode : tagNodes) {
+      result.add(tagNode.getChildren().get(0).getRawString());
+    }
+    return String.join(",", result);
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.SourceMap;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.service.Transformer.TransformFunction.HTMLTransformFunction;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests the source maps built by the transformers.
+ *
+ * @author Daniel DeGroff
+ */
+public class SourceMapTest {
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  @Test
+  public void escapedText() {
+    // Only the escapes themselves map to the beginning of their source, the text around them maps exactly
+    String source = "[b][i]Tom & Jerry <3 \"cheese\" & crackers[/i][/b] after";
+    Document document = new BBCodeParser().buildDocument(source, attributes);
+    SourceMap sourceMap = new SourceMap();
+    String actual = new BBCodeToHTMLTransformer().transformWithSourceMap(document, (node) -> true, new HTMLTransformFunction(attributes), null, sourceMap);
+    assertEquals(actual, "<strong><em>Tom &amp; Jerry &lt;3 &quot;cheese&quot; &amp; crackers</em></strong> after");
+    for (String word : new String[]{"Tom", "Jerry", "3", "cheese", "crackers", "after"}) {
+      assertEquals(sourceMap.toSource(actual.indexOf(word)), source.indexOf(word), word);
+      assertEquals(sourceMap.toSource(actual.indexOf(word) + 1), source.indexOf(word) + 1, word);
+      assertEquals(sourceMap.toOutput(source.indexOf(word) + 1), actual.indexOf(word) + 1, word);
+    }
+    assertEquals(sourceMap.toSource(actual.indexOf("lt;")), source.indexOf("<"));
+    assertEquals(sourceMap.toSource(actual.lastIndexOf("quot;")), source.lastIndexOf("\""));
+    assertEquals(sourceMap.toOutput(source.lastIndexOf("&")), actual.lastIndexOf("&amp;"));
+
+    // Text that is cut off has no output
+    sourceMap = new SourceMap();
+    char[] text = "a & b and more".toCharArray();
+    sourceMap.addText(10, "a &amp; b", 0, text.length, text);
+    assertEquals(sourceMap.toString(), "[10-12->0-2, 12-17->2-3, 17-19->3-5]");
+    assertEquals(sourceMap.toSource(18), 4);
+    assertEquals(sourceMap.toOutput(5), 19);
+    assertEquals(sourceMap.toOutput(7), -1);
+
+    // Line breaks replace more than one character
+    sourceMap = new SourceMap();
+    text = "ab\r\ncd\nef".toCharArray();
+    sourceMap.addText(0, "ab<br>cd<br>ef", 0, text.length, text);
+    assertEquals(sourceMap.toSource(6), 4);
+    assertEquals(sourceMap.toSource(12), 7);
+    assertEquals(sourceMap.toOutput(7), 12);
+  }
+
+  @Test
+  public void html() {
+    String source = "x & [b]bold [i]it[/i][/b] [foo]y[/foo]";
+    Document document = new BBCodeParser().buildDocument(source, attributes);
+    SourceMapTransformer transformer = new BBCodeToHTMLTransformer();
+    SourceMap sourceMap = new SourceMap();
+    String actual = transformer.transformWithSourceMap(document, (node) -> true, new HTMLTransformFunction(attributes), null, sourceMap);
+    assertEquals(actual, transformer.transform(document, (node) -> true, new HTMLTransformFunction(attributes), null));
+    assertEquals(actual, "x &amp; <strong>bold <em>it</em></strong> [foo]y[/foo]");
+
+    // Text maps exactly in both directions
+    assertEquals(sourceMap.toSource(actual.indexOf("bold")), source.indexOf("bold"));
+    assertEquals(sourceMap.toSource(actual.indexOf("it")), source.indexOf("it"));
+    assertEquals(sourceMap.toSource(actual.indexOf("y[")), source.indexOf("y["));
+    assertEquals(sourceMap.toOutput(source.indexOf("old")), actual.indexOf("old"));
+    assertEquals(sourceMap.toOutput(source.indexOf("t[")), actual.indexOf("t<"));
+
+    // Escaped text and markup map to the beginning of their source
+    assertEquals(sourceMap.toSource(actual.indexOf("amp;")), source.indexOf("&"));
+    assertEquals(sourceMap.toSource(actual.indexOf("trong>")), source.indexOf("[b]"));
+    assertEquals(sourceMap.toSource(actual.indexOf("</em>")), source.indexOf("[/i]"));
+    assertEquals(sourceMap.toSource(actual.indexOf("</strong>")), source.indexOf("[/b]"));
+    assertEquals(sourceMap.toOutput(source.indexOf("[i]")), actual.indexOf("<em>"));
+    assertEquals(sourceMap.toSource(actual.length()), source.length());
+    assertEquals(sourceMap.toSource(actual.length() + 1), -1);
+  }
+
+  @Test
+  public void templateBody() throws IOException {
+    // The URL template writes the body twice, the last one is the one that is mapped
+    String source = "[url]http://foo.com[/url]";
+    Document document = new BBCodeParser().buildDocument(source, attributes);
+    SourceMap sourceMap = new SourceMap();
+    String actual = new BBCodeToHTMLTransformer().transformWithSourceMap(document, (node) -> true, null, null, sourceMap);
+    assertEquals(sourceMap.toSource(actual.lastIndexOf("foo")), source.indexOf("foo"));
+    assertEquals(sourceMap.toSource(actual.indexOf("foo")), 0);
+    assertEquals(sourceMap.toOutput(source.indexOf("foo")), actual.lastIndexOf("foo"));
+
+    // A template that changes the body is a single segment for the entire tag
+    Configuration configuration = new Configuration();
+    Map<String, Template> templates = new HashMap<>();
+    templates.put("upper", new Template("upper", new StringReader("<u>${body?upper_case}</u>"), configuration));
+    source = "a [upper]xy[/upper]";
+    document = new BBCodeParser().buildDocument(source, attributes);
+    sourceMap = new SourceMap();
+    actual = new FreeMarkerTransformer(templates).transformWithSourceMap(document, (node) -> true, null, null, sourceMap);
+    assertEquals(actual, "a <u>XY</u>");
+    assertEquals(sourceMap.size(), 2);
+    assertEquals(sourceMap.toSource(actual.indexOf("Y")), 2);
+    assertEquals(sourceMap.toOutput(source.indexOf("y")), 2);
+    assertEquals(sourceMap.toOutput(1), 1);
+  }
+
+  @Test
+  public void text() {
+    String source = "[b]ab[/b]cd [foo]e[/foo]";
+    Document document = new BBCodeParser().buildDocument(source, attributes);
+    SourceMap sourceMap = new SourceMap();
+    String actual = new TextTransformer().transformWithSourceMap(document, (node) -> !node.getName().equals("foo"), null, null, sourceMap);
+    assertEquals(actual, "abcd [foo]e[/foo]");
+    assertEquals(sourceMap.toString(), "[0-2->3-5, 2-5->9-12, 5-17->12-24]");
+    assertEquals(sourceMap.toSource(0), 3);
+    assertEquals(sourceMap.toSource(2), 9);
+    assertEquals(sourceMap.toSource(actual.indexOf("e")), source.indexOf("e"));
+    assertEquals(sourceMap.toOutput(4), 1);
+    assertEquals(sourceMap.toOutput(6), -1);
+    assertEquals(sourceMap.toOutput(1), -1);
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.domain.TagIndex;
+import org.primeframework.transformer.domain.TagNames;
+import org.primeframework.transformer.domain.TagNode;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests the tag index and tag iteration of documents.
+ *
+ * @author Daniel DeGroff
+ */
+public class TagIndexTest {
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  @Test
+  public void index() {
+    Document document = new BBCodeParser(true).buildDocument("[quote][img]a.png[/img][quote][IMG]b.png[/IMG][/quote][/quote] [url]x[/url] [zzunregistered]y[/zzunregistered]", attributes);
+    TagIndex index = document.tagIndex();
+    assertSame(document.tagIndex(), index);
+    assertEquals(index.size(), 6);
+
+    List<TagNode> images = index.get("img");
+    assertEquals(images.size(), 2);
+    assertEquals(images.get(0).getChildren().toString(), "[TextNode{body=a.png}]");
+    assertEquals(images.get(1).getChildren().toString(), "[TextNode{body=b.png}]");
+    assertSame(index.get(TagNames.intern("img")), images);
+
+    assertEquals(index.count("QUOTE"), 2);
+    assertTrue(index.get("quote").get(0).begin < index.get("quote").get(1).begin);
+    assertEquals(index.count("url"), 1);
+    assertEquals(index.count("b"), 0);
+
+    // Names that aren't registered are indexed without registering them
+    assertEquals(TagNames.lookup("zzunregistered"), TagNames.UNKNOWN);
+    assertEquals(index.count("zzunregistered"), 1);
+    TagNames.intern("zzunregistered");
+    assertEquals(index.count("zzunregistered"), 1);
+  }
+
+  @Test
+  public void turkishLocale() {
+    // The lower case of I is a dotless i in Turkish, names are lower cased the same way in every locale
+    Locale locale = Locale.getDefault();
+    Locale.setDefault(new Locale("tr", "TR"));
+    try {
+      Document document = new BBCodeParser(true).buildDocument("[zzTITLE]a[/zzTITLE] [zztitle]b[/zztitle]", attributes);
+      assertEquals(document.tagIndex().count("zztitle"), 2);
+      assertEquals(document.tagIndex().count("ZZTITLE"), 2);
+    } finally {
+      Locale.setDefault(locale);
+    }
+  }
+
+  @Test
+  public void tagNodes() {
+    Document document = new HTMLParser().buildDocument("<div><p>a<b>b</b></p><ul><li>c</li><li><i>d</i></li></ul></div><hr><span>e</span>", attributes);
+    List<String> names = new ArrayList<>();
+    for (TagNode tagNode : document.tagNodes()) {
+      names.add(tagNode.getName());
+    }
+    assertEquals(names.toString(), "[div, p, b, ul, li, li, i, hr, span]");
+    assertEquals(document.getChildTagNodes().size(), names.size());
+
+    // A tag is included in its own iteration
+    TagNode list = document.tagIndex().get("ul").get(0);
+    names.clear();
+    for (TagNode tagNode : list.tagNodes()) {
+      names.add(tagNode.getName());
+    }
+    assertEquals(names.toString(), "[ul, li, li, i]");
+
+    Iterator<TagNode> iterator = new HTMLParser().buildDocument("text only", attributes).tagNodes().iterator();
+    assertFalse(iterator.hasNext());
+  }
+}
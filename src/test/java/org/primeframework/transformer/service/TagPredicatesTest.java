@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.domain.TagNames;
+import org.primeframework.transformer.domain.TagNode;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests the TagPredicates and the CompiledTagPredicate.
+ *
+ * @author Daniel DeGroff
+ */
+public class TagPredicatesTest {
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  @Test
+  public void allow() {
+    assertTransform(TagPredicates.allow("b", "I"), "[b]bold[/b] [i]italic[/i] [u]under[/u] [B]BOLD[/B]",
+        "<strong>bold</strong> <em>italic</em> [u]under[/u] <strong>BOLD</strong>");
+    assertTransform(TagPredicates.allow(), "[b]bold[/b]", "[b]bold[/b]");
+  }
+
+  @Test
+  public void and() {
+    CompiledTagPredicate predicate = TagPredicates.deny("u").and(TagPredicates.allow("b", "u", "i")).withMaxDepth(2);
+    assertTransform(predicate, "[b]a[i]b[s]c[/s][/i][/b][u]d[/u][s]e[/s]",
+        "<strong>a<em>b[s]c[/s]</em></strong>[u]d[/u][s]e[/s]");
+  }
+
+  @Test
+  public void attribute() {
+    CompiledTagPredicate predicate = TagPredicates.all()
+                                                  .where(TagPredicates.attribute(null, (value) -> value.startsWith("https://")), "url");
+    assertTransform(predicate, "[url=https://foo.com]a[/url] [url=javascript:alert(1)]b[/url] [b]c[/b]",
+        "<a       href=\"https://foo.com\" >a</a> [url=javascript:alert(1)]b[/url] <strong>c</strong>");
+  }
+
+  @Test
+  public void deny() {
+    assertTransform(TagPredicates.deny("url", "img"), "[b]bold[/b] [url]http://foo.com[/url] [unknown]x[/unknown]",
+        "<strong>bold</strong> [url]http://foo.com[/url] [unknown]x[/unknown]");
+  }
+
+  @Test
+  public void maxDepth() {
+    assertTransform(TagPredicates.maxDepth(2), "[b]1[i]2[u]3[/u][/i][/b]",
+        "<strong>1<em>2[u]3[/u]</em></strong>");
+    assertTransform(TagPredicates.maxDepth(0), "[b]1[/b]", "[b]1[/b]");
+  }
+
+  @Test
+  public void maxDepthForked() {
+    // The forked renders start below the top level and must use the real depth of their tags
+    StringBuilder source = new StringBuilder("[quote]");
+    for (int i = 0; i < 50; i++) {
+      source.append("[b]").append(i).append("[i]x[u]y[/u][/i][/b]");
+    }
+    source.append("[/quote]");
+
+    Document document = new BBCodeParser().buildDocument(source.toString(), attributes);
+    CompiledTagPredicate predicate = TagPredicates.maxDepth(3);
+    String expected = new BBCodeToHTMLTransformer().transform(document, predicate::test, null, null);
+    assertTrue(expected.contains("<em>x[u]y[/u]</em>"));
+    assertEquals(new BBCodeToHTMLTransformer(false, ForkJoinPool.commonPool(), 64).transform(document, predicate, null, null), expected);
+  }
+
+  @Test
+  public void maxDepthSanitized() {
+    Map<String, Set<String>> allowList = new HashMap<>();
+    allowList.put("b", Collections.emptySet());
+    allowList.put("i", Collections.emptySet());
+    Document document = new HTMLParser().buildDocument("<b>1<i>2<b>3</b></i></b>", attributes);
+    assertEquals(new SanitizingTransformer(allowList).transform(document, TagPredicates.maxDepth(2), null, null),
+        "<b>1<i>23</i></b>");
+  }
+
+  @Test
+  public void names() {
+    int id = TagNames.intern("TagPredicatesTest");
+    assertEquals(TagNames.intern("tagpredicatestest"), id);
+    assertEquals(TagNames.lookup("TAGPREDICATESTEST"), id);
+    assertEquals(TagNames.lookup("[tagPredicatesTest]".toCharArray(), 1, 18), id);
+    assertEquals(TagNames.name(id), "tagpredicatestest");
+    assertEquals(TagNames.lookup("TagPredicatesTestNever"), TagNames.UNKNOWN);
+
+    Document document = new BBCodeParser().buildDocument("[TAGPREDICATESTEST]x[/TAGPREDICATESTEST][never0]y[/never0]", attributes);
+    assertEquals(((TagNode) document.children.get(0)).getNameId(), id);
+    assertEquals(((TagNode) document.children.get(1)).getNameId(), TagNames.UNKNOWN);
+
+    // Generic predicates behave the same
+    assertTrue(TagPredicates.allow("tagpredicatestest").test((TagNode) document.children.get(0)));
+    assertFalse(TagPredicates.allow("tagpredicatestest").test((TagNode) document.children.get(1)));
+    assertTrue(TagPredicates.deny("tagpredicatestest").test((TagNode) document.children.get(1)));
+  }
+
+  @Test
+  public void registryGrowth() {
+    CompiledTagPredicate deny = TagPredicates.deny("b");
+    CompiledTagPredicate allow = TagPredicates.allow("b");
+
+    // Names registered after the predicates were built
+    for (int i = 0; i < 200; i++) {
+      TagNames.intern("registryGrowth" + i);
+    }
+
+    Document document = new BBCodeParser().buildDocument("[registryGrowth150]x[/registryGrowth150]", attributes);
+    TagNode tagNode = (TagNode) document.children.get(0);
+    assertTrue(deny.test(tagNode));
+    assertFalse(allow.test(tagNode));
+  }
+
+  private void assertTransform(CompiledTagPredicate predicate, String source, String expected) {
+    Document document = new BBCodeParser().buildDocument(source, attributes);
+    assertEquals(new BBCodeToHTMLTransformer().transform(document, predicate, null, null), expected);
+    assertEquals(new BBCodeToHTMLTransformer().transform(document, predicate::test, null, null), expected);
+  }
+}
@@ -15,13 +15,16 @@
  */
 package org.primeframework.transformer.service;
 
+import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Predicate;
 
 import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.Rope;
 import org.primeframework.transformer.domain.TagAttributes;
 import org.primeframework.transformer.domain.TagNode;
+import org.primeframework.transformer.service.Transformer.TransformFunction.HTMLTransformFunction;
 import org.testng.annotations.Test;
 import static org.testng.Assert.assertEquals;
 
@@ -57,6 +60,29 @@ public class TextTransformerTest {
     assertHTMLTransformToText("Example <pre class=\"code\" type=\"see the java oo\" syntax=\"java\"> System.out.println(\"Hello World!\"); </pre> ", "Example  System.out.println(\"Hello World!\");  ", (node) -> true);
   }
 
+  @Test
+  public void rope() throws Exception {
+    Document doc = new BBCodeParser().buildDocument("Hello [b]bold[/b] & [foo]raw[/foo] [i]<i>[/i]", attributes);
+    Rope rope = new TextTransformer().transformToRope(doc, (node) -> !node.getName().equals("foo"), new HTMLTransformFunction(), null);
+    assertEquals(rope.toString(), "Hello bold &amp; [foo]raw[/foo] &lt;i&gt;");
+    assertEquals(rope.length(), rope.toString().length());
+    assertEquals(rope.charAt(6), 'b');
+    assertEquals(rope.charAt(12), 'a');
+    assertEquals(rope.subSequence(4, 14).toString(), "o bold &am");
+
+    // The text before the escape and the untransformed tag are slices, the raw tag and the space after it are merged
+    assertEquals(rope.segments(), 5);
+
+    StringWriter writer = new StringWriter();
+    rope.writeTo(writer);
+    assertEquals(writer.toString(), rope.toString());
+
+    // Without a transform function everything is a slice
+    rope = new TextTransformer().transformToRope(doc, (node) -> false, null, null);
+    assertEquals(rope.toString(), "Hello [b]bold[/b] & [foo]raw[/foo] [i]<i>[/i]");
+    assertEquals(rope.segments(), 1);
+  }
+
   private void assertHTMLTransformToText(String str, String expected, Predicate<TagNode> transformPredicate) {
     HTMLParser parser = new HTMLParser();
     Document doc = parser.buildDocument(str, attributes);
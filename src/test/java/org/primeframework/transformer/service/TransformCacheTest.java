@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2026, Inversoft Inc., All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package org.primeframework.transformer.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.primeframework.transformer.domain.Document;
+import org.primeframework.transformer.domain.TagAttributes;
+import org.primeframework.transformer.domain.TagNode;
+import org.primeframework.transformer.service.Transformer.TransformFunction;
+import org.primeframework.transformer.service.Transformer.TransformFunction.HTMLTransformFunction;
+import org.testng.annotations.Test;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests the TransformCache.
+ *
+ * @author Daniel DeGroff
+ */
+public class TransformCacheTest {
+  private static final Map<String, TagAttributes> attributes = new HashMap<>();
+
+  private static final TransformFunction function = new HTMLTransformFunction();
+
+  private static final Predicate<TagNode> predicate = (node) -> true;
+
+  @Test
+  public void cached() {
+    CountingTransformer transformer = new CountingTransformer();
+    TransformCache cache = new TransformCache(new BBCodeParser(), transformer);
+
+    assertEquals(cache.transform("[b]Hello World![/b]", attributes, predicate, function), "<strong>Hello World!</strong>");
+    assertEquals(cache.transform("[b]Hello World![/b]", attributes, predicate, function), "<strong>Hello World!</strong>");
+    assertEquals(transformer.count.get(), 1);
+
+    // A different predicate is a different entry
+    assertEquals(cache.transform("[b]Hello World![/b]", attributes, (node) -> false, function), "[b]Hello World![/b]");
+    assertEquals(transformer.count.get(), 2);
+
+    TransformCache.Stats stats = cache.stats();
+    assertEquals(stats.hits, 1);
+    assertEquals(stats.misses, 2);
+    assertEquals(stats.coalesced, 0);
+
+    cache.invalidateAll();
+    cache.transform("[b]Hello World![/b]", attributes, predicate, function);
+    assertEquals(transformer.count.get(), 3);
+  }
+
+  @Test
+  public void coalesced() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CountingTransformer transformer = new CountingTransformer() {
+      @Override
+      public String transform(Document document, Predicate<TagNode> transformPredicate,
+                              TransformFunction transformFunction, NodeConsumer nodeConsumer) {
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+        return super.transform(document, transformPredicate, transformFunction, nodeConsumer);
+      }
+    };
+
+    TransformCache cache = new TransformCache(new BBCodeParser(), transformer);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executor.submit(() -> cache.transform("[i]slow[/i]", attributes, predicate, function)));
+      }
+
+      // Wait for every request to either hold the key or wait on it
+      long deadline = System.currentTimeMillis() + 5000;
+      while (cache.stats().misses + cache.stats().coalesced < 8 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(5);
+      }
+
+      release.countDown();
+      for (Future<String> future : futures) {
+        assertEquals(future.get(), "<em>slow</em>");
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(transformer.count.get(), 1);
+    assertEquals(cache.stats().coalesced, 7);
+  }
+
+  @Test
+  public void coalescedError() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CountingTransformer transformer = new CountingTransformer() {
+      @Override
+      public String transform(Document document, Predicate<TagNode> transformPredicate,
+                              TransformFunction transformFunction, NodeConsumer nodeConsumer) {
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+        throw new StackOverflowError();
+      }
+    };
+
+    TransformCache cache = new TransformCache(new BBCodeParser(), transformer);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> first = executor.submit(() -> cache.transform("[i]deep[/i]", attributes, predicate, function));
+      Future<String> second = executor.submit(() -> cache.transform("[i]deep[/i]", attributes, predicate, function));
+
+      long deadline = System.currentTimeMillis() + 5000;
+      while (cache.stats().misses + cache.stats().coalesced < 2 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(5);
+      }
+      assertEquals(cache.stats().coalesced, 1);
+
+      release.countDown();
+      assertCause(first, StackOverflowError.class);
+      assertCause(second, TransformException.class);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void fingerprint() {
+    TransformCache.Key key1 = new TransformCache.Key("[b]foo[/b]", attributes, predicate, function);
+    TransformCache.Key key2 = new TransformCache.Key(new String("[b]foo[/b]"), attributes, predicate, function);
+    TransformCache.Key key3 = new TransformCache.Key("[b]fop[/b]", attributes, predicate, function);
+    assertEquals(key1, key2);
+    assertEquals(key1.hashCode(), key2.hashCode());
+    assertNotEquals(key1, key3);
+    assertNotEquals(key1, new TransformCache.Key("[b]foo[/b]", new HashMap<>(), predicate, function));
+  }
+
+  @Test
+  public void lruEviction() {
+    TransformCache.LRUStore store = new TransformCache.LRUStore(100);
+    TransformCache cache = new TransformCache(new BBCodeParser(), new BBCodeToHTMLTransformer(), store);
+
+    // 11 characters of source and 21 characters of result, only 3 fit
+    for (int i = 0; i < 10; i++) {
+      cache.transform("[b]foo" + i + "[/b]", attributes, predicate, function);
+    }
+
+    assertEquals(store.size(), 3);
+    assertEquals(store.evictions(), 7);
+    assertTrue(store.weight() <= 100);
+
+    // Too large for the store, never cached
+    StringBuilder large = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      large.append('x');
+    }
+    cache.transform(large.toString(), attributes, predicate, function);
+    assertEquals(store.size(), 3);
+  }
+
+  private void assertCause(Future<String> future, Class<? extends Throwable> type) throws Exception {
+    try {
+      future.get(5, TimeUnit.SECONDS);
+      fail("Expected the transformation to fail");
+    } catch (ExecutionException e) {
+      assertTrue(type.isInstance(e.getCause()), String.valueOf(e.getCause()));
+    }
+  }
+
+  private static class CountingTransformer extends BBCodeToHTMLTransformer {
+    final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public String transform(Document document, Predicate<TagNode> transformPredicate,
+                            TransformFunction transformFunction, NodeConsumer nodeConsumer) {
+      count.incrementAndGet();
+      return super.transform(document, transformPredicate, transformFunction, nodeConsumer);
+    }
+  }
+}